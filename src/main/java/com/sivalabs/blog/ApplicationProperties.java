@@ -1,8 +1,16 @@
 package com.sivalabs.blog;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 @ConfigurationProperties(prefix = "app")
@@ -14,4 +22,73 @@ public record ApplicationProperties(
         @DefaultValue("6") int blogPostsPageSize,
         @DefaultValue("10") int adminDefaultPageSize,
         @NotBlank String fileUploadsDir,
-        boolean initSampleData) {}
+        boolean initSampleData,
+        @Valid @DefaultValue AnalyticsProperties analytics,
+        @Valid @DefaultValue EventArchiveProperties eventArchive) {
+
+    public record AnalyticsProperties(
+            @Min(1) @DefaultValue("10000") int bufferCapacity,
+            @Min(1) @DefaultValue("500") int batchSize,
+            @DefaultValue("1s") Duration flushInterval,
+            @Min(4) @Max(18) @DefaultValue("12") int hllPrecision,
+            @DefaultValue("0 15 0 * * *") String partitionMaintenanceJobCron,
+            @Min(1) @DefaultValue("3") int partitionPremakeMonths,
+            @Min(0) @DefaultValue("0") int retentionMonths,
+            @DefaultValue("false") boolean dropExpiredPartitions,
+            @DefaultValue("0 */5 * * * *") String dailyViewsBackfillJobCron,
+            @Min(10) @DefaultValue("200") int trendingCapacity,
+            @DefaultValue("hash") VisitorIdStrategy visitorIdStrategy,
+            String visitorIdSecret,
+            @DefaultValue({"/", "/login", "/logout", "/error", "/admin/**", "/api/**"}) List<String> excludedRoutes,
+            @DefaultValue("0 * * * * *") String contentSlugsRefreshJobCron,
+            @DefaultValue("30s") Duration dashboardSnapshotTtl,
+            @DefaultValue("5m") Duration activeReaderWindow,
+            @DefaultValue("30m") Duration sessionTimeout,
+            @Min(1) @DefaultValue("100000") int sessionCapacity,
+            @DefaultValue("server") PageViewCapture pageViewCapture,
+            @DefaultValue("at-most-once") PageViewDelivery pageViewDelivery,
+            String pageViewSpillDir,
+            @DefaultValue("100MB") DataSize pageViewSpillMaxSize,
+            @DefaultValue("16MB") DataSize pageViewLogSegmentSize,
+            @Min(1) @DefaultValue("5") int pageViewReplayMaxAttempts,
+            ZoneId timeZone,
+            @DefaultValue("0 30 3 * * SUN") String summaryReconciliationJobCron,
+            @Min(16) @DefaultValue("10000") int dictionaryCacheSize,
+            @DefaultValue List<String> internalRefererHosts,
+            @Min(1) @DefaultValue("50") int pageReferrerCapacity,
+            @Min(1) @DefaultValue("500") int siteReferrerCapacity,
+            String ipCountryFile) {
+
+        public AnalyticsProperties {
+            timeZone = timeZone != null ? timeZone : ZoneId.systemDefault();
+        }
+
+        public enum VisitorIdStrategy {
+            HASH,
+            COOKIE
+        }
+
+        public enum PageViewCapture {
+            SERVER,
+            BEACON
+        }
+
+        public enum PageViewDelivery {
+            AT_MOST_ONCE,
+            FILE_SPILL,
+            WRITE_AHEAD_LOG
+        }
+    }
+
+    public record EventArchiveProperties(
+            @DefaultValue("0 */10 * * * *") String compactionJobCron,
+            @DefaultValue("7d") Duration defaultRetention,
+            Map<String, Duration> retention,
+            @Min(1) @DefaultValue("1000") int compactionBatchSize,
+            @DefaultValue("true") boolean aggregate) {
+
+        public EventArchiveProperties {
+            retention = retention != null ? Map.copyOf(retention) : Map.of();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.sivalabs.blog.admin.jobs;
+
+import com.sivalabs.blog.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+class EventPublicationArchiveCompactionJob {
+    private static final Logger log = LoggerFactory.getLogger(EventPublicationArchiveCompactionJob.class);
+
+    private final EventPublicationArchiveRepository archiveRepository;
+    private final ApplicationProperties.EventArchiveProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Timer compactionTimer;
+    private final AtomicLong archiveRows = new AtomicLong();
+    private final AtomicLong archiveBytes = new AtomicLong();
+
+    @Autowired
+    EventPublicationArchiveCompactionJob(
+            EventPublicationArchiveRepository archiveRepository,
+            ApplicationProperties properties,
+            MeterRegistry meterRegistry) {
+        this(archiveRepository, properties.eventArchive(), meterRegistry);
+    }
+
+    EventPublicationArchiveCompactionJob(
+            EventPublicationArchiveRepository archiveRepository,
+            ApplicationProperties.EventArchiveProperties properties,
+            MeterRegistry meterRegistry) {
+        this.archiveRepository = archiveRepository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.compactionTimer = Timer.builder("event.publication.archive.compaction")
+                .description("Time taken to compact the event publication archive")
+                .register(meterRegistry);
+        Gauge.builder("event.publication.archive.rows", archiveRows, AtomicLong::get)
+                .description("Estimated number of archived event publications")
+                .register(meterRegistry);
+        Gauge.builder("event.publication.archive.size", archiveBytes, AtomicLong::get)
+                .description("Size of the event publication archive table including its indexes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.event-archive.compaction-job-cron}")
+    void compact() {
+        try {
+            compactArchive();
+        } catch (Exception e) {
+            log.error("Failed to compact the event publication archive", e);
+        }
+    }
+
+    long compactArchive() {
+        if (!archiveRepository.archiveExists()) {
+            log.debug("No event publication archive table, skipping compaction");
+            return 0;
+        }
+        var now = Instant.now();
+        long start = System.nanoTime();
+        long purged = 0;
+        for (var retention : properties.retention().entrySet()) {
+            var cutoff = now.minus(retention.getValue());
+            purged += compactInBatches(() -> archiveRepository.compactEventType(
+                    retention.getKey(), cutoff, properties.compactionBatchSize(), properties.aggregate()));
+        }
+        var cutoff = now.minus(properties.defaultRetention());
+        purged += compactInBatches(() -> archiveRepository.compactOtherEventTypes(
+                properties.retention().keySet(), cutoff, properties.compactionBatchSize(), properties.aggregate()));
+        compactionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        var size = archiveRepository.findArchiveSize();
+        archiveRows.set(size.estimatedRows());
+        archiveBytes.set(size.totalBytes());
+        if (purged > 0) {
+            log.info("Compacted {} archived event publications, about {} remain", purged, size.estimatedRows());
+        }
+        return purged;
+    }
+
+    // Every batch runs in its own short transaction, so row locks are only held for one batch at a time
+    private long compactInBatches(Supplier<Map<String, Long>> batch) {
+        long total = 0;
+        long purged;
+        do {
+            var purgedByType = batch.get();
+            purged = 0;
+            for (var entry : purgedByType.entrySet()) {
+                purgedCounter(entry.getKey()).increment(entry.getValue());
+                purged += entry.getValue();
+            }
+            total += purged;
+        } while (purged >= properties.compactionBatchSize());
+        return total;
+    }
+
+    private Counter purgedCounter(String eventType) {
+        return Counter.builder("event.publication.archive.purged")
+                .description("Archived event publications removed by compaction")
+                .tag("event.type", eventType)
+                .register(meterRegistry);
+    }
+}
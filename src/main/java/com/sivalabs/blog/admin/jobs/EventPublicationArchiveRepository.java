@@ -0,0 +1,93 @@
+package com.sivalabs.blog.admin.jobs;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+class EventPublicationArchiveRepository {
+    // Deletes one batch of the oldest expired publications, skipping rows locked by a concurrent run,
+    // optionally counts them into event_publication_archive_stats and returns the deleted rows per event type
+    private static final String COMPACT_BATCH =
+            """
+            with expired as (
+                select id from event_publication_archive
+                where %s and completion_date < ?
+                order by completion_date
+                limit ?
+                for update skip locked
+            ), deleted as (
+                delete from event_publication_archive a using expired e
+                where a.id = e.id
+                returning a.event_type, a.listener_id, a.completion_date
+            ), purged as (
+                select event_type, listener_id, completion_date::date as day, count(*) as publications
+                from deleted
+                group by event_type, listener_id, completion_date::date
+            ), stats as (
+                insert into event_publication_archive_stats(event_type, listener_id, day, publications)
+                select event_type, listener_id, day, publications from purged where ?
+                on conflict (event_type, listener_id, day) do update
+                    set publications = event_publication_archive_stats.publications + excluded.publications
+            )
+            select event_type, sum(publications) as publications from purged group by event_type
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    EventPublicationArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // The archive table is created by Spring Modulith only when the JDBC event registry is in use
+    boolean archiveExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select to_regclass('event_publication_archive') is not null", Boolean.class));
+    }
+
+    Map<String, Long> compactEventType(String eventType, Instant cutoff, int batchSize, boolean aggregate) {
+        return compactBatch("event_type = ?", eventType, cutoff, batchSize, aggregate);
+    }
+
+    Map<String, Long> compactOtherEventTypes(
+            Collection<String> excludedEventTypes, Instant cutoff, int batchSize, boolean aggregate) {
+        return compactBatch(
+                "event_type <> all(?::text[])",
+                excludedEventTypes.toArray(String[]::new),
+                cutoff,
+                batchSize,
+                aggregate);
+    }
+
+    ArchiveSize findArchiveSize() {
+        return jdbcTemplate.queryForObject(
+                """
+                select greatest(c.reltuples, 0)::bigint as estimated_rows,
+                       pg_total_relation_size(c.oid)   as total_bytes
+                from pg_class c
+                where c.oid = to_regclass('event_publication_archive')
+                """,
+                (rs, rowNum) -> new ArchiveSize(rs.getLong("estimated_rows"), rs.getLong("total_bytes")));
+    }
+
+    private Map<String, Long> compactBatch(
+            String condition, Object conditionValue, Instant cutoff, int batchSize, boolean aggregate) {
+        Map<String, Long> purged = new HashMap<>();
+        jdbcTemplate.query(
+                COMPACT_BATCH.formatted(condition),
+                rs -> {
+                    purged.put(rs.getString("event_type"), rs.getLong("publications"));
+                },
+                conditionValue,
+                Timestamp.from(cutoff),
+                batchSize,
+                aggregate);
+        return purged;
+    }
+
+    record ArchiveSize(long estimatedRows, long totalBytes) {}
+}
@@ -12,6 +12,7 @@ import com.sivalabs.blog.shared.entities.Comment;
 import com.sivalabs.blog.shared.entities.Post;
 import com.sivalabs.blog.shared.entities.Tag;
 import com.sivalabs.blog.shared.entities.User;
+import com.sivalabs.blog.shared.events.BlogContentChangedEvent;
 import com.sivalabs.blog.shared.models.CommentStatus;
 import com.sivalabs.blog.shared.models.PagedResult;
 import com.sivalabs.blog.shared.models.PostStatus;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,6 +34,7 @@ public class PostService {
     private final UserRepository userRepository;
     private final TagRepository tagRepository;
     private final ApplicationProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PostService(
             PostRepository postRepository,
@@ -39,13 +42,15 @@ public class PostService {
             CategoryRepository categoryRepository,
             UserRepository userRepository,
             TagRepository tagRepository,
-            ApplicationProperties properties) {
+            ApplicationProperties properties,
+            ApplicationEventPublisher eventPublisher) {
         this.postRepository = postRepository;
         this.commentRepository = commentRepository;
         this.categoryRepository = categoryRepository;
         this.userRepository = userRepository;
         this.tagRepository = tagRepository;
         this.properties = properties;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -72,6 +77,7 @@ public class PostService {
         post.setStatus(params.status());
 
         postRepository.save(post);
+        eventPublisher.publishEvent(new BlogContentChangedEvent());
     }
 
     @Transactional(readOnly = true)
@@ -110,6 +116,7 @@ public class PostService {
         post.setCreatedBy(user);
         post.setStatus(params.status());
         postRepository.save(post);
+        eventPublisher.publishEvent(new BlogContentChangedEvent());
         return post.getId();
     }
 
@@ -118,6 +125,7 @@ public class PostService {
         if (isValidIdList(postIds)) {
             commentRepository.deleteByPostIds(postIds);
             postRepository.deleteAllById(postIds);
+            eventPublisher.publishEvent(new BlogContentChangedEvent());
         }
     }
 
@@ -125,6 +133,7 @@ public class PostService {
     public void updatePostStatus(List<Long> postIds, PostStatus status) {
         if (isValidIdList(postIds)) {
             postRepository.updateStatus(postIds, status);
+            eventPublisher.publishEvent(new BlogContentChangedEvent());
         }
     }
 
@@ -1,17 +1,21 @@
 package com.sivalabs.blog.admin.taxonomy;
 
 import com.sivalabs.blog.shared.entities.Category;
+import com.sivalabs.blog.shared.events.BlogContentChangedEvent;
 import com.sivalabs.blog.shared.exceptions.BadRequestException;
 import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -43,5 +47,6 @@ public class CategoryService {
         category.setLabel(label);
         category.setSlug(slug);
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new BlogContentChangedEvent());
     }
 }
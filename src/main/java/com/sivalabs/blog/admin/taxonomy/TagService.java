@@ -3,16 +3,20 @@ package com.sivalabs.blog.admin.taxonomy;
 import static com.sivalabs.blog.shared.utils.CommonUtils.isValidIdList;
 
 import com.sivalabs.blog.shared.entities.Tag;
+import com.sivalabs.blog.shared.events.BlogContentChangedEvent;
 import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class TagService {
     private final TagRepository tagRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TagService(TagRepository tagRepository) {
+    public TagService(TagRepository tagRepository, ApplicationEventPublisher eventPublisher) {
         this.tagRepository = tagRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -30,6 +34,7 @@ public class TagService {
         if (isValidIdList(tagIds)) {
             tagRepository.deletePostTags(tagIds);
             tagRepository.deleteAllById(tagIds);
+            eventPublisher.publishEvent(new BlogContentChangedEvent());
         }
     }
 }
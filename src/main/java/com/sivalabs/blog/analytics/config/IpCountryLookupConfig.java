@@ -0,0 +1,28 @@
+package com.sivalabs.blog.analytics.config;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.domain.IpCountryLookup;
+import com.sivalabs.blog.analytics.domain.IpCountryRangeFile;
+import java.nio.file.Path;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+class IpCountryLookupConfig {
+    private static final Logger log = LoggerFactory.getLogger(IpCountryLookupConfig.class);
+
+    @Bean
+    IpCountryLookup ipCountryLookup(ApplicationProperties properties) {
+        var file = properties.analytics().ipCountryFile();
+        if (StringUtils.isBlank(file)) {
+            log.info("No app.analytics.ip-country-file configured, page views are recorded without a country");
+            return IpCountryLookup.NONE;
+        }
+        var rangeFile = IpCountryRangeFile.open(Path.of(file));
+        log.info("Loaded {} IP country ranges from {}", rangeFile.rangeCount(), file);
+        return rangeFile;
+    }
+}
@@ -0,0 +1,51 @@
+package com.sivalabs.blog.analytics.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.events.DiscardingPageViewSpill;
+import com.sivalabs.blog.analytics.events.FilePageViewSpill;
+import com.sivalabs.blog.analytics.events.PageViewSpill;
+import com.sivalabs.blog.analytics.events.PageViewSpillWriter;
+import com.sivalabs.blog.analytics.events.PageViewWriteAheadLog;
+import java.nio.file.Path;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+class PageViewDeliveryConfig {
+
+    @Bean
+    PageViewSpill pageViewSpill(ApplicationProperties properties, ObjectMapper objectMapper) {
+        var analytics = properties.analytics();
+        return switch (analytics.pageViewDelivery()) {
+            case AT_MOST_ONCE -> new DiscardingPageViewSpill();
+            case FILE_SPILL ->
+                new FilePageViewSpill(
+                        spillDir(properties), analytics.pageViewSpillMaxSize().toBytes(), objectMapper);
+            case WRITE_AHEAD_LOG ->
+                new PageViewWriteAheadLog(
+                        spillDir(properties),
+                        analytics.pageViewLogSegmentSize().toBytes(),
+                        analytics.pageViewSpillMaxSize().toBytes(),
+                        analytics.pageViewReplayMaxAttempts());
+        };
+    }
+
+    // At-most-once delivery drops what does not fit in the buffer, the write-ahead log takes every page view
+    @Bean
+    @ConditionalOnProperty(name = "app.analytics.page-view-delivery", havingValue = "file-spill")
+    PageViewSpillWriter pageViewSpillWriter(PageViewSpill pageViewSpill, ApplicationProperties properties) {
+        return new PageViewSpillWriter(pageViewSpill, properties);
+    }
+
+    private static Path spillDir(ApplicationProperties properties) {
+        var analytics = properties.analytics();
+        if (StringUtils.isBlank(analytics.pageViewSpillDir())) {
+            throw new IllegalStateException("app.analytics.page-view-spill-dir is required when page-view-delivery is "
+                    + analytics.pageViewDelivery().name().toLowerCase().replace('_', '-'));
+        }
+        return Path.of(analytics.pageViewSpillDir());
+    }
+}
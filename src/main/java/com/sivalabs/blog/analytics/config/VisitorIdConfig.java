@@ -0,0 +1,39 @@
+package com.sivalabs.blog.analytics.config;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.web.CookieVisitorIdResolver;
+import com.sivalabs.blog.analytics.web.HashedVisitorIdResolver;
+import com.sivalabs.blog.analytics.web.VisitorIdResolver;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Clock;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+class VisitorIdConfig {
+    private static final Logger log = LoggerFactory.getLogger(VisitorIdConfig.class);
+
+    @Bean
+    VisitorIdResolver visitorIdResolver(ApplicationProperties properties) {
+        var analytics = properties.analytics();
+        var secret = visitorIdSecret(analytics.visitorIdSecret());
+        return switch (analytics.visitorIdStrategy()) {
+            case HASH -> new HashedVisitorIdResolver(secret, Clock.system(analytics.timeZone()));
+            case COOKIE -> new CookieVisitorIdResolver(secret);
+        };
+    }
+
+    private static byte[] visitorIdSecret(String configuredSecret) {
+        if (StringUtils.isNotBlank(configuredSecret)) {
+            return configuredSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        log.warn("app.analytics.visitor-id-secret is not set, visitor ids will change after a restart");
+        var secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+}
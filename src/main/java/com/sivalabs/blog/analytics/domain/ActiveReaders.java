@@ -0,0 +1,9 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ActiveReaders(int total, List<Page> pages, LocalDateTime computedAt) {
+
+    public record Page(String path, int readers) {}
+}
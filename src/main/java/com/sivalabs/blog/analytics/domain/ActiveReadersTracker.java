@@ -0,0 +1,127 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Readers seen in the last window, counted on the page they viewed last.
+// A ring of per-second sets of visitor hashes expires readers once their last view leaves the window,
+// the counts per page are kept up to date as views come in and expire.
+@Component
+public class ActiveReadersTracker {
+    private final int windowSeconds;
+    private final long[] slotSeconds;
+    private final List<Set<Long>> slots;
+    private final Map<Long, Reader> readers = new HashMap<>();
+    private final Map<String, Integer> readersByPath = new HashMap<>();
+    private final Clock clock;
+    private final ZoneId zone;
+
+    @Autowired
+    public ActiveReadersTracker(ApplicationProperties properties) {
+        this(
+                (int) Math.max(1, properties.analytics().activeReaderWindow().toSeconds()),
+                Clock.system(properties.analytics().timeZone()));
+    }
+
+    // Event timestamps are local date-times in the zone of the clock
+    ActiveReadersTracker(int windowSeconds, Clock clock) {
+        this.windowSeconds = windowSeconds;
+        this.slotSeconds = new long[windowSeconds];
+        this.slots = new ArrayList<>(windowSeconds);
+        for (int i = 0; i < windowSeconds; i++) {
+            slots.add(new HashSet<>());
+        }
+        this.clock = clock;
+        this.zone = clock.getZone();
+    }
+
+    public synchronized void record(List<PageViewEvent> events) {
+        long now = clock.instant().getEpochSecond();
+        expire(now);
+        for (var event : events) {
+            var visitor = event.sessionId() != null ? event.sessionId() : event.ipAddress();
+            if (visitor == null) {
+                continue;
+            }
+            long second = event.timestamp() != null
+                    ? Math.min(event.timestamp().atZone(zone).toEpochSecond(), now)
+                    : now;
+            if (second <= now - windowSeconds) {
+                continue;
+            }
+            see(HyperLogLog.hash64(visitor), event.path(), second);
+        }
+    }
+
+    // Total active readers and the pages with most of them, computed from memory only
+    public synchronized ActiveReaders getActiveReaders(int limit) {
+        var now = clock.instant();
+        expire(now.getEpochSecond());
+        var pages = readersByPath.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> new ActiveReaders.Page(entry.getKey(), entry.getValue()))
+                .toList();
+        return new ActiveReaders(readers.size(), pages, LocalDateTime.ofInstant(now, zone));
+    }
+
+    private void see(long visitor, String path, long second) {
+        var reader = readers.get(visitor);
+        if (reader != null && reader.lastSeen > second) {
+            return;
+        }
+        if (reader == null) {
+            reader = new Reader();
+            readers.put(visitor, reader);
+        } else {
+            decrement(reader.path);
+        }
+        reader.path = path;
+        reader.lastSeen = second;
+        readersByPath.merge(path, 1, Integer::sum);
+
+        int slot = (int) Math.floorMod(second, windowSeconds);
+        slotSeconds[slot] = second;
+        slots.get(slot).add(visitor);
+    }
+
+    // Readers whose last view fell out of the window are removed, slots are only ever reused once expired
+    private void expire(long now) {
+        for (int slot = 0; slot < windowSeconds; slot++) {
+            var visitors = slots.get(slot);
+            if (visitors.isEmpty() || slotSeconds[slot] > now - windowSeconds) {
+                continue;
+            }
+            for (var visitor : visitors) {
+                var reader = readers.get(visitor);
+                if (reader != null && reader.lastSeen == slotSeconds[slot]) {
+                    readers.remove(visitor);
+                    decrement(reader.path);
+                }
+            }
+            visitors.clear();
+        }
+    }
+
+    private void decrement(String path) {
+        readersByPath.computeIfPresent(path, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private static final class Reader {
+        private String path;
+        private long lastSeen;
+    }
+}
@@ -10,19 +10,43 @@ public class AnalyticsAggregationJob {
     private static final Logger logger = LoggerFactory.getLogger(AnalyticsAggregationJob.class);
 
     private final PageViewService pageViewService;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final HourlyViewsService hourlyViewsService;
 
-    public AnalyticsAggregationJob(PageViewService pageViewService) {
+    public AnalyticsAggregationJob(
+            PageViewService pageViewService,
+            UniqueVisitorService uniqueVisitorService,
+            HourlyViewsService hourlyViewsService) {
         this.pageViewService = pageViewService;
+        this.uniqueVisitorService = uniqueVisitorService;
+        this.hourlyViewsService = hourlyViewsService;
     }
 
-    @Scheduled(cron = "${app.refresh-analytics-summaries-job-cron}")
+    // Runs at least once right after every midnight of the analytics time zone to roll period counters over
+    @Scheduled(cron = "${app.refresh-analytics-summaries-job-cron}", zone = "${app.analytics.time-zone:}")
     public void refreshAnalyticsSummaries() {
         logger.info("Starting scheduled analytics summaries refresh");
         try {
-            pageViewService.refreshAllSummaries();
-            logger.info("Completed scheduled analytics summaries refresh");
+            int rows = pageViewService.rotatePeriodBuckets();
+            uniqueVisitorService.refreshAll();
+            hourlyViewsService.backfillHistoricalVisitors();
+            logger.info("Completed scheduled analytics summaries refresh: {} rows rotated", rows);
         } catch (Exception e) {
             logger.error("Failed to refresh analytics summaries", e);
         }
     }
+
+    // Recounts all summaries from page_views to correct drift, such as views dropped before they were written
+    @Scheduled(cron = "${app.analytics.summary-reconciliation-job-cron}", zone = "${app.analytics.time-zone:}")
+    public void reconcileAnalyticsSummaries() {
+        try {
+            var result = pageViewService.refreshAllSummaries();
+            logger.info(
+                    "Reconciled {} analytics summaries with page views in {} ms",
+                    result.rowsUpdated(),
+                    result.duration().toMillis());
+        } catch (Exception e) {
+            logger.error("Failed to reconcile analytics summaries", e);
+        }
+    }
 }
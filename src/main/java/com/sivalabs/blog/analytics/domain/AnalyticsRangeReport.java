@@ -0,0 +1,21 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.util.List;
+
+// Site-wide aggregates of the last `days` days
+public record AnalyticsRangeReport(
+        List<DailyViewsDTO> dailyViews,
+        List<ReferrerDTO> topReferrers,
+        List<ReferrerDTO> topReferrerHosts,
+        List<CountryViewsDTO> viewsByCountry,
+        SessionMetricsDTO sessionMetrics,
+        List<SessionMetricsDTO> landingPages) {
+
+    public AnalyticsRangeReport {
+        dailyViews = List.copyOf(dailyViews);
+        topReferrers = List.copyOf(topReferrers);
+        topReferrerHosts = List.copyOf(topReferrerHosts);
+        viewsByCountry = List.copyOf(viewsByCountry);
+        landingPages = List.copyOf(landingPages);
+    }
+}
@@ -1,9 +1,11 @@
 package com.sivalabs.blog.analytics.domain;
 
-import java.time.DayOfWeek;
+import com.sivalabs.blog.ApplicationProperties;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.TemporalAdjusters;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -14,11 +16,90 @@ import org.springframework.transaction.annotation.Transactional;
 public class AnalyticsService {
 
     private final PageViewRepository pageViewRepository;
+    private final PageViewJdbcRepository pageViewJdbcRepository;
     private final PageAnalyticsSummaryRepository summaryRepository;
-
-    public AnalyticsService(PageViewRepository pageViewRepository, PageAnalyticsSummaryRepository summaryRepository) {
+    private final PageAnalyticsSummaryJdbcRepository summaryJdbcRepository;
+    private final DailyViewsJdbcRepository dailyViewsJdbcRepository;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final TrendingPagesTracker trendingPagesTracker;
+    private final HourlyViewsService hourlyViewsService;
+    private final ReferrerService referrerService;
+    private final CountryViewsService countryViewsService;
+    private final VisitSessionService visitSessionService;
+    private final ZoneId zone;
+
+    public AnalyticsService(
+            PageViewRepository pageViewRepository,
+            PageViewJdbcRepository pageViewJdbcRepository,
+            PageAnalyticsSummaryRepository summaryRepository,
+            PageAnalyticsSummaryJdbcRepository summaryJdbcRepository,
+            DailyViewsJdbcRepository dailyViewsJdbcRepository,
+            UniqueVisitorService uniqueVisitorService,
+            TrendingPagesTracker trendingPagesTracker,
+            HourlyViewsService hourlyViewsService,
+            ReferrerService referrerService,
+            CountryViewsService countryViewsService,
+            VisitSessionService visitSessionService,
+            ApplicationProperties properties) {
         this.pageViewRepository = pageViewRepository;
+        this.pageViewJdbcRepository = pageViewJdbcRepository;
         this.summaryRepository = summaryRepository;
+        this.summaryJdbcRepository = summaryJdbcRepository;
+        this.dailyViewsJdbcRepository = dailyViewsJdbcRepository;
+        this.uniqueVisitorService = uniqueVisitorService;
+        this.trendingPagesTracker = trendingPagesTracker;
+        this.hourlyViewsService = hourlyViewsService;
+        this.referrerService = referrerService;
+        this.countryViewsService = countryViewsService;
+        this.visitSessionService = visitSessionService;
+        this.zone = properties.analytics().timeZone();
+    }
+
+    // Runs in the read-only transaction so that page views are fetched through a cursor instead of all at once
+    public void exportPageViews(LocalDate fromDay, LocalDate toDay, Consumer<ExportedPageView> consumer) {
+        pageViewJdbcRepository.forEachPageView(fromDay.atStartOfDay(), toDay.plusDays(1).atStartOfDay(), consumer);
+    }
+
+    // Views and unique visitors of the page in [from, to), at most 2000 points
+    public List<TimeSeriesPoint> getTimeSeries(
+            String path, LocalDateTime from, LocalDateTime to, TimeGranularity granularity) {
+        return hourlyViewsService.getTimeSeries(path, from, to, granularity);
+    }
+
+    // Referrers (host and path) of the last `days` days, site-wide or of one page
+    public List<ReferrerDTO> getTopReferrers(int days, int limit) {
+        return referrerService.getTopReferrers(days, limit);
+    }
+
+    public List<ReferrerDTO> getTopReferrers(String path, int days, int limit) {
+        return referrerService.getTopReferrers(path, days, limit);
+    }
+
+    public List<ReferrerDTO> getTopReferrerHosts(int days, int limit) {
+        return referrerService.getTopReferrerHosts(days, limit);
+    }
+
+    // Views of the last `days` days per country, site-wide or of one page
+    public List<CountryViewsDTO> getViewsByCountry(int days, int limit) {
+        return countryViewsService.getViewsByCountry(days, limit);
+    }
+
+    public List<CountryViewsDTO> getViewsByCountry(String path, int days, int limit) {
+        return countryViewsService.getViewsByCountry(path, days, limit);
+    }
+
+    // Bounce rate, pages per session and average duration of the sessions started in the last `days` days,
+    // site-wide or of the sessions entering on one page
+    public SessionMetricsDTO getSessionMetrics(int days) {
+        return visitSessionService.getSessionMetrics(days);
+    }
+
+    public SessionMetricsDTO getSessionMetrics(String path, int days) {
+        return visitSessionService.getSessionMetrics(path, days);
+    }
+
+    public List<SessionMetricsDTO> getLandingPages(int days, int limit) {
+        return visitSessionService.getLandingPages(days, limit);
     }
 
     public AnalyticsDTO getAnalytics(String path) {
@@ -40,26 +121,31 @@ public class AnalyticsService {
                     .build();
         }
 
-        var now = LocalDateTime.now();
-        var startOfDay = now.toLocalDate().atStartOfDay();
-        var startOfWeek = now.with(DayOfWeek.MONDAY).toLocalDate().atStartOfDay();
-        var startOfMonth =
-                now.with(TemporalAdjusters.firstDayOfMonth()).toLocalDate().atStartOfDay();
+        var periods = ReportingPeriods.current(zone);
+        var uniqueVisitors = uniqueVisitorService.estimate(path);
 
         return AnalyticsDTO.builder()
                 .path(path)
-                .viewsToday(pageViewRepository.countViewsSince(path, startOfDay))
-                .viewsThisWeek(pageViewRepository.countViewsSince(path, startOfWeek))
-                .viewsThisMonth(pageViewRepository.countViewsSince(path, startOfMonth))
+                .viewsToday(pageViewRepository.countViewsSince(path, periods.startOfDay()))
+                .viewsThisWeek(pageViewRepository.countViewsSince(path, periods.startOfWeek()))
+                .viewsThisMonth(pageViewRepository.countViewsSince(path, periods.startOfMonth()))
                 .viewsAllTime(pageViewRepository.countTotalViewsForPath(path))
-                .uniqueVisitorsToday(pageViewRepository.countUniqueVisitorsSince(path, startOfDay))
-                .uniqueVisitorsThisWeek(pageViewRepository.countUniqueVisitorsSince(path, startOfWeek))
-                .uniqueVisitorsThisMonth(pageViewRepository.countUniqueVisitorsSince(path, startOfMonth))
-                .uniqueVisitorsAllTime(pageViewRepository.countTotalUniqueVisitorsForPath(path))
+                .uniqueVisitorsToday(uniqueVisitors.today())
+                .uniqueVisitorsThisWeek(uniqueVisitors.thisWeek())
+                .uniqueVisitorsThisMonth(uniqueVisitors.thisMonth())
+                .uniqueVisitorsAllTime(uniqueVisitors.allTime())
                 .lastViewedAt(pageViewRepository.findLastViewedAt(path))
                 .build();
     }
 
+    public List<DailyViewsDTO> getDailyViews(String path, int days) {
+        return dailyViewsJdbcRepository.findDailyViews(path, LocalDate.now(zone).minusDays(days - 1));
+    }
+
+    public List<DailyViewsDTO> getDailyViewsTotal(int days) {
+        return dailyViewsJdbcRepository.findDailyViewsTotal(LocalDate.now(zone).minusDays(days - 1));
+    }
+
     public List<TopPageDTO> getTopPages(int limit) {
         return summaryRepository.findTopPagesByTotalViews(PageRequest.of(0, limit)).stream()
                 .map(summary -> new TopPageDTO(summary.getPath(), summary.getTotalViews()))
@@ -84,28 +170,12 @@ public class AnalyticsService {
                 .collect(Collectors.toList());
     }
 
-    public AnalyticsDTO getTotalAnalytics() {
-        var totalViews = summaryRepository.sumTotalViews();
-        var viewsToday = summaryRepository.sumViewsToday();
-        var viewsThisWeek = summaryRepository.sumViewsThisWeek();
-        var viewsThisMonth = summaryRepository.sumViewsThisMonth();
-
-        var totalUniqueVisitors = summaryRepository.sumUniqueVisitorsTotal();
-        var uniqueVisitorsToday = summaryRepository.sumUniqueVisitorsToday();
-        var uniqueVisitorsThisWeek = summaryRepository.sumUniqueVisitorsThisWeek();
-        var uniqueVisitorsThisMonth = summaryRepository.sumUniqueVisitorsThisMonth();
+    public List<TopPageDTO> getTrendingPages(TrendingWindow window, int limit) {
+        return trendingPagesTracker.getTrendingPages(window, limit);
+    }
 
-        return AnalyticsDTO.builder()
-                .path("total")
-                .viewsToday(viewsToday)
-                .viewsThisWeek(viewsThisWeek)
-                .viewsThisMonth(viewsThisMonth)
-                .viewsAllTime(totalViews)
-                .uniqueVisitorsToday(uniqueVisitorsToday)
-                .uniqueVisitorsThisWeek(uniqueVisitorsThisWeek)
-                .uniqueVisitorsThisMonth(uniqueVisitorsThisMonth)
-                .uniqueVisitorsAllTime(totalUniqueVisitors)
-                .build();
+    public AnalyticsDTO getTotalAnalytics() {
+        return summaryJdbcRepository.sumTotals();
     }
 
     public Long getTotalViews() {
@@ -0,0 +1,20 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.Instant;
+import java.util.List;
+
+public record AnalyticsSnapshot(
+        AnalyticsDTO totalAnalytics,
+        List<TopPageDTO> topPagesAllTime,
+        List<TopPageDTO> topPagesToday,
+        List<TopPageDTO> topPagesThisWeek,
+        List<TopPageDTO> topPagesThisMonth,
+        Instant computedAt) {
+
+    public AnalyticsSnapshot {
+        topPagesAllTime = List.copyOf(topPagesAllTime);
+        topPagesToday = List.copyOf(topPagesToday);
+        topPagesThisWeek = List.copyOf(topPagesThisWeek);
+        topPagesThisMonth = List.copyOf(topPagesThisMonth);
+    }
+}
@@ -0,0 +1,164 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+// Caches the dashboard's aggregates, the site-wide ones per number of days and the per page ones per page and
+// number of days, so loading the dashboard does not run the aggregate queries on every request
+@Service
+public class AnalyticsSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsSnapshotService.class);
+    private static final int TOP_PAGES_LIMIT = 10;
+    private static final int REPORT_LIMIT = 20;
+    private static final int MAX_CACHED_REPORTS = 1024;
+
+    private final AnalyticsService analyticsService;
+    private final Duration ttl;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CachedReport<AnalyticsSnapshot> snapshot = new CachedReport<>();
+    private final Map<Integer, CachedReport<AnalyticsRangeReport>> rangeReports = new ConcurrentHashMap<>();
+    private final Map<PageReportKey, CachedReport<PageAnalyticsReport>> pageReports = new ConcurrentHashMap<>();
+
+    public AnalyticsSnapshotService(AnalyticsService analyticsService, ApplicationProperties properties) {
+        this.analyticsService = analyticsService;
+        this.ttl = properties.analytics().dashboardSnapshotTtl();
+    }
+
+    public AnalyticsSnapshot getSnapshot() {
+        return snapshot.get(this::computeSnapshot);
+    }
+
+    public AnalyticsSnapshot refresh() {
+        var refreshed = computeSnapshot();
+        snapshot.set(refreshed);
+        return refreshed;
+    }
+
+    public AnalyticsRangeReport getRangeReport(int days) {
+        return cached(rangeReports, days).get(() -> computeRangeReport(days));
+    }
+
+    public PageAnalyticsReport getPageReport(String path, int days) {
+        return cached(pageReports, new PageReportKey(path, days)).get(() -> computePageReport(path, days));
+    }
+
+    private AnalyticsSnapshot computeSnapshot() {
+        long start = System.nanoTime();
+        var totalAnalytics = async(analyticsService::getTotalAnalytics);
+        var topPagesAllTime = async(() -> analyticsService.getTopPages(TOP_PAGES_LIMIT));
+        var topPagesToday = async(() -> analyticsService.getTopPagesToday(TOP_PAGES_LIMIT));
+        var topPagesThisWeek = async(() -> analyticsService.getTopPagesThisWeek(TOP_PAGES_LIMIT));
+        var topPagesThisMonth = async(() -> analyticsService.getTopPagesThisMonth(TOP_PAGES_LIMIT));
+
+        var computed = new AnalyticsSnapshot(
+                totalAnalytics.join(),
+                topPagesAllTime.join(),
+                topPagesToday.join(),
+                topPagesThisWeek.join(),
+                topPagesThisMonth.join(),
+                Instant.now());
+        log.debug("Refreshed analytics snapshot in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return computed;
+    }
+
+    private AnalyticsRangeReport computeRangeReport(int days) {
+        var dailyViews = async(() -> analyticsService.getDailyViewsTotal(days));
+        var topReferrers = async(() -> analyticsService.getTopReferrers(days, REPORT_LIMIT));
+        var topReferrerHosts = async(() -> analyticsService.getTopReferrerHosts(days, REPORT_LIMIT));
+        var viewsByCountry = async(() -> analyticsService.getViewsByCountry(days, REPORT_LIMIT));
+        var sessionMetrics = async(() -> analyticsService.getSessionMetrics(days));
+        var landingPages = async(() -> analyticsService.getLandingPages(days, REPORT_LIMIT));
+        return new AnalyticsRangeReport(
+                dailyViews.join(),
+                topReferrers.join(),
+                topReferrerHosts.join(),
+                viewsByCountry.join(),
+                sessionMetrics.join(),
+                landingPages.join());
+    }
+
+    private PageAnalyticsReport computePageReport(String path, int days) {
+        var dailyViews = async(() -> analyticsService.getDailyViews(path, days));
+        var topReferrers = async(() -> analyticsService.getTopReferrers(path, days, REPORT_LIMIT));
+        var viewsByCountry = async(() -> analyticsService.getViewsByCountry(path, days, REPORT_LIMIT));
+        var sessionMetrics = async(() -> analyticsService.getSessionMetrics(path, days));
+        return new PageAnalyticsReport(
+                dailyViews.join(), topReferrers.join(), viewsByCountry.join(), sessionMetrics.join());
+    }
+
+    private <K, T> CachedReport<T> cached(Map<K, CachedReport<T>> reports, K key) {
+        var report = reports.get(key);
+        if (report != null) {
+            return report;
+        }
+        if (reports.size() >= MAX_CACHED_REPORTS) {
+            // Drop an arbitrary report rather than ordering the cache, which would need a lock per lookup
+            var iterator = reports.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        return reports.computeIfAbsent(key, k -> new CachedReport<>());
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record PageReportKey(String path, int days) {}
+
+    private record Computed<T>(T value, Instant computedAt) {}
+
+    // Serves the cached value and recomputes it in the background once it is older than the TTL,
+    // only the very first request waits for the queries
+    private final class CachedReport<T> {
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile Computed<T> computed;
+
+        T get(Supplier<T> compute) {
+            var current = computed;
+            if (current == null) {
+                synchronized (this) {
+                    if (computed == null) {
+                        set(compute.get());
+                    }
+                    return computed.value();
+                }
+            }
+            if (current.computedAt().plus(ttl).isBefore(Instant.now()) && refreshing.compareAndSet(false, true)) {
+                executor.execute(() -> {
+                    try {
+                        set(compute.get());
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to refresh analytics report, serving the previous one", e);
+                    } finally {
+                        refreshing.set(false);
+                    }
+                });
+            }
+            return current.value();
+        }
+
+        void set(T value) {
+            computed = new Computed<>(value, Instant.now());
+        }
+    }
+}
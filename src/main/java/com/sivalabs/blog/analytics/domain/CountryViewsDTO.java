@@ -0,0 +1,15 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.util.Locale;
+
+public record CountryViewsDTO(String countryCode, long views) {
+    static final String UNKNOWN_COUNTRY = "ZZ";
+
+    public String countryName() {
+        if (UNKNOWN_COUNTRY.equals(countryCode)) {
+            return "Unknown";
+        }
+        var name = Locale.of("", countryCode).getDisplayCountry(Locale.ENGLISH);
+        return name.isEmpty() ? countryCode : name;
+    }
+}
@@ -0,0 +1,72 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class CountryViewsJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public CountryViewsJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Rows are upserted in key order, so concurrent batches lock them in the same order and cannot deadlock
+    public void incrementViews(List<CountryViewIncrement> increments) {
+        increments = increments.stream()
+                .sorted(Comparator.comparingInt(CountryViewIncrement::pathId)
+                        .thenComparing(CountryViewIncrement::day)
+                        .thenComparing(CountryViewIncrement::countryCode))
+                .toList();
+        jdbcTemplate.batchUpdate(
+                """
+                insert into page_views_country_daily(path_id, day, country_code, views) values (?, ?, ?, ?)
+                on conflict (path_id, day, country_code)
+                do update set views = page_views_country_daily.views + excluded.views
+                """,
+                increments,
+                increments.size(),
+                (ps, increment) -> {
+                    ps.setInt(1, increment.pathId());
+                    ps.setObject(2, increment.day());
+                    ps.setString(3, increment.countryCode());
+                    ps.setLong(4, increment.views());
+                });
+    }
+
+    public List<CountryViewsDTO> findViewsByCountry(LocalDate since, int limit) {
+        return jdbcTemplate.query(
+                """
+                select country_code, sum(views) as views from page_views_country_daily
+                where day >= ?
+                group by country_code
+                order by views desc, country_code
+                limit ?
+                """,
+                (rs, rowNum) -> new CountryViewsDTO(rs.getString("country_code"), rs.getLong("views")),
+                since,
+                limit);
+    }
+
+    public List<CountryViewsDTO> findViewsByCountry(String path, LocalDate since, int limit) {
+        return jdbcTemplate.query(
+                """
+                select c.country_code, sum(c.views) as views
+                from page_views_country_daily c
+                join page_view_paths p on p.id = c.path_id
+                where p.path = ? and c.day >= ?
+                group by c.country_code
+                order by views desc, c.country_code
+                limit ?
+                """,
+                (rs, rowNum) -> new CountryViewsDTO(rs.getString("country_code"), rs.getLong("views")),
+                path,
+                since,
+                limit);
+    }
+
+    public record CountryViewIncrement(int pathId, LocalDate day, String countryCode, long views) {}
+}
@@ -0,0 +1,81 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.domain.CountryViewsJdbcRepository.CountryViewIncrement;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Geo enrichment of page views: the country of each client address and the daily views per page and country
+@Service
+@Transactional
+public class CountryViewsService {
+    private final CountryViewsJdbcRepository countryViewsRepository;
+    private final IpCountryLookup ipCountryLookup;
+    private final PageViewDictionaries dictionaries;
+    private final ZoneId zone;
+
+    public CountryViewsService(
+            CountryViewsJdbcRepository countryViewsRepository,
+            IpCountryLookup ipCountryLookup,
+            PageViewDictionaries dictionaries,
+            ApplicationProperties properties) {
+        this.countryViewsRepository = countryViewsRepository;
+        this.ipCountryLookup = ipCountryLookup;
+        this.dictionaries = dictionaries;
+        this.zone = properties.analytics().timeZone();
+    }
+
+    // Country code of each event, null where the address is missing or not in the range file
+    public List<String> lookupCountries(List<PageViewEvent> events) {
+        List<String> countryCodes = new ArrayList<>(events.size());
+        for (var event : events) {
+            countryCodes.add(ipCountryLookup.countryOf(event.ipAddress()));
+        }
+        return countryCodes;
+    }
+
+    public void record(List<PageViewEvent> events, List<String> countryCodes) {
+        var pathIds = dictionaries.resolveIds(
+                PageViewDictionary.PATHS,
+                events.stream()
+                        .map(event -> PageViewDictionary.PATHS.normalize(event.path()))
+                        .collect(Collectors.toSet()));
+        var now = LocalDateTime.now(zone);
+        Map<CountryViewKey, Long> views = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            var event = events.get(i);
+            var pathId = pathIds.get(PageViewDictionary.PATHS.normalize(event.path()));
+            if (pathId == null) {
+                continue;
+            }
+            var day = (event.timestamp() != null ? event.timestamp() : now).toLocalDate();
+            var countryCode = countryCodes.get(i) != null ? countryCodes.get(i) : CountryViewsDTO.UNKNOWN_COUNTRY;
+            views.merge(new CountryViewKey(pathId, day, countryCode), 1L, Long::sum);
+        }
+        countryViewsRepository.incrementViews(views.entrySet().stream()
+                .map(entry -> new CountryViewIncrement(
+                        entry.getKey().pathId(), entry.getKey().day(), entry.getKey().countryCode(), entry.getValue()))
+                .toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<CountryViewsDTO> getViewsByCountry(int days, int limit) {
+        return countryViewsRepository.findViewsByCountry(LocalDate.now(zone).minusDays(days - 1), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CountryViewsDTO> getViewsByCountry(String path, int days, int limit) {
+        return countryViewsRepository.findViewsByCountry(path, LocalDate.now(zone).minusDays(days - 1), limit);
+    }
+
+    private record CountryViewKey(int pathId, LocalDate day, String countryCode) {}
+}
@@ -0,0 +1,5 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.LocalDate;
+
+public record DailyViewIncrement(String path, LocalDate day, long views) {}
@@ -0,0 +1,34 @@
+package com.sivalabs.blog.analytics.domain;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DailyViewsBackfillJob {
+    private static final Logger logger = LoggerFactory.getLogger(DailyViewsBackfillJob.class);
+
+    private final PageViewService pageViewService;
+
+    public DailyViewsBackfillJob(PageViewService pageViewService) {
+        this.pageViewService = pageViewService;
+    }
+
+    @Scheduled(cron = "${app.analytics.daily-views-backfill-job-cron}")
+    public void backfillDailyViews() {
+        var days = pageViewService.findDaysPendingDailyViewsBackfill();
+        if (days.isEmpty()) {
+            return;
+        }
+        logger.info("Backfilling daily views for {} days", days.size());
+        // One transaction per day keeps locks and undo short on large histories
+        for (var day : days) {
+            try {
+                pageViewService.backfillDailyViews(day);
+            } catch (Exception e) {
+                logger.error("Failed to backfill daily views for {}", day, e);
+            }
+        }
+    }
+}
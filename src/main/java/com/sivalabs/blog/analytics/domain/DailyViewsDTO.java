@@ -0,0 +1,5 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.LocalDate;
+
+public record DailyViewsDTO(LocalDate day, long views) {}
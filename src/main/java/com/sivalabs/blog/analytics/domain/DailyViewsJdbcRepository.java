@@ -0,0 +1,73 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class DailyViewsJdbcRepository {
+    private static final RowMapper<DailyViewsDTO> DAILY_VIEWS_ROW_MAPPER =
+            (rs, rowNum) -> new DailyViewsDTO(rs.getObject("day", LocalDate.class), rs.getLong("views"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DailyViewsJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void incrementViews(List<DailyViewIncrement> increments) {
+        jdbcTemplate.batchUpdate(
+                """
+                insert into page_views_daily(path, day, views) values (?, ?, ?)
+                on conflict (path, day) do update set views = page_views_daily.views + excluded.views
+                """,
+                increments,
+                increments.size(),
+                (ps, increment) -> {
+                    ps.setString(1, increment.path());
+                    ps.setObject(2, increment.day());
+                    ps.setLong(3, increment.views());
+                });
+    }
+
+    public List<DailyViewsDTO> findDailyViews(String path, LocalDate fromDay) {
+        return jdbcTemplate.query(
+                "select day, views from page_views_daily where path = ? and day >= ? order by day desc",
+                DAILY_VIEWS_ROW_MAPPER,
+                path,
+                fromDay);
+    }
+
+    public List<DailyViewsDTO> findDailyViewsTotal(LocalDate fromDay) {
+        return jdbcTemplate.query(
+                "select day, sum(views) as views from page_views_daily where day >= ? group by day order by day desc",
+                DAILY_VIEWS_ROW_MAPPER,
+                fromDay);
+    }
+
+    public List<LocalDate> findDaysPendingBackfill() {
+        return jdbcTemplate.queryForList(
+                "select day from page_views_daily_backfill order by day desc", LocalDate.class);
+    }
+
+    public int backfillDay(LocalDate day) {
+        return jdbcTemplate.update(
+                """
+                with pending as (
+                    delete from page_views_daily_backfill where day = ? returning day, max_page_view_id
+                )
+                insert into page_views_daily(path, day, views)
+                select p.path, pending.day, count(*)
+                from pending
+                join page_views pv on pv.created_at >= pending.day
+                                  and pv.created_at < pending.day + 1
+                                  and pv.id <= pending.max_page_view_id
+                join page_view_paths p on p.id = pv.path_id
+                group by p.path, pending.day
+                on conflict (path, day) do update set views = page_views_daily.views + excluded.views
+                """,
+                day);
+    }
+}
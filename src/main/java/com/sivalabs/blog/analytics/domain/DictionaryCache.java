@@ -0,0 +1,45 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Bounded bidirectional value <-> id map that evicts the least recently used entries
+class DictionaryCache {
+    private final Map<String, Integer> ids;
+    private final Map<Integer, String> values = new HashMap<>();
+
+    DictionaryCache(int capacity) {
+        this.ids = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                if (size() > capacity) {
+                    values.remove(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    synchronized Integer idOf(String value) {
+        return ids.get(value);
+    }
+
+    synchronized String valueOf(Integer id) {
+        var value = values.get(id);
+        if (value != null) {
+            ids.get(value);
+        }
+        return value;
+    }
+
+    synchronized void put(String value, Integer id) {
+        ids.put(value, id);
+        values.put(id, value);
+    }
+
+    synchronized int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,15 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.LocalDateTime;
+
+public record ExportedPageView(
+        long id,
+        LocalDateTime createdAt,
+        String path,
+        String title,
+        String refererHost,
+        String userAgent,
+        String ipAddress,
+        String sessionId,
+        Long userId,
+        String countryCode) {}
@@ -0,0 +1,159 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class HourlyViewsJdbcRepository {
+    private static final int VISIT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HourlyViewsJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Creates the missing cells and locks all of them, returning the stored sketches
+    public Map<HourlyCellKey, HyperLogLog> lockCells(Collection<HourlyCellKey> keys) {
+        var pathIds = keys.stream().map(HourlyCellKey::pathId).toArray();
+        var hours = keys.stream().map(key -> Timestamp.valueOf(key.hour())).toArray();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    """
+                    insert into page_views_hourly(path_id, hour)
+                    select * from unnest(?::integer[], ?::timestamp[]) order by 1, 2
+                    on conflict do nothing
+                    """);
+            ps.setArray(1, con.createArrayOf("integer", pathIds));
+            ps.setArray(2, con.createArrayOf("timestamp", hours));
+            return ps;
+        });
+        Map<HourlyCellKey, HyperLogLog> sketches = new HashMap<>();
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            """
+                            select path_id, hour, uniques_sketch from page_views_hourly
+                            where (path_id, hour) in (select * from unnest(?::integer[], ?::timestamp[]))
+                            order by path_id, hour
+                            for update
+                            """);
+                    ps.setArray(1, con.createArrayOf("integer", pathIds));
+                    ps.setArray(2, con.createArrayOf("timestamp", hours));
+                    return ps;
+                },
+                rs -> {
+                    var sketch = readSketch(rs);
+                    if (sketch != null) {
+                        var key = new HourlyCellKey(
+                                rs.getInt("path_id"), rs.getObject("hour", LocalDateTime.class));
+                        sketches.put(key, sketch);
+                    }
+                });
+        return sketches;
+    }
+
+    public void updateCells(Map<HourlyCellKey, HourlyCell> cells) {
+        var entries = new ArrayList<>(cells.entrySet());
+        jdbcTemplate.batchUpdate(
+                "update page_views_hourly set views = views + ?, uniques_sketch = ? where path_id = ? and hour = ?",
+                entries,
+                entries.size(),
+                (ps, entry) -> {
+                    var cell = entry.getValue();
+                    ps.setLong(1, cell.views());
+                    ps.setBytes(2, cell.sketch() != null ? cell.sketch().toBytes() : null);
+                    ps.setInt(3, entry.getKey().pathId());
+                    ps.setObject(4, entry.getKey().hour());
+                });
+    }
+
+    public void forEachHourlyCell(
+            String path, LocalDateTime from, LocalDateTime to, Consumer<TimeSeriesCell> consumer) {
+        jdbcTemplate.query(
+                """
+                select hour as start, views, uniques_sketch from page_views_hourly
+                where path_id = (select id from page_view_paths where path = ?) and hour >= ? and hour < ?
+                """,
+                rs -> {
+                    consumer.accept(toCell(rs));
+                },
+                path,
+                from,
+                to);
+    }
+
+    public void forEachDailyCell(String path, LocalDate fromDay, LocalDate toDay, Consumer<TimeSeriesCell> consumer) {
+        jdbcTemplate.query(
+                """
+                select day::timestamp as start, views, uniques_sketch from page_views_daily
+                where path = ? and day >= ? and day < ?
+                """,
+                rs -> {
+                    consumer.accept(toCell(rs));
+                },
+                path,
+                fromDay,
+                toDay);
+    }
+
+    public List<Integer> findPathsPendingBackfill() {
+        return jdbcTemplate.queryForList(
+                "select path_id from page_views_hourly_backfill order by path_id", Integer.class);
+    }
+
+    // Visits of the page in the order they happened, fetched through a cursor of the caller's transaction
+    public void forEachVisit(int pathId, Consumer<Visit> consumer) {
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            """
+                            select session_id, created_at from page_views
+                            where path_id = ? and session_id is not null
+                            order by created_at
+                            """,
+                            ResultSet.TYPE_FORWARD_ONLY,
+                            ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(VISIT_FETCH_SIZE);
+                    ps.setInt(1, pathId);
+                    return ps;
+                },
+                rs -> {
+                    consumer.accept(new Visit(
+                            rs.getString("session_id"), rs.getObject("created_at", LocalDateTime.class)));
+                });
+    }
+
+    public void markBackfilled(int pathId) {
+        jdbcTemplate.update("delete from page_views_hourly_backfill where path_id = ?", pathId);
+    }
+
+    private static TimeSeriesCell toCell(ResultSet rs) throws SQLException {
+        return new TimeSeriesCell(rs.getObject("start", LocalDateTime.class), rs.getLong("views"), readSketch(rs));
+    }
+
+    private static HyperLogLog readSketch(ResultSet rs) throws SQLException {
+        var bytes = rs.getBytes("uniques_sketch");
+        return bytes != null ? HyperLogLog.fromBytes(bytes) : null;
+    }
+
+    public record HourlyCellKey(int pathId, LocalDateTime hour) {}
+
+    public record HourlyCell(long views, HyperLogLog sketch) {}
+
+    public record TimeSeriesCell(LocalDateTime start, long views, HyperLogLog sketch) {}
+
+    public record Visit(String sessionId, LocalDateTime viewedAt) {}
+}
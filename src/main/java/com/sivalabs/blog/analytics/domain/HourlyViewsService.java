@@ -0,0 +1,186 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.domain.HourlyViewsJdbcRepository.HourlyCell;
+import com.sivalabs.blog.analytics.domain.HourlyViewsJdbcRepository.HourlyCellKey;
+import com.sivalabs.blog.analytics.domain.HourlyViewsJdbcRepository.TimeSeriesCell;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Maintains and queries the page view cube: views and a visitor sketch per page and hour
+@Service
+@Transactional
+public class HourlyViewsService {
+    private static final Logger logger = LoggerFactory.getLogger(HourlyViewsService.class);
+    static final int MAX_POINTS = 2000;
+    private static final int BACKFILL_BATCH_HOURS = 500;
+
+    private final HourlyViewsJdbcRepository hourlyViewsRepository;
+    private final PageViewDictionaries dictionaries;
+    private final TransactionTemplate transactionTemplate;
+    private final int precision;
+    private final ZoneId zone;
+
+    public HourlyViewsService(
+            HourlyViewsJdbcRepository hourlyViewsRepository,
+            PageViewDictionaries dictionaries,
+            PlatformTransactionManager transactionManager,
+            ApplicationProperties properties) {
+        this.hourlyViewsRepository = hourlyViewsRepository;
+        this.dictionaries = dictionaries;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.precision = properties.analytics().hllPrecision();
+        this.zone = properties.analytics().timeZone();
+    }
+
+    public void record(List<PageViewEvent> events) {
+        var pathIds = dictionaries.resolveIds(
+                PageViewDictionary.PATHS,
+                events.stream()
+                        .map(event -> PageViewDictionary.PATHS.normalize(event.path()))
+                        .distinct()
+                        .toList());
+        var now = LocalDateTime.now(zone);
+        Map<HourlyCellKey, CellUpdate> updates = new LinkedHashMap<>();
+        for (var event : events) {
+            var pathId = pathIds.get(PageViewDictionary.PATHS.normalize(event.path()));
+            if (pathId == null) {
+                continue;
+            }
+            var viewedAt = event.timestamp() != null ? event.timestamp() : now;
+            var update = updates.computeIfAbsent(
+                    new HourlyCellKey(pathId, viewedAt.truncatedTo(ChronoUnit.HOURS)), key -> new CellUpdate());
+            update.views++;
+            if (event.sessionId() != null) {
+                update.sketch().add(event.sessionId());
+            }
+        }
+        writeCells(updates);
+    }
+
+    // Sums the cube cells in [from, to) into buckets of the given granularity, empty buckets included
+    @Transactional(readOnly = true)
+    public List<TimeSeriesPoint> getTimeSeries(
+            String path, LocalDateTime from, LocalDateTime to, TimeGranularity granularity) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Time series range must not be empty");
+        }
+        Map<LocalDateTime, Bucket> buckets = new TreeMap<>();
+        for (var start = granularity.truncate(from); start.isBefore(to); start = granularity.next(start)) {
+            if (buckets.size() == MAX_POINTS) {
+                throw new IllegalArgumentException(
+                        "Time series would have more than %d points, use a coarser granularity".formatted(MAX_POINTS));
+            }
+            buckets.put(start, new Bucket());
+        }
+        forEachCell(path, from, to, granularity, cell -> buckets
+                .get(granularity.truncate(cell.start()))
+                .add(cell));
+        var points = new ArrayList<TimeSeriesPoint>(buckets.size());
+        buckets.forEach((start, bucket) -> points.add(new TimeSeriesPoint(
+                start, bucket.views, bucket.sketch != null ? bucket.sketch.cardinality() : 0)));
+        return points;
+    }
+
+    // Runs a transaction per path, so the cells locked for a backfill are released before the next path
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillHistoricalVisitors() {
+        for (var pathId : hourlyViewsRepository.findPathsPendingBackfill()) {
+            transactionTemplate.executeWithoutResult(status -> backfillHistoricalVisitors(pathId));
+        }
+    }
+
+    private void backfillHistoricalVisitors(int pathId) {
+        Map<HourlyCellKey, CellUpdate> updates = new HashMap<>();
+        hourlyViewsRepository.forEachVisit(pathId, visit -> {
+            var key = new HourlyCellKey(pathId, visit.viewedAt().truncatedTo(ChronoUnit.HOURS));
+            // Visits come in order, so the collected hours are complete once a new hour starts
+            if (updates.size() >= BACKFILL_BATCH_HOURS && !updates.containsKey(key)) {
+                writeCells(updates);
+                updates.clear();
+            }
+            // Views of these hours were counted by the migration, only the visitors are added
+            updates.computeIfAbsent(key, k -> new CellUpdate()).sketch().add(visit.sessionId());
+        });
+        writeCells(updates);
+        hourlyViewsRepository.markBackfilled(pathId);
+        logger.info("Backfilled hourly unique visitor sketches for path id: {}", pathId);
+    }
+
+    // Whole days are read from the daily rollup, only the partial days at the edges of the range from hourly cells
+    private void forEachCell(
+            String path,
+            LocalDateTime from,
+            LocalDateTime to,
+            TimeGranularity granularity,
+            Consumer<TimeSeriesCell> consumer) {
+        var firstWholeDay = from.toLocalDate().atStartOfDay().isEqual(from)
+                ? from.toLocalDate()
+                : from.toLocalDate().plusDays(1);
+        var endOfWholeDays = to.toLocalDate();
+        if (granularity == TimeGranularity.HOUR || !firstWholeDay.isBefore(endOfWholeDays)) {
+            hourlyViewsRepository.forEachHourlyCell(path, from, to, consumer);
+            return;
+        }
+        hourlyViewsRepository.forEachHourlyCell(path, from, firstWholeDay.atStartOfDay(), consumer);
+        hourlyViewsRepository.forEachDailyCell(path, firstWholeDay, endOfWholeDays, consumer);
+        hourlyViewsRepository.forEachHourlyCell(path, endOfWholeDays.atStartOfDay(), to, consumer);
+    }
+
+    private void writeCells(Map<HourlyCellKey, CellUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        var stored = hourlyViewsRepository.lockCells(updates.keySet());
+        Map<HourlyCellKey, HourlyCell> cells = new LinkedHashMap<>();
+        updates.forEach((key, update) -> {
+            var sketch = update.sketch;
+            var storedSketch = stored.get(key);
+            if (storedSketch != null) {
+                sketch = sketch != null ? storedSketch.merge(sketch) : storedSketch;
+            }
+            cells.put(key, new HourlyCell(update.views, sketch));
+        });
+        hourlyViewsRepository.updateCells(cells);
+    }
+
+    private final class CellUpdate {
+        private long views;
+        private HyperLogLog sketch;
+
+        private HyperLogLog sketch() {
+            if (sketch == null) {
+                sketch = new HyperLogLog(precision);
+            }
+            return sketch;
+        }
+    }
+
+    private static final class Bucket {
+        private long views;
+        private HyperLogLog sketch;
+
+        private void add(TimeSeriesCell cell) {
+            views += cell.views();
+            if (cell.sketch() != null) {
+                sketch = sketch != null ? sketch.merge(cell.sketch()) : cell.sketch();
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.util.Arrays;
+
+public class HyperLogLog {
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+    private static final int SPARSE = 0x40;
+    private static final int SPARSE_ENTRY_BYTES = 3;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between %d and %d but was %d"
+                    .formatted(MIN_PRECISION, MAX_PRECISION, precision));
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("Sketch bytes must not be empty");
+        }
+        if ((bytes[0] & SPARSE) != 0) {
+            return fromSparseBytes(bytes);
+        }
+        int precision = bytes[0];
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION || bytes.length != (1 << precision) + 1) {
+            throw new IllegalArgumentException("Invalid sketch encoding");
+        }
+        return new HyperLogLog(precision, Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+
+    // Sketches with few visitors, such as hourly ones, are stored as their non-zero registers only
+    public byte[] toBytes() {
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+        if (nonZero * SPARSE_ENTRY_BYTES < registers.length) {
+            return toSparseBytes(nonZero);
+        }
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    // Each entry packs the register index and its rank (at most 61, so 6 bits) into 3 bytes
+    private byte[] toSparseBytes(int nonZero) {
+        byte[] bytes = new byte[1 + nonZero * SPARSE_ENTRY_BYTES];
+        bytes[0] = (byte) (precision | SPARSE);
+        int offset = 1;
+        for (int index = 0; index < registers.length; index++) {
+            if (registers[index] != 0) {
+                int entry = index << 6 | registers[index];
+                bytes[offset++] = (byte) (entry >>> 16);
+                bytes[offset++] = (byte) (entry >>> 8);
+                bytes[offset++] = (byte) entry;
+            }
+        }
+        return bytes;
+    }
+
+    private static HyperLogLog fromSparseBytes(byte[] bytes) {
+        int precision = bytes[0] & ~SPARSE;
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION || (bytes.length - 1) % SPARSE_ENTRY_BYTES != 0) {
+            throw new IllegalArgumentException("Invalid sketch encoding");
+        }
+        var sketch = new HyperLogLog(precision);
+        for (int offset = 1; offset < bytes.length; offset += SPARSE_ENTRY_BYTES) {
+            int entry = (bytes[offset] & 0xFF) << 16 | (bytes[offset + 1] & 0xFF) << 8 | (bytes[offset + 2] & 0xFF);
+            int index = entry >>> 6;
+            if (index >= sketch.registers.length) {
+                throw new IllegalArgumentException("Invalid sketch encoding");
+            }
+            sketch.registers[index] = (byte) (entry & 0x3F);
+        }
+        return sketch;
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public void add(String value) {
+        if (value != null) {
+            addHash(hash64(value));
+        }
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision) + 1, 64 - precision + 1);
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Sketches of different precision are merged at the lower one, so always use the returned sketch
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision < precision) {
+            return other.copy().merge(this);
+        }
+        var source = other.precision == precision ? other : other.foldTo(precision);
+        for (int i = 0; i < registers.length; i++) {
+            if (source.registers[i] > registers[i]) {
+                registers[i] = source.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(precision, registers.clone());
+    }
+
+    public long cardinality() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    HyperLogLog foldTo(int targetPrecision) {
+        int shift = precision - targetPrecision;
+        var folded = new HyperLogLog(targetPrecision);
+        int lowMask = (1 << shift) - 1;
+        for (int index = 0; index < registers.length; index++) {
+            int rank = registers[index];
+            if (rank == 0) {
+                continue;
+            }
+            int lowBits = index & lowMask;
+            int foldedRank = lowBits != 0 ? Integer.numberOfLeadingZeros(lowBits) - (32 - shift) + 1 : shift + rank;
+            int target = index >>> shift;
+            if (foldedRank > folded.registers[target]) {
+                folded.registers[target] = (byte) foldedRank;
+            }
+        }
+        return folded;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
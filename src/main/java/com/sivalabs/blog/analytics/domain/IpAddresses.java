@@ -0,0 +1,129 @@
+package com.sivalabs.blog.analytics.domain;
+
+// Allocation free parsing of textual IP addresses, IPv6 addresses are returned as two longs
+final class IpAddresses {
+    static final long INVALID = -1;
+
+    private IpAddresses() {}
+
+    // IPv4 address in [from, to) as an unsigned 32 bit value, or INVALID
+    static long parseIpv4(CharSequence text, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int i = from;
+        while (octets < 4) {
+            int value = 0;
+            int digits = 0;
+            while (i < to && text.charAt(i) >= '0' && text.charAt(i) <= '9' && digits < 3) {
+                value = value * 10 + text.charAt(i) - '0';
+                digits++;
+                i++;
+            }
+            if (digits == 0 || value > 255) {
+                return INVALID;
+            }
+            address = (address << 8) | value;
+            octets++;
+            if (octets < 4) {
+                if (i >= to || text.charAt(i) != '.') {
+                    return INVALID;
+                }
+                i++;
+            }
+        }
+        return i == to ? address : INVALID;
+    }
+
+    // Parses an IPv6 address into out[0] (high bits) and out[1] (low bits), out needs room for 4 longs
+    static boolean parseIpv6(String text, long[] out) {
+        int end = text.indexOf('%');
+        end = end < 0 ? text.length() : end;
+        // out[0..1] collects the groups before "::", out[2..3] the groups after it
+        out[0] = out[1] = out[2] = out[3] = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+        int i = 0;
+        if (text.startsWith("::")) {
+            compressed = true;
+            i = 2;
+        }
+        while (i < end) {
+            int value = 0;
+            int digits = 0;
+            int j = i;
+            while (j < end && Character.digit(text.charAt(j), 16) >= 0) {
+                value = (value << 4) | Character.digit(text.charAt(j), 16);
+                digits++;
+                j++;
+            }
+            if (j < end && text.charAt(j) == '.') {
+                // Embedded IPv4 address, the last two groups
+                long ipv4 = parseIpv4(text, i, end);
+                if (ipv4 == INVALID) {
+                    return false;
+                }
+                int offset = compressed ? 2 : 0;
+                push(out, offset, ipv4 >>> 16);
+                push(out, offset, ipv4 & 0xFFFF);
+                if (compressed) {
+                    tailGroups += 2;
+                } else {
+                    headGroups += 2;
+                }
+                i = end;
+                break;
+            }
+            if (digits == 0 || digits > 4) {
+                return false;
+            }
+            if (compressed) {
+                push(out, 2, value);
+                tailGroups++;
+            } else {
+                push(out, 0, value);
+                headGroups++;
+            }
+            i = j;
+            if (i == end) {
+                break;
+            }
+            if (text.charAt(i) != ':' || ++i == end) {
+                return false;
+            }
+            if (text.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+        int groups = headGroups + tailGroups;
+        if (compressed ? groups > 7 : groups != 8) {
+            return false;
+        }
+        // Moves the head groups to the top and fills the gap of "::" with zeros
+        int shift = 16 * (8 - headGroups);
+        long high = out[0];
+        long low = out[1];
+        if (shift >= 128) {
+            high = 0;
+            low = 0;
+        } else if (shift >= 64) {
+            high = low << (shift - 64);
+            low = 0;
+        } else if (shift > 0) {
+            high = (high << shift) | (low >>> (64 - shift));
+            low <<= shift;
+        }
+        out[0] = high | out[2];
+        out[1] = low | out[3];
+        return true;
+    }
+
+    private static void push(long[] out, int offset, long group) {
+        out[offset] = (out[offset] << 16) | (out[offset + 1] >>> 48);
+        out[offset + 1] = (out[offset + 1] << 16) | group;
+    }
+}
@@ -0,0 +1,8 @@
+package com.sivalabs.blog.analytics.domain;
+
+public interface IpCountryLookup {
+    IpCountryLookup NONE = ipAddress -> null;
+
+    // ISO 3166 alpha-2 code of the country the address is assigned to, or null when it is not known
+    String countryOf(String ipAddress);
+}
@@ -0,0 +1,145 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Country lookup over a memory-mapped file of sorted, non-overlapping IP ranges, written by IpCountryRangeFileWriter
+// in the test sources.
+// Layout: "IPCC", version, 3 reserved bytes, IPv4 range count, IPv6 range count, then the IPv4 ranges as
+// [start:4][end:4][country:2] and the IPv6 ranges as [start:16][end:16][country:2], all big-endian.
+// Lookups binary search the mapped ranges and only allocate the per-thread IPv6 scratch space once.
+public class IpCountryRangeFile implements IpCountryLookup {
+    static final int MAGIC = 0x49504343;
+    static final byte VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int IPV4_RANGE_BYTES = 10;
+    static final int IPV6_RANGE_BYTES = 34;
+    private static final String[] COUNTRY_CODES = new String[26 * 26];
+    private static final ThreadLocal<long[]> IPV6_SCRATCH = ThreadLocal.withInitial(() -> new long[4]);
+
+    static {
+        for (char first = 'A'; first <= 'Z'; first++) {
+            for (char second = 'A'; second <= 'Z'; second++) {
+                COUNTRY_CODES[(first - 'A') * 26 + second - 'A'] = new String(new char[] {first, second});
+            }
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int ipv4Count;
+    private final int ipv6Count;
+    private final int ipv6Offset;
+
+    IpCountryRangeFile(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION) {
+            throw new IllegalArgumentException("Not an IP country range file");
+        }
+        this.buffer = buffer;
+        this.ipv4Count = buffer.getInt(8);
+        this.ipv6Count = buffer.getInt(12);
+        this.ipv6Offset = HEADER_BYTES + ipv4Count * IPV4_RANGE_BYTES;
+        if (ipv4Count < 0 || ipv6Count < 0 || ipv6Offset + (long) ipv6Count * IPV6_RANGE_BYTES != buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated IP country range file");
+        }
+    }
+
+    public static IpCountryRangeFile open(Path file) {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new IpCountryRangeFile(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open IP country range file " + file, e);
+        }
+    }
+
+    @Override
+    public String countryOf(String ipAddress) {
+        if (ipAddress == null || ipAddress.isEmpty()) {
+            return null;
+        }
+        if (ipAddress.indexOf(':') < 0) {
+            long ipv4 = IpAddresses.parseIpv4(ipAddress, 0, ipAddress.length());
+            return ipv4 != IpAddresses.INVALID ? findIpv4((int) ipv4) : null;
+        }
+        long[] address = IPV6_SCRATCH.get();
+        if (!IpAddresses.parseIpv6(ipAddress, address)) {
+            return null;
+        }
+        // IPv4-mapped addresses, ::ffff:a.b.c.d
+        if (address[0] == 0 && (address[1] >>> 32) == 0xFFFFL) {
+            return findIpv4((int) address[1]);
+        }
+        return findIpv6(address[0], address[1]);
+    }
+
+    public int rangeCount() {
+        return ipv4Count + ipv6Count;
+    }
+
+    private String findIpv4(int address) {
+        // Last range starting at or before the address
+        int low = 0;
+        int high = ipv4Count - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(buffer.getInt(HEADER_BYTES + mid * IPV4_RANGE_BYTES), address) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0) {
+            return null;
+        }
+        int offset = HEADER_BYTES + found * IPV4_RANGE_BYTES;
+        if (Integer.compareUnsigned(address, buffer.getInt(offset + 4)) > 0) {
+            return null;
+        }
+        return countryCode(offset + 8);
+    }
+
+    private String findIpv6(long addressHigh, long addressLow) {
+        int low = 0;
+        int high = ipv6Count - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int offset = ipv6Offset + mid * IPV6_RANGE_BYTES;
+            if (compare(buffer.getLong(offset), buffer.getLong(offset + 8), addressHigh, addressLow) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0) {
+            return null;
+        }
+        int offset = ipv6Offset + found * IPV6_RANGE_BYTES;
+        if (compare(addressHigh, addressLow, buffer.getLong(offset + 16), buffer.getLong(offset + 24)) > 0) {
+            return null;
+        }
+        return countryCode(offset + 32);
+    }
+
+    private String countryCode(int offset) {
+        int first = buffer.get(offset) - 'A';
+        int second = buffer.get(offset + 1) - 'A';
+        if (first < 0 || first >= 26 || second < 0 || second >= 26) {
+            return null;
+        }
+        return COUNTRY_CODES[first * 26 + second];
+    }
+
+    static int compare(long high, long low, long otherHigh, long otherLow) {
+        int byHigh = Long.compareUnsigned(high, otherHigh);
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(low, otherLow);
+    }
+}
@@ -0,0 +1,17 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.util.List;
+
+// Aggregates of a page over the last `days` days
+public record PageAnalyticsReport(
+        List<DailyViewsDTO> dailyViews,
+        List<ReferrerDTO> topReferrers,
+        List<CountryViewsDTO> viewsByCountry,
+        SessionMetricsDTO sessionMetrics) {
+
+    public PageAnalyticsReport {
+        dailyViews = List.copyOf(dailyViews);
+        topReferrers = List.copyOf(topReferrers);
+        viewsByCountry = List.copyOf(viewsByCountry);
+    }
+}
@@ -0,0 +1,157 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class PageAnalyticsSummaryJdbcRepository {
+    // A period counter is added to while it counts the same bucket as the increment, restarted when the increment
+    // belongs to a later bucket, and left alone when the increment is late for a bucket that already rotated
+    private static final String APPLY_INCREMENT =
+            """
+            insert into page_analytics_summary as s (path, total_views, views_today, views_this_week, views_this_month,
+                                                     today_bucket, week_bucket, month_bucket, last_viewed_at, updated_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, now())
+            on conflict (path) do update set
+                total_views      = s.total_views + excluded.total_views,
+                views_today      = case
+                                       when s.today_bucket = excluded.today_bucket
+                                           then s.views_today + excluded.views_today
+                                       when coalesce(s.today_bucket < excluded.today_bucket, true)
+                                           then excluded.views_today
+                                       else s.views_today end,
+                views_this_week  = case
+                                       when s.week_bucket = excluded.week_bucket
+                                           then s.views_this_week + excluded.views_this_week
+                                       when coalesce(s.week_bucket < excluded.week_bucket, true)
+                                           then excluded.views_this_week
+                                       else s.views_this_week end,
+                views_this_month = case
+                                       when s.month_bucket = excluded.month_bucket
+                                           then s.views_this_month + excluded.views_this_month
+                                       when coalesce(s.month_bucket < excluded.month_bucket, true)
+                                           then excluded.views_this_month
+                                       else s.views_this_month end,
+                today_bucket     = greatest(s.today_bucket, excluded.today_bucket),
+                week_bucket      = greatest(s.week_bucket, excluded.week_bucket),
+                month_bucket     = greatest(s.month_bucket, excluded.month_bucket),
+                last_viewed_at   = greatest(s.last_viewed_at, excluded.last_viewed_at),
+                updated_at       = excluded.updated_at
+            """;
+
+    private static final String ROTATE_PERIOD_BUCKETS =
+            """
+            update page_analytics_summary set
+                views_today      = case when coalesce(today_bucket < ?, true) then 0 else views_today end,
+                views_this_week  = case when coalesce(week_bucket < ?, true) then 0 else views_this_week end,
+                views_this_month = case when coalesce(month_bucket < ?, true) then 0 else views_this_month end,
+                today_bucket     = greatest(today_bucket, ?),
+                week_bucket      = greatest(week_bucket, ?),
+                month_bucket     = greatest(month_bucket, ?),
+                updated_at       = now()
+            where coalesce(today_bucket < ?, true)
+               or coalesce(week_bucket < ?, true)
+               or coalesce(month_bucket < ?, true)
+            """;
+
+    private static final String REFRESH_FROM_PAGE_VIEWS =
+            """
+            insert into page_analytics_summary(path, total_views, views_today, views_this_week, views_this_month,
+                                               today_bucket, week_bucket, month_bucket, last_viewed_at, updated_at)
+            select p.path,
+                   v.views,
+                   v.views_today,
+                   v.views_this_week,
+                   v.views_this_month,
+                   ?::date,
+                   ?::date,
+                   ?::date,
+                   v.last_viewed_at,
+                   now()
+            from (select path_id,
+                         count(*)                                as views,
+                         count(*) filter (where created_at >= ?) as views_today,
+                         count(*) filter (where created_at >= ?) as views_this_week,
+                         count(*) filter (where created_at >= ?) as views_this_month,
+                         max(created_at)                         as last_viewed_at
+                  from page_views
+                  group by path_id) v
+            join page_view_paths p on p.id = v.path_id
+            on conflict (path) do update set
+                total_views      = excluded.total_views,
+                views_today      = excluded.views_today,
+                views_this_week  = excluded.views_this_week,
+                views_this_month = excluded.views_this_month,
+                today_bucket     = excluded.today_bucket,
+                week_bucket      = excluded.week_bucket,
+                month_bucket     = excluded.month_bucket,
+                last_viewed_at   = excluded.last_viewed_at,
+                updated_at       = excluded.updated_at
+            """;
+
+    private static final String SUM_TOTALS =
+            """
+            select coalesce(sum(total_views), 0)                as total_views,
+                   coalesce(sum(views_today), 0)                as views_today,
+                   coalesce(sum(views_this_week), 0)            as views_this_week,
+                   coalesce(sum(views_this_month), 0)           as views_this_month,
+                   coalesce(sum(unique_visitors_total), 0)      as unique_visitors_total,
+                   coalesce(sum(unique_visitors_today), 0)      as unique_visitors_today,
+                   coalesce(sum(unique_visitors_this_week), 0)  as unique_visitors_this_week,
+                   coalesce(sum(unique_visitors_this_month), 0) as unique_visitors_this_month
+            from page_analytics_summary
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PageAnalyticsSummaryJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void applyIncrements(List<SummaryIncrement> increments, ReportingPeriods periods) {
+        jdbcTemplate.batchUpdate(APPLY_INCREMENT, increments, increments.size(), (ps, increment) -> {
+            ps.setString(1, increment.path());
+            ps.setLong(2, increment.views());
+            ps.setLong(3, increment.viewsToday());
+            ps.setLong(4, increment.viewsThisWeek());
+            ps.setLong(5, increment.viewsThisMonth());
+            ps.setObject(6, periods.startOfDay().toLocalDate());
+            ps.setObject(7, periods.startOfWeek().toLocalDate());
+            ps.setObject(8, periods.startOfMonth().toLocalDate());
+            ps.setObject(9, increment.lastViewedAt());
+        });
+    }
+
+    public int rotatePeriodBuckets(ReportingPeriods periods) {
+        var day = periods.startOfDay().toLocalDate();
+        var week = periods.startOfWeek().toLocalDate();
+        var month = periods.startOfMonth().toLocalDate();
+        return jdbcTemplate.update(ROTATE_PERIOD_BUCKETS, day, week, month, day, week, month, day, week, month);
+    }
+
+    public int refreshFromPageViews(ReportingPeriods periods) {
+        return jdbcTemplate.update(
+                REFRESH_FROM_PAGE_VIEWS,
+                periods.startOfDay().toLocalDate(),
+                periods.startOfWeek().toLocalDate(),
+                periods.startOfMonth().toLocalDate(),
+                periods.startOfDay(),
+                periods.startOfWeek(),
+                periods.startOfMonth());
+    }
+
+    public AnalyticsDTO sumTotals() {
+        return jdbcTemplate.queryForObject(SUM_TOTALS, (rs, rowNum) -> AnalyticsDTO.builder()
+                .path("total")
+                .viewsAllTime(rs.getLong("total_views"))
+                .viewsToday(rs.getLong("views_today"))
+                .viewsThisWeek(rs.getLong("views_this_week"))
+                .viewsThisMonth(rs.getLong("views_this_month"))
+                .uniqueVisitorsAllTime(rs.getLong("unique_visitors_total"))
+                .uniqueVisitorsToday(rs.getLong("unique_visitors_today"))
+                .uniqueVisitorsThisWeek(rs.getLong("unique_visitors_this_week"))
+                .uniqueVisitorsThisMonth(rs.getLong("unique_visitors_this_month"))
+                .build());
+    }
+}
@@ -34,16 +34,4 @@ public interface PageAnalyticsSummaryRepository extends JpaRepository<PageAnalyt
 
     @Query("SELECT SUM(p.viewsThisMonth) FROM PageAnalyticsSummary p")
     Long sumViewsThisMonth();
-
-    @Query("SELECT SUM(p.uniqueVisitorsTotal) FROM PageAnalyticsSummary p")
-    Long sumUniqueVisitorsTotal();
-
-    @Query("SELECT SUM(p.uniqueVisitorsToday) FROM PageAnalyticsSummary p")
-    Long sumUniqueVisitorsToday();
-
-    @Query("SELECT SUM(p.uniqueVisitorsThisWeek) FROM PageAnalyticsSummary p")
-    Long sumUniqueVisitorsThisWeek();
-
-    @Query("SELECT SUM(p.uniqueVisitorsThisMonth) FROM PageAnalyticsSummary p")
-    Long sumUniqueVisitorsThisMonth();
 }
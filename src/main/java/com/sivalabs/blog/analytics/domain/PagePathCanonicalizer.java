@@ -0,0 +1,99 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.blog.ContentSlugService;
+import com.sivalabs.blog.shared.events.BlogContentChangedEvent;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Turns the route template a page view matched and its URI variables into the path it is counted under.
+// Slugs are only filled in when they name a published post, a category or a tag, every other path is counted under
+// UNKNOWN_PATH, so the distinct paths in the analytics tables are bounded by the blog's content, not by requests.
+@Component
+public class PagePathCanonicalizer {
+    private static final Logger logger = LoggerFactory.getLogger(PagePathCanonicalizer.class);
+    public static final String UNKNOWN_PATH = "/(unknown)";
+    private static final Pattern URI_VARIABLE = Pattern.compile("\\{([^}:]+)(:[^}]*)?}");
+
+    private final ContentSlugService contentSlugService;
+    private volatile ContentSlugs contentSlugs;
+
+    public PagePathCanonicalizer(ContentSlugService contentSlugService) {
+        this.contentSlugService = contentSlugService;
+    }
+
+    public String canonicalize(String template, Map<String, String> variables) {
+        if (template == null || template.contains("*")) {
+            return UNKNOWN_PATH;
+        }
+        var slugs = contentSlugs();
+        Matcher matcher = URI_VARIABLE.matcher(template);
+        var path = new StringBuilder();
+        while (matcher.find()) {
+            var value = variables.get(matcher.group(1));
+            if (value == null || !slugs.isKnown(matcher.group(1), value.toLowerCase(Locale.ROOT))) {
+                return UNKNOWN_PATH;
+            }
+            matcher.appendReplacement(path, Matcher.quoteReplacement(value.toLowerCase(Locale.ROOT)));
+        }
+        matcher.appendTail(path);
+        return path.toString();
+    }
+
+    // Title of the published post with the given slug, or null when there is none
+    public String postTitle(String slug) {
+        return slug != null ? contentSlugs().posts().get(slug.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    @ApplicationModuleListener
+    void onBlogContentChanged(BlogContentChangedEvent event) {
+        refreshContentSlugs();
+    }
+
+    // Reloads on a schedule too, in case a content change event was missed
+    @Scheduled(cron = "${app.analytics.content-slugs-refresh-job-cron}")
+    public void refreshContentSlugs() {
+        try {
+            contentSlugs = new ContentSlugs(
+                    contentSlugService.findPublishedPostTitles(),
+                    contentSlugService.findCategorySlugs(),
+                    contentSlugService.findTagSlugs());
+        } catch (Exception e) {
+            // Keeps the slugs loaded before, the next scheduled run tries again
+            logger.error("Failed to load content slugs", e);
+            if (contentSlugs == null) {
+                contentSlugs = new ContentSlugs(Map.of(), Set.of(), Set.of());
+            }
+        }
+    }
+
+    private ContentSlugs contentSlugs() {
+        if (contentSlugs == null) {
+            synchronized (this) {
+                if (contentSlugs == null) {
+                    refreshContentSlugs();
+                }
+            }
+        }
+        return contentSlugs;
+    }
+
+    // URI variable names of the blog's routes, e.g. /posts/{slug} and /tags/{tagSlug}/posts
+    private record ContentSlugs(Map<String, String> posts, Set<String> categories, Set<String> tags) {
+        boolean isKnown(String variable, String slug) {
+            return switch (variable) {
+                case "slug" -> posts.containsKey(slug);
+                case "categorySlug" -> categories.contains(slug);
+                case "tagSlug" -> tags.contains(slug);
+                default -> false;
+            };
+        }
+    }
+}
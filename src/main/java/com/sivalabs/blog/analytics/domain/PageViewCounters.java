@@ -0,0 +1,107 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+// Per node view counters keyed by path and day. Request threads only touch striped LongAdder cells, so a single
+// hot page does not make them queue up on a lock, and the accumulated deltas are written with additive upserts.
+@Component
+public class PageViewCounters {
+    private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+    // Evicted counters, by the day they were evicted on. A request thread may still increment one it fetched just
+    // before, so they keep being flushed until the day after their eviction is over.
+    private final NavigableMap<LocalDate, List<Map.Entry<CounterKey, Counter>>> evicted = new TreeMap<>();
+
+    public void increment(String path, LocalDateTime viewedAt) {
+        var key = new CounterKey(StringUtils.truncate(path, 500), viewedAt.toLocalDate());
+        var counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> new Counter());
+        }
+        counter.views.increment();
+        counter.lastViewedAt.accumulate(viewedAt.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    // Counters are never reset, every flush writes the difference to what was written before. That way an
+    // increment racing with the flush is never lost, and the deltas are only marked as flushed once written.
+    public synchronized void flush(ReportingPeriods periods, Consumer<List<SummaryIncrement>> writer) {
+        Map<Counter, Long> flushedViews = new HashMap<>();
+        Map<String, SummaryIncrement> increments = new LinkedHashMap<>();
+        BiConsumer<CounterKey, Counter> collect = (key, counter) -> {
+            long views = counter.views.sum();
+            long delta = views - counter.flushedViews;
+            if (delta == 0) {
+                return;
+            }
+            flushedViews.put(counter, views);
+            var dayStart = key.day().atStartOfDay();
+            var increment = new SummaryIncrement(
+                    key.path(),
+                    delta,
+                    periods.isToday(dayStart) ? delta : 0,
+                    periods.isThisWeek(dayStart) ? delta : 0,
+                    periods.isThisMonth(dayStart) ? delta : 0,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(counter.lastViewedAt.get()), ZoneOffset.UTC));
+            increments.merge(key.path(), increment, PageViewCounters::merge);
+        };
+        evicted.values().forEach(entries -> entries.forEach(entry -> collect.accept(entry.getKey(), entry.getValue())));
+        counters.forEach(collect);
+        if (!increments.isEmpty()) {
+            writer.accept(new ArrayList<>(increments.values()));
+            flushedViews.forEach((counter, views) -> counter.flushedViews = views);
+        }
+        var today = periods.today();
+        evicted.headMap(today.minusDays(1)).clear();
+        evictPastDays(today.minusDays(1), evicted.computeIfAbsent(today, day -> new ArrayList<>()));
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    // Views are counted under the day they happened, so counters of earlier days stop changing. Only flushed
+    // counters are removed, and only if no new counter took their place.
+    private void evictPastDays(LocalDate oldestKeptDay, List<Map.Entry<CounterKey, Counter>> removed) {
+        counters.forEach((key, counter) -> {
+            if (key.day().isBefore(oldestKeptDay)
+                    && counter.views.sum() == counter.flushedViews
+                    && counters.remove(key, counter)) {
+                removed.add(Map.entry(key, counter));
+            }
+        });
+    }
+
+    private static SummaryIncrement merge(SummaryIncrement a, SummaryIncrement b) {
+        return new SummaryIncrement(
+                a.path(),
+                a.views() + b.views(),
+                a.viewsToday() + b.viewsToday(),
+                a.viewsThisWeek() + b.viewsThisWeek(),
+                a.viewsThisMonth() + b.viewsThisMonth(),
+                a.lastViewedAt().isAfter(b.lastViewedAt()) ? a.lastViewedAt() : b.lastViewedAt());
+    }
+
+    private record CounterKey(String path, LocalDate day) {}
+
+    private static final class Counter {
+        private final LongAdder views = new LongAdder();
+        private final LongAccumulator lastViewedAt = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private long flushedViews;
+    }
+}
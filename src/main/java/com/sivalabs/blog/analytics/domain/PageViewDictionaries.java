@@ -0,0 +1,90 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Resolves the dictionary ids stored in page_views, keeping recently used entries in memory
+@Component
+public class PageViewDictionaries {
+    private final PageViewDictionaryRepository dictionaryRepository;
+    private final TransactionTemplate newTransaction;
+    private final Map<PageViewDictionary, DictionaryCache> caches = new EnumMap<>(PageViewDictionary.class);
+
+    public PageViewDictionaries(
+            PageViewDictionaryRepository dictionaryRepository,
+            PlatformTransactionManager transactionManager,
+            ApplicationProperties properties) {
+        this.dictionaryRepository = dictionaryRepository;
+        // New entries are committed on their own so a rolled back batch can't leave unknown ids in the cache
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (var dictionary : PageViewDictionary.values()) {
+            caches.put(dictionary, new DictionaryCache(properties.analytics().dictionaryCacheSize()));
+        }
+    }
+
+    // Ids of the given normalized values, adding the ones that aren't in the dictionary yet
+    public Map<String, Integer> resolveIds(PageViewDictionary dictionary, Collection<String> values) {
+        var cache = caches.get(dictionary);
+        Map<String, Integer> ids = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (var value : values) {
+            if (value == null) {
+                continue;
+            }
+            var id = cache.idOf(value);
+            if (id != null) {
+                ids.put(value, id);
+            } else {
+                missing.add(value);
+            }
+        }
+        if (!missing.isEmpty()) {
+            var found = newTransaction.execute(status -> {
+                var existing = dictionaryRepository.findIds(dictionary, missing);
+                if (existing.size() < missing.size()) {
+                    dictionaryRepository.insertMissing(dictionary, missing);
+                    existing = dictionaryRepository.findIds(dictionary, missing);
+                }
+                return existing;
+            });
+            Objects.requireNonNull(found).forEach(cache::put);
+            ids.putAll(found);
+        }
+        return ids;
+    }
+
+    // Values of the given ids, reading the ones that aren't cached in one query
+    public Map<Integer, String> resolveValues(PageViewDictionary dictionary, Collection<Integer> ids) {
+        var cache = caches.get(dictionary);
+        Map<Integer, String> values = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        for (var id : ids) {
+            if (id == null) {
+                continue;
+            }
+            var value = cache.valueOf(id);
+            if (value != null) {
+                values.put(id, value);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            var found = dictionaryRepository.findValues(dictionary, missing);
+            found.forEach((id, value) -> cache.put(value, id));
+            values.putAll(found);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,37 @@
+package com.sivalabs.blog.analytics.domain;
+
+import org.apache.commons.lang3.StringUtils;
+
+public enum PageViewDictionary {
+    PATHS("page_view_paths", "path", 500),
+    TITLES("page_view_titles", "title", 500),
+    REFERER_HOSTS("page_view_referer_hosts", "host", 255),
+    USER_AGENTS("page_view_user_agents", "user_agent", 500);
+
+    private final String table;
+    private final String column;
+    private final int maxLength;
+
+    PageViewDictionary(String table, String column, int maxLength) {
+        this.table = table;
+        this.column = column;
+        this.maxLength = maxLength;
+    }
+
+    // Dictionary entry of the value, or null when there is nothing to record
+    String normalize(String value) {
+        return StringUtils.isBlank(value) ? null : StringUtils.truncate(value, maxLength);
+    }
+
+    String table() {
+        return table;
+    }
+
+    String column() {
+        return column;
+    }
+
+    int maxLength() {
+        return maxLength;
+    }
+}
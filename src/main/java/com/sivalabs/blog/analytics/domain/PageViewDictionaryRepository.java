@@ -0,0 +1,61 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class PageViewDictionaryRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public PageViewDictionaryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertMissing(PageViewDictionary dictionary, Collection<String> values) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    """
+                    insert into %s(%s)
+                    select unnest(?::varchar[]) order by 1
+                    on conflict do nothing
+                    """
+                            .formatted(dictionary.table(), dictionary.column()));
+            ps.setArray(1, con.createArrayOf("varchar", values.toArray()));
+            return ps;
+        });
+    }
+
+    public Map<String, Integer> findIds(PageViewDictionary dictionary, Collection<String> values) {
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement("select id, %s as value from %s where %s = any(?)"
+                            .formatted(dictionary.column(), dictionary.table(), dictionary.column()));
+                    ps.setArray(1, con.createArrayOf("varchar", values.toArray()));
+                    return ps;
+                },
+                rs -> {
+                    ids.put(rs.getString("value"), rs.getInt("id"));
+                });
+        return ids;
+    }
+
+    public Map<Integer, String> findValues(PageViewDictionary dictionary, Collection<Integer> ids) {
+        Map<Integer, String> values = new HashMap<>();
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement("select id, %s as value from %s where id = any(?)"
+                            .formatted(dictionary.column(), dictionary.table()));
+                    ps.setArray(1, con.createArrayOf("integer", ids.toArray()));
+                    return ps;
+                },
+                rs -> {
+                    values.put(rs.getInt("id"), rs.getString("value"));
+                });
+        return values;
+    }
+}
@@ -0,0 +1,170 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static com.sivalabs.blog.analytics.domain.PageViewDictionary.PATHS;
+import static com.sivalabs.blog.analytics.domain.PageViewDictionary.REFERER_HOSTS;
+import static com.sivalabs.blog.analytics.domain.PageViewDictionary.TITLES;
+import static com.sivalabs.blog.analytics.domain.PageViewDictionary.USER_AGENTS;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class PageViewJdbcRepository {
+    private static final String INSERT_PAGE_VIEW =
+            """
+            insert into page_views(path_id, title_id, referer_host_id, user_agent_id, ip_address, session_id, user_id,
+                                   created_at, country_code)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Rows come in storage order, which is chronological per monthly partition for page views recorded as they happen.
+    // Dictionary ids are turned into values through PageViewDictionaries rather than joins, a page of rows at a time.
+    private static final String SELECT_PAGE_VIEWS =
+            """
+            select id, created_at, path_id, title_id, referer_host_id, user_agent_id, ip_address, session_id, user_id,
+                   country_code
+            from page_views
+            where created_at >= ? and created_at < ?
+            """;
+    // Rows held in memory at a time while streaming, Postgres only uses a cursor inside a transaction
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PageViewDictionaries dictionaries;
+    private final ZoneId zone;
+
+    public PageViewJdbcRepository(
+            JdbcTemplate jdbcTemplate, PageViewDictionaries dictionaries, ApplicationProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionaries = dictionaries;
+        this.zone = properties.analytics().timeZone();
+    }
+
+    public void insertAll(List<PageViewEvent> events) {
+        insertAll(events, Collections.nCopies(events.size(), null));
+    }
+
+    // countryCodes holds the country of each event, by position
+    public void insertAll(List<PageViewEvent> events, List<String> countryCodes) {
+        var indexedEvents = IntStream.range(0, events.size()).boxed().toList();
+        var pathIds = resolveIds(PATHS, events, PageViewEvent::path);
+        var titleIds = resolveIds(TITLES, events, PageViewEvent::title);
+        var refererHostIds = resolveIds(REFERER_HOSTS, events, event -> Referers.hostOf(event.referer()));
+        var userAgentIds = resolveIds(USER_AGENTS, events, PageViewEvent::userAgent);
+        var now = LocalDateTime.now(zone);
+        jdbcTemplate.batchUpdate(INSERT_PAGE_VIEW, indexedEvents, events.size(), (ps, index) -> {
+            var event = events.get(index);
+            setId(ps, 1, pathIds, PATHS.normalize(event.path()));
+            setId(ps, 2, titleIds, TITLES.normalize(event.title()));
+            setId(ps, 3, refererHostIds, REFERER_HOSTS.normalize(Referers.hostOf(event.referer())));
+            setId(ps, 4, userAgentIds, USER_AGENTS.normalize(event.userAgent()));
+            ps.setString(5, StringUtils.truncate(event.ipAddress(), 45));
+            ps.setString(6, StringUtils.truncate(event.sessionId(), 64));
+            ps.setObject(7, event.userId(), Types.BIGINT);
+            ps.setObject(8, event.timestamp() != null ? event.timestamp() : now);
+            ps.setString(9, countryCodes.get(index));
+        });
+    }
+
+    public void forEachPageView(LocalDateTime from, LocalDateTime to, Consumer<ExportedPageView> consumer) {
+        List<PageViewRow> page = new ArrayList<>(EXPORT_FETCH_SIZE);
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            SELECT_PAGE_VIEWS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(EXPORT_FETCH_SIZE);
+                    ps.setObject(1, from);
+                    ps.setObject(2, to);
+                    return ps;
+                },
+                rs -> {
+                    page.add(new PageViewRow(
+                            rs.getLong("id"),
+                            rs.getObject("created_at", LocalDateTime.class),
+                            rs.getObject("path_id", Integer.class),
+                            rs.getObject("title_id", Integer.class),
+                            rs.getObject("referer_host_id", Integer.class),
+                            rs.getObject("user_agent_id", Integer.class),
+                            rs.getString("ip_address"),
+                            rs.getString("session_id"),
+                            rs.getObject("user_id", Long.class),
+                            rs.getString("country_code")));
+                    if (page.size() == EXPORT_FETCH_SIZE) {
+                        exportPage(page, consumer);
+                    }
+                });
+        exportPage(page, consumer);
+    }
+
+    private void exportPage(List<PageViewRow> page, Consumer<ExportedPageView> consumer) {
+        var paths = resolveValues(PATHS, page, PageViewRow::pathId);
+        var titles = resolveValues(TITLES, page, PageViewRow::titleId);
+        var refererHosts = resolveValues(REFERER_HOSTS, page, PageViewRow::refererHostId);
+        var userAgents = resolveValues(USER_AGENTS, page, PageViewRow::userAgentId);
+        for (var row : page) {
+            consumer.accept(new ExportedPageView(
+                    row.id(),
+                    row.createdAt(),
+                    paths.get(row.pathId()),
+                    titles.get(row.titleId()),
+                    refererHosts.get(row.refererHostId()),
+                    userAgents.get(row.userAgentId()),
+                    row.ipAddress(),
+                    row.sessionId(),
+                    row.userId(),
+                    row.countryCode()));
+        }
+        page.clear();
+    }
+
+    private Map<Integer, String> resolveValues(
+            PageViewDictionary dictionary, List<PageViewRow> page, Function<PageViewRow, Integer> id) {
+        var ids = page.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+        return dictionaries.resolveValues(dictionary, ids);
+    }
+
+    private Map<String, Integer> resolveIds(
+            PageViewDictionary dictionary, List<PageViewEvent> events, Function<PageViewEvent, String> value) {
+        var values = events.stream()
+                .map(value)
+                .map(dictionary::normalize)
+                .distinct()
+                .toList();
+        return dictionaries.resolveIds(dictionary, values);
+    }
+
+    private static void setId(PreparedStatement ps, int index, Map<String, Integer> ids, String value)
+            throws SQLException {
+        ps.setObject(index, value != null ? ids.get(value) : null, Types.INTEGER);
+    }
+
+    private record PageViewRow(
+            long id,
+            LocalDateTime createdAt,
+            Integer pathId,
+            Integer titleId,
+            Integer refererHostId,
+            Integer userAgentId,
+            String ipAddress,
+            String sessionId,
+            Long userId,
+            String countryCode) {}
+}
@@ -0,0 +1,71 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import java.time.YearMonth;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PageViewPartitionManager {
+    private static final Logger logger = LoggerFactory.getLogger(PageViewPartitionManager.class);
+
+    private final PageViewPartitionRepository partitionRepository;
+    private final ApplicationProperties.AnalyticsProperties properties;
+
+    public PageViewPartitionManager(PageViewPartitionRepository partitionRepository, ApplicationProperties properties) {
+        this.partitionRepository = partitionRepository;
+        this.properties = properties.analytics();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.analytics.partition-maintenance-job-cron}", zone = "${app.analytics.time-zone:}")
+    public void maintainPartitions() {
+        var currentMonth = YearMonth.now(properties.timeZone());
+        try {
+            createPartitions(currentMonth, properties.partitionPremakeMonths());
+            if (properties.retentionMonths() > 0) {
+                removePartitionsBefore(
+                        currentMonth.minusMonths(properties.retentionMonths()), properties.dropExpiredPartitions());
+            }
+        } catch (Exception e) {
+            logger.error("Failed to maintain page_views partitions", e);
+        }
+    }
+
+    public void createPartitions(YearMonth fromMonth, int monthsAhead) {
+        var existing = partitionRepository.findMonthlyPartitions();
+        for (int i = 0; i <= monthsAhead; i++) {
+            var month = fromMonth.plusMonths(i);
+            if (existing.contains(month)) {
+                continue;
+            }
+            try {
+                partitionRepository.createPartition(month);
+                logger.info("Created page_views partition for {}", month);
+            } catch (DataAccessException e) {
+                // Fails when the default partition already holds rows for that month
+                logger.warn("Could not create page_views partition for {}: {}", month, e.getMessage());
+            }
+        }
+    }
+
+    public void removePartitionsBefore(YearMonth cutoff, boolean drop) {
+        for (var month : partitionRepository.findMonthlyPartitions()) {
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            partitionRepository.detachPartition(month);
+            if (drop) {
+                partitionRepository.dropPartition(month);
+                logger.info("Dropped page_views partition for {}", month);
+            } else {
+                logger.info("Detached page_views partition for {}", month);
+            }
+        }
+    }
+}
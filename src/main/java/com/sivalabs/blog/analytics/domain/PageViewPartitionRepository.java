@@ -0,0 +1,60 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class PageViewPartitionRepository {
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    private static final String PARTITION_PREFIX = "page_views_";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PageViewPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<YearMonth> findMonthlyPartitions() {
+        return jdbcTemplate
+                .queryForList(
+                        """
+                        select c.relname from pg_inherits i
+                        join pg_class c on c.oid = i.inhrelid
+                        where i.inhparent = 'page_views'::regclass
+                        order by c.relname
+                        """,
+                        String.class)
+                .stream()
+                .map(PageViewPartitionRepository::toMonth)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public void createPartition(YearMonth month) {
+        jdbcTemplate.execute("create table if not exists %s partition of page_views for values from ('%s') to ('%s')"
+                .formatted(partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1)));
+    }
+
+    public void detachPartition(YearMonth month) {
+        jdbcTemplate.execute("alter table page_views detach partition %s".formatted(partitionName(month)));
+    }
+
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("drop table if exists %s".formatted(partitionName(month)));
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private static YearMonth toMonth(String partitionName) {
+        if (!partitionName.matches(PARTITION_PREFIX + "y\\d{4}m\\d{2}")) {
+            return null;
+        }
+        return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+    }
+}
@@ -10,45 +10,60 @@ import org.springframework.data.repository.query.Param;
 
 public interface PageViewRepository extends JpaRepository<PageView, Long> {
 
-    @Query("SELECT COUNT(p) FROM PageView p WHERE p.path = :path AND p.createdAt >= :startTime")
+    // Paths are dictionary encoded, so page views are looked up and grouped by path_id
+    @Query(
+            value =
+                    """
+                    select count(*) from page_views
+                    where path_id = (select id from page_view_paths where path = :path) and created_at >= :startTime
+                    """,
+            nativeQuery = true)
     Long countViewsSince(@Param("path") String path, @Param("startTime") LocalDateTime startTime);
 
     @Query("SELECT COUNT(p) FROM PageView p WHERE p.createdAt >= :startTime")
     Long countTotalViewsSince(@Param("startTime") LocalDateTime startTime);
 
-    @Query("SELECT COUNT(DISTINCT p.sessionId) FROM PageView p WHERE p.path = :path AND p.createdAt >= :startTime")
-    Long countUniqueVisitorsSince(@Param("path") String path, @Param("startTime") LocalDateTime startTime);
-
-    @Query("SELECT COUNT(DISTINCT p.sessionId) FROM PageView p WHERE p.createdAt >= :startTime")
-    Long countTotalUniqueVisitorsSince(@Param("startTime") LocalDateTime startTime);
-
     @Query(
-            "SELECT p.path, COUNT(p) as views FROM PageView p WHERE p.createdAt >= :startTime GROUP BY p.path ORDER BY views DESC")
+            value =
+                    """
+                    select p.path, v.views
+                    from (select path_id, count(*) as views from page_views where created_at >= :startTime
+                          group by path_id) v
+                    join page_view_paths p on p.id = v.path_id
+                    order by v.views desc
+                    """,
+            nativeQuery = true)
     List<Object[]> findTopPagesSince(@Param("startTime") LocalDateTime startTime, Pageable pageable);
 
-    @Query("SELECT p.path, COUNT(p) as views FROM PageView p GROUP BY p.path ORDER BY views DESC")
+    @Query(
+            value =
+                    """
+                    select p.path, v.views
+                    from (select path_id, count(*) as views from page_views group by path_id) v
+                    join page_view_paths p on p.id = v.path_id
+                    order by v.views desc
+                    """,
+            nativeQuery = true)
     List<Object[]> findTopPagesAllTime(Pageable pageable);
 
-    @Query("SELECT COUNT(p) FROM PageView p WHERE p.path = :path")
+    @Query(
+            value =
+                    """
+                    select count(*) from page_views
+                    where path_id = (select id from page_view_paths where path = :path)
+                    """,
+            nativeQuery = true)
     Long countTotalViewsForPath(@Param("path") String path);
 
-    @Query("SELECT COUNT(DISTINCT p.sessionId) FROM PageView p WHERE p.path = :path")
-    Long countTotalUniqueVisitorsForPath(@Param("path") String path);
-
-    @Query("SELECT MAX(p.createdAt) FROM PageView p WHERE p.path = :path")
+    @Query(
+            value =
+                    """
+                    select max(created_at) from page_views
+                    where path_id = (select id from page_view_paths where path = :path)
+                    """,
+            nativeQuery = true)
     LocalDateTime findLastViewedAt(@Param("path") String path);
 
     @Query("SELECT COUNT(p) FROM PageView p")
     Long countAllViews();
-
-    @Query("SELECT COUNT(DISTINCT p.sessionId) FROM PageView p")
-    Long countAllUniqueVisitors();
-
-    @Query(
-            "SELECT DATE(p.createdAt) as date, COUNT(p) as views FROM PageView p WHERE p.path = :path AND p.createdAt >= :startTime GROUP BY DATE(p.createdAt) ORDER BY date DESC")
-    List<Object[]> findDailyViewsForPath(@Param("path") String path, @Param("startTime") LocalDateTime startTime);
-
-    @Query(
-            "SELECT DATE(p.createdAt) as date, COUNT(p) as views FROM PageView p WHERE p.createdAt >= :startTime GROUP BY DATE(p.createdAt) ORDER BY date DESC")
-    List<Object[]> findDailyViewsTotal(@Param("startTime") LocalDateTime startTime);
 }
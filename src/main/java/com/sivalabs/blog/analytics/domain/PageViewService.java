@@ -1,10 +1,15 @@
 package com.sivalabs.blog.analytics.domain;
 
+import com.sivalabs.blog.ApplicationProperties;
 import com.sivalabs.blog.analytics.events.PageViewEvent;
-import com.sivalabs.blog.shared.entities.PageAnalyticsSummary;
-import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.TemporalAdjusters;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -15,77 +20,96 @@ import org.springframework.transaction.annotation.Transactional;
 public class PageViewService {
     private static final Logger logger = LoggerFactory.getLogger(PageViewService.class);
 
-    private final PageViewRepository pageViewRepository;
-    private final PageAnalyticsSummaryRepository summaryRepository;
-
-    public PageViewService(PageViewRepository pageViewRepository, PageAnalyticsSummaryRepository summaryRepository) {
-        this.pageViewRepository = pageViewRepository;
-        this.summaryRepository = summaryRepository;
+    private final PageViewJdbcRepository pageViewJdbcRepository;
+    private final PageAnalyticsSummaryJdbcRepository summaryJdbcRepository;
+    private final DailyViewsJdbcRepository dailyViewsJdbcRepository;
+    private final UniqueVisitorService uniqueVisitorService;
+    private final HourlyViewsService hourlyViewsService;
+    private final ReferrerService referrerService;
+    private final CountryViewsService countryViewsService;
+    private final PageViewCounters pageViewCounters;
+    private final ZoneId zone;
+
+    public PageViewService(
+            PageViewJdbcRepository pageViewJdbcRepository,
+            PageAnalyticsSummaryJdbcRepository summaryJdbcRepository,
+            DailyViewsJdbcRepository dailyViewsJdbcRepository,
+            UniqueVisitorService uniqueVisitorService,
+            HourlyViewsService hourlyViewsService,
+            ReferrerService referrerService,
+            CountryViewsService countryViewsService,
+            PageViewCounters pageViewCounters,
+            ApplicationProperties properties) {
+        this.pageViewJdbcRepository = pageViewJdbcRepository;
+        this.summaryJdbcRepository = summaryJdbcRepository;
+        this.dailyViewsJdbcRepository = dailyViewsJdbcRepository;
+        this.uniqueVisitorService = uniqueVisitorService;
+        this.hourlyViewsService = hourlyViewsService;
+        this.referrerService = referrerService;
+        this.countryViewsService = countryViewsService;
+        this.pageViewCounters = pageViewCounters;
+        this.zone = properties.analytics().timeZone();
     }
 
-    public void updatePageAnalyticsSummary(PageViewEvent event) {
-        try {
-            var summary = summaryRepository.findByPath(event.path()).orElse(new PageAnalyticsSummary(event.path()));
-
-            var now = LocalDateTime.now();
-            var startOfDay = now.toLocalDate().atStartOfDay();
-            var startOfWeek = now.with(DayOfWeek.MONDAY).toLocalDate().atStartOfDay();
-            var startOfMonth =
-                    now.with(TemporalAdjusters.firstDayOfMonth()).toLocalDate().atStartOfDay();
-
-            summary.setTotalViews(pageViewRepository.countTotalViewsForPath(event.path()));
-            summary.setViewsToday(pageViewRepository.countViewsSince(event.path(), startOfDay));
-            summary.setViewsThisWeek(pageViewRepository.countViewsSince(event.path(), startOfWeek));
-            summary.setViewsThisMonth(pageViewRepository.countViewsSince(event.path(), startOfMonth));
-
-            summary.setUniqueVisitorsTotal(pageViewRepository.countTotalUniqueVisitorsForPath(event.path()));
-            summary.setUniqueVisitorsToday(pageViewRepository.countUniqueVisitorsSince(event.path(), startOfDay));
-            summary.setUniqueVisitorsThisWeek(pageViewRepository.countUniqueVisitorsSince(event.path(), startOfWeek));
-            summary.setUniqueVisitorsThisMonth(pageViewRepository.countUniqueVisitorsSince(event.path(), startOfMonth));
+    public void recordPageViews(List<PageViewEvent> events) {
+        var countryCodes = countryViewsService.lookupCountries(events);
+        pageViewJdbcRepository.insertAll(events, countryCodes);
+        dailyViewsJdbcRepository.incrementViews(toDailyViewIncrements(events));
+        uniqueVisitorService.record(events);
+        hourlyViewsService.record(events);
+        referrerService.record(events);
+        countryViewsService.record(events, countryCodes);
+        logger.debug("Recorded {} page views", events.size());
+    }
 
-            summary.setLastViewedAt(now);
+    // Summary view counts come from PageViewCounters, which count every tracked view as it is published
+    public void flushViewCounters() {
+        var periods = ReportingPeriods.current(zone);
+        pageViewCounters.flush(periods, increments -> summaryJdbcRepository.applyIncrements(increments, periods));
+    }
 
-            summaryRepository.save(summary);
+    // Restarts the period counters of pages that had no views since their day, week or month ended
+    public int rotatePeriodBuckets() {
+        var periods = ReportingPeriods.current(zone);
+        int rows = summaryJdbcRepository.rotatePeriodBuckets(periods);
+        logger.info("Rotated period counters of {} page analytics summaries to {}", rows, periods.today());
+        return rows;
+    }
 
-            logger.debug("Updated analytics summary for path: {}", event.path());
-        } catch (Exception e) {
-            logger.error("Failed to update analytics summary for path: {}", event.path(), e);
+    private List<DailyViewIncrement> toDailyViewIncrements(List<PageViewEvent> events) {
+        var now = LocalDateTime.now(zone);
+        Map<DailyViewKey, Long> viewsByPathAndDay = new LinkedHashMap<>();
+        for (var event : events) {
+            var viewedAt = event.timestamp() != null ? event.timestamp() : now;
+            var key = new DailyViewKey(StringUtils.truncate(event.path(), 500), viewedAt.toLocalDate());
+            viewsByPathAndDay.merge(key, 1L, Long::sum);
         }
+        return viewsByPathAndDay.entrySet().stream()
+                .map(entry -> new DailyViewIncrement(entry.getKey().path(), entry.getKey().day(), entry.getValue()))
+                .toList();
     }
 
-    @Transactional(readOnly = true)
-    public void refreshAllSummaries() {
-        logger.info("Starting refresh of all page analytics summaries");
-
-        try {
-            var allSummaries = summaryRepository.findAll();
-            var now = LocalDateTime.now();
-            var startOfDay = now.toLocalDate().atStartOfDay();
-            var startOfWeek = now.with(DayOfWeek.MONDAY).toLocalDate().atStartOfDay();
-            var startOfMonth =
-                    now.with(TemporalAdjusters.firstDayOfMonth()).toLocalDate().atStartOfDay();
-
-            for (var summary : allSummaries) {
-                var path = summary.getPath();
-
-                summary.setTotalViews(pageViewRepository.countTotalViewsForPath(path));
-                summary.setViewsToday(pageViewRepository.countViewsSince(path, startOfDay));
-                summary.setViewsThisWeek(pageViewRepository.countViewsSince(path, startOfWeek));
-                summary.setViewsThisMonth(pageViewRepository.countViewsSince(path, startOfMonth));
-
-                summary.setUniqueVisitorsTotal(pageViewRepository.countTotalUniqueVisitorsForPath(path));
-                summary.setUniqueVisitorsToday(pageViewRepository.countUniqueVisitorsSince(path, startOfDay));
-                summary.setUniqueVisitorsThisWeek(pageViewRepository.countUniqueVisitorsSince(path, startOfWeek));
-                summary.setUniqueVisitorsThisMonth(pageViewRepository.countUniqueVisitorsSince(path, startOfMonth));
+    private record DailyViewKey(String path, LocalDate day) {}
 
-                summary.setLastViewedAt(pageViewRepository.findLastViewedAt(path));
+    public SummaryRefreshResult refreshAllSummaries() {
+        logger.info("Starting refresh of all page analytics summaries");
+        var startedAt = System.nanoTime();
+        int rowsUpdated = summaryJdbcRepository.refreshFromPageViews(ReportingPeriods.current(zone));
+
+        var result = new SummaryRefreshResult(rowsUpdated, Duration.ofNanos(System.nanoTime() - startedAt));
+        logger.info(
+                "Completed refresh of {} page analytics summaries in {} ms",
+                result.rowsUpdated(),
+                result.duration().toMillis());
+        return result;
+    }
 
-                summaryRepository.save(summary);
-            }
+    public List<LocalDate> findDaysPendingDailyViewsBackfill() {
+        return dailyViewsJdbcRepository.findDaysPendingBackfill();
+    }
 
-            logger.info("Completed refresh of {} page analytics summaries", allSummaries.size());
-        } catch (Exception e) {
-            logger.error("Failed to refresh analytics summaries", e);
-        }
+    public void backfillDailyViews(LocalDate day) {
+        int rows = dailyViewsJdbcRepository.backfillDay(day);
+        logger.info("Backfilled daily views of {} pages for {}", rows, day);
     }
 }
@@ -0,0 +1,44 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.net.URI;
+import java.util.Locale;
+import org.apache.commons.lang3.StringUtils;
+
+final class Referers {
+    static final int MAX_REFERRER_LENGTH = 500;
+
+    private Referers() {}
+
+    // Host of an absolute referer URL, or null for relative, malformed or missing referers
+    static String hostOf(String referer) {
+        var uri = parse(referer);
+        return uri != null ? uri.getHost().toLowerCase(Locale.ROOT) : null;
+    }
+
+    // Host without "www." and path without trailing slash, query or fragment, e.g. "news.ycombinator.com/item"
+    static String normalize(String referer) {
+        var uri = parse(referer);
+        if (uri == null) {
+            return null;
+        }
+        var path = StringUtils.defaultString(uri.getRawPath());
+        path = StringUtils.removeEnd(path.replaceAll("/{2,}", "/"), "/");
+        return StringUtils.truncate(hostWithoutWww(uri.getHost()) + path, MAX_REFERRER_LENGTH);
+    }
+
+    static String hostWithoutWww(String host) {
+        return StringUtils.removeStart(host.toLowerCase(Locale.ROOT), "www.");
+    }
+
+    private static URI parse(String referer) {
+        if (referer == null || referer.isBlank()) {
+            return null;
+        }
+        try {
+            var uri = URI.create(referer.strip());
+            return uri.getHost() != null ? uri : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
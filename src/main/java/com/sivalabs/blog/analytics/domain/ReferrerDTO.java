@@ -0,0 +1,3 @@
+package com.sivalabs.blog.analytics.domain;
+
+public record ReferrerDTO(String referrer, long views) {}
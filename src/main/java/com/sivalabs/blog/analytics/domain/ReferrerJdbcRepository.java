@@ -0,0 +1,178 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class ReferrerJdbcRepository {
+    static final String OTHER_REFERRERS = "(other)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReferrerJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Rows are upserted in key order, so concurrent batches lock them in the same order and cannot deadlock
+    public void incrementPageReferrers(List<PageReferrerIncrement> increments) {
+        increments = increments.stream()
+                .sorted(Comparator.comparingInt(PageReferrerIncrement::pathId)
+                        .thenComparing(PageReferrerIncrement::day)
+                        .thenComparing(PageReferrerIncrement::referrer))
+                .toList();
+        jdbcTemplate.batchUpdate(
+                """
+                insert into page_referrers_daily(path_id, day, referrer, views) values (?, ?, ?, ?)
+                on conflict (path_id, day, referrer) do update set views = page_referrers_daily.views + excluded.views
+                """,
+                increments,
+                increments.size(),
+                (ps, increment) -> {
+                    ps.setInt(1, increment.pathId());
+                    ps.setObject(2, increment.day());
+                    ps.setString(3, increment.referrer());
+                    ps.setLong(4, increment.views());
+                });
+    }
+
+    public void incrementSiteReferrers(List<SiteReferrerIncrement> increments) {
+        increments = increments.stream()
+                .sorted(Comparator.comparing(SiteReferrerIncrement::day).thenComparing(SiteReferrerIncrement::referrer))
+                .toList();
+        jdbcTemplate.batchUpdate(
+                """
+                insert into site_referrers_daily(day, referrer, views) values (?, ?, ?)
+                on conflict (day, referrer) do update set views = site_referrers_daily.views + excluded.views
+                """,
+                increments,
+                increments.size(),
+                (ps, increment) -> {
+                    ps.setObject(1, increment.day());
+                    ps.setString(2, increment.referrer());
+                    ps.setLong(3, increment.views());
+                });
+    }
+
+    // Sums the referrers ranked below `capacity` of each given page and day into their '(other)' row
+    public int trimPageReferrers(Collection<PageDay> pageDays, int capacity) {
+        var pathIds = pageDays.stream().map(PageDay::pathId).toArray();
+        var days = pageDays.stream().map(pageDay -> Date.valueOf(pageDay.day())).toArray();
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    """
+                    with ranked as (
+                        select path_id, day, referrer,
+                               row_number() over (partition by path_id, day order by views desc, referrer) as rank
+                        from page_referrers_daily
+                        where (path_id, day) in (select * from unnest(?::integer[], ?::date[]))
+                          and referrer <> ?
+                    ),
+                    evicted as (
+                        delete from page_referrers_daily r
+                        using ranked
+                        where ranked.rank > ?
+                          and r.path_id = ranked.path_id and r.day = ranked.day and r.referrer = ranked.referrer
+                        returning r.path_id, r.day, r.views
+                    )
+                    insert into page_referrers_daily(path_id, day, referrer, views)
+                    select path_id, day, ?, sum(views) from evicted group by path_id, day
+                    on conflict (path_id, day, referrer)
+                    do update set views = page_referrers_daily.views + excluded.views
+                    """);
+            ps.setArray(1, con.createArrayOf("integer", pathIds));
+            ps.setArray(2, con.createArrayOf("date", days));
+            ps.setString(3, OTHER_REFERRERS);
+            ps.setInt(4, capacity);
+            ps.setString(5, OTHER_REFERRERS);
+            return ps;
+        });
+    }
+
+    public int trimSiteReferrers(Collection<LocalDate> days, int capacity) {
+        var dates = days.stream().map(Date::valueOf).toArray();
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    """
+                    with ranked as (
+                        select day, referrer, row_number() over (partition by day order by views desc, referrer) as rank
+                        from site_referrers_daily
+                        where day = any(?::date[]) and referrer <> ?
+                    ),
+                    evicted as (
+                        delete from site_referrers_daily r
+                        using ranked
+                        where ranked.rank > ? and r.day = ranked.day and r.referrer = ranked.referrer
+                        returning r.day, r.views
+                    )
+                    insert into site_referrers_daily(day, referrer, views)
+                    select day, ?, sum(views) from evicted group by day
+                    on conflict (day, referrer) do update set views = site_referrers_daily.views + excluded.views
+                    """);
+            ps.setArray(1, con.createArrayOf("date", dates));
+            ps.setString(2, OTHER_REFERRERS);
+            ps.setInt(3, capacity);
+            ps.setString(4, OTHER_REFERRERS);
+            return ps;
+        });
+    }
+
+    public List<ReferrerDTO> findTopReferrers(LocalDate since, int limit) {
+        return jdbcTemplate.query(
+                """
+                select referrer, sum(views) as views from site_referrers_daily
+                where day >= ? and referrer <> ?
+                group by referrer
+                order by views desc, referrer
+                limit ?
+                """,
+                (rs, rowNum) -> new ReferrerDTO(rs.getString("referrer"), rs.getLong("views")),
+                since,
+                OTHER_REFERRERS,
+                limit);
+    }
+
+    public List<ReferrerDTO> findTopReferrerHosts(LocalDate since, int limit) {
+        return jdbcTemplate.query(
+                """
+                select split_part(referrer, '/', 1) as host, sum(views) as views from site_referrers_daily
+                where day >= ? and referrer <> ?
+                group by split_part(referrer, '/', 1)
+                order by views desc, host
+                limit ?
+                """,
+                (rs, rowNum) -> new ReferrerDTO(rs.getString("host"), rs.getLong("views")),
+                since,
+                OTHER_REFERRERS,
+                limit);
+    }
+
+    public List<ReferrerDTO> findTopReferrers(String path, LocalDate since, int limit) {
+        return jdbcTemplate.query(
+                """
+                select r.referrer, sum(r.views) as views
+                from page_referrers_daily r
+                join page_view_paths p on p.id = r.path_id
+                where p.path = ? and r.day >= ? and r.referrer <> ?
+                group by r.referrer
+                order by views desc, r.referrer
+                limit ?
+                """,
+                (rs, rowNum) -> new ReferrerDTO(rs.getString("referrer"), rs.getLong("views")),
+                path,
+                since,
+                OTHER_REFERRERS,
+                limit);
+    }
+
+    public record PageDay(int pathId, LocalDate day) {}
+
+    public record PageReferrerIncrement(int pathId, LocalDate day, String referrer, long views) {}
+
+    public record SiteReferrerIncrement(LocalDate day, String referrer, long views) {}
+}
@@ -0,0 +1,128 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.domain.ReferrerJdbcRepository.PageDay;
+import com.sivalabs.blog.analytics.domain.ReferrerJdbcRepository.PageReferrerIncrement;
+import com.sivalabs.blog.analytics.domain.ReferrerJdbcRepository.SiteReferrerIncrement;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Daily referrer rollups, each batch of page views is folded in and the touched days are trimmed to their top referrers
+@Service
+@Transactional
+public class ReferrerService {
+    private final ReferrerJdbcRepository referrerRepository;
+    private final PageViewDictionaries dictionaries;
+    private final Set<String> internalHosts;
+    private final int pageCapacity;
+    private final int siteCapacity;
+    private final ZoneId zone;
+
+    public ReferrerService(
+            ReferrerJdbcRepository referrerRepository,
+            PageViewDictionaries dictionaries,
+            ApplicationProperties properties) {
+        this.referrerRepository = referrerRepository;
+        this.dictionaries = dictionaries;
+        this.internalHosts = properties.analytics().internalRefererHosts().stream()
+                .map(Referers::hostWithoutWww)
+                .collect(Collectors.toSet());
+        this.pageCapacity = properties.analytics().pageReferrerCapacity();
+        this.siteCapacity = properties.analytics().siteReferrerCapacity();
+        this.zone = properties.analytics().timeZone();
+    }
+
+    public void record(List<PageViewEvent> events) {
+        var now = LocalDateTime.now(zone);
+        Map<PageReferrerKey, Long> pageCounts = new LinkedHashMap<>();
+        Map<SiteReferrerKey, Long> siteCounts = new LinkedHashMap<>();
+        for (var event : events) {
+            var referrer = externalReferrer(event.referer(), event.host());
+            if (referrer == null) {
+                continue;
+            }
+            var day = (event.timestamp() != null ? event.timestamp() : now).toLocalDate();
+            pageCounts.merge(
+                    new PageReferrerKey(PageViewDictionary.PATHS.normalize(event.path()), day, referrer),
+                    1L,
+                    Long::sum);
+            siteCounts.merge(new SiteReferrerKey(day, referrer), 1L, Long::sum);
+        }
+        if (siteCounts.isEmpty()) {
+            return;
+        }
+        var pathIds = dictionaries.resolveIds(
+                PageViewDictionary.PATHS,
+                pageCounts.keySet().stream().map(PageReferrerKey::path).collect(Collectors.toSet()));
+        List<PageReferrerIncrement> pageIncrements = pageCounts.entrySet().stream()
+                .filter(entry -> pathIds.containsKey(entry.getKey().path()))
+                .map(entry -> new PageReferrerIncrement(
+                        pathIds.get(entry.getKey().path()),
+                        entry.getKey().day(),
+                        entry.getKey().referrer(),
+                        entry.getValue()))
+                .toList();
+        List<SiteReferrerIncrement> siteIncrements = siteCounts.entrySet().stream()
+                .map(entry -> new SiteReferrerIncrement(
+                        entry.getKey().day(), entry.getKey().referrer(), entry.getValue()))
+                .toList();
+        Set<PageDay> pageDays = new LinkedHashSet<>();
+        pageIncrements.forEach(increment -> pageDays.add(new PageDay(increment.pathId(), increment.day())));
+        Set<LocalDate> days = new LinkedHashSet<>();
+        siteIncrements.forEach(increment -> days.add(increment.day()));
+
+        referrerRepository.incrementPageReferrers(pageIncrements);
+        referrerRepository.incrementSiteReferrers(siteIncrements);
+        referrerRepository.trimPageReferrers(pageDays, pageCapacity);
+        referrerRepository.trimSiteReferrers(days, siteCapacity);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReferrerDTO> getTopReferrers(int days, int limit) {
+        return referrerRepository.findTopReferrers(since(days), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReferrerDTO> getTopReferrerHosts(int days, int limit) {
+        return referrerRepository.findTopReferrerHosts(since(days), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReferrerDTO> getTopReferrers(String path, int days, int limit) {
+        return referrerRepository.findTopReferrers(path, since(days), limit);
+    }
+
+    // Normalized referrer of a view that came from another site, null for direct and internal navigation.
+    // Navigation from the host the page was served on or from one of the configured hosts is internal.
+    String externalReferrer(String referer, String host) {
+        var referrer = Referers.normalize(referer);
+        if (referrer == null) {
+            return null;
+        }
+        int slash = referrer.indexOf('/');
+        var refererHost = slash < 0 ? referrer : referrer.substring(0, slash);
+        if (internalHosts.contains(refererHost)
+                || (host != null && refererHost.equals(Referers.hostWithoutWww(host)))) {
+            return null;
+        }
+        return referrer;
+    }
+
+    private LocalDate since(int days) {
+        return LocalDate.now(zone).minusDays(days - 1);
+    }
+
+    private record PageReferrerKey(String path, LocalDate day, String referrer) {}
+
+    private record SiteReferrerKey(LocalDate day, String referrer) {}
+}
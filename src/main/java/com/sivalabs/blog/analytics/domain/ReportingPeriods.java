@@ -0,0 +1,44 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+
+public record ReportingPeriods(
+        LocalDateTime now, LocalDateTime startOfDay, LocalDateTime startOfWeek, LocalDateTime startOfMonth) {
+
+    public static ReportingPeriods at(LocalDateTime now) {
+        var today = now.toLocalDate();
+        return new ReportingPeriods(
+                now,
+                today.atStartOfDay(),
+                today.with(DayOfWeek.MONDAY).atStartOfDay(),
+                today.with(TemporalAdjusters.firstDayOfMonth()).atStartOfDay());
+    }
+
+    public static ReportingPeriods current(ZoneId zone) {
+        return at(LocalDateTime.now(zone));
+    }
+
+    public LocalDate today() {
+        return startOfDay.toLocalDate();
+    }
+
+    public LocalDateTime earliestStart() {
+        return startOfWeek.isBefore(startOfMonth) ? startOfWeek : startOfMonth;
+    }
+
+    public boolean isToday(LocalDateTime time) {
+        return !time.isBefore(startOfDay);
+    }
+
+    public boolean isThisWeek(LocalDateTime time) {
+        return !time.isBefore(startOfWeek);
+    }
+
+    public boolean isThisMonth(LocalDateTime time) {
+        return !time.isBefore(startOfMonth);
+    }
+}
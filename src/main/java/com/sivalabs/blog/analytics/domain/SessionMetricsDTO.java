@@ -0,0 +1,20 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.Duration;
+
+// Sessions of the whole site (path is null) or of the sessions entering on a page
+public record SessionMetricsDTO(String path, long sessions, long bounces, long pageViews, long durationSeconds) {
+
+    // Percentage of sessions with a single page view
+    public double bounceRate() {
+        return sessions == 0 ? 0 : 100.0 * bounces / sessions;
+    }
+
+    public double pagesPerSession() {
+        return sessions == 0 ? 0 : (double) pageViews / sessions;
+    }
+
+    public Duration averageDuration() {
+        return Duration.ofSeconds(sessions == 0 ? 0 : durationSeconds / sessions);
+    }
+}
@@ -0,0 +1,53 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A ring of Space-Saving summaries, one per time slice, so expiring old views is just clearing a slice.
+class SlidingWindowTopK {
+    private final long sliceMillis;
+    private final SpaceSaving[] slices;
+    private final long[] sliceEpochs;
+
+    SlidingWindowTopK(Duration window, int sliceCount, int capacity) {
+        this.sliceMillis = Math.max(1, window.toMillis() / sliceCount);
+        this.slices = new SpaceSaving[sliceCount];
+        this.sliceEpochs = new long[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new SpaceSaving(capacity);
+            sliceEpochs[i] = -1;
+        }
+    }
+
+    void add(String key, long timestampMillis) {
+        long epoch = timestampMillis / sliceMillis;
+        int index = (int) (epoch % slices.length);
+        if (sliceEpochs[index] > epoch) {
+            // Older than the window that this slice now covers
+            return;
+        }
+        if (sliceEpochs[index] < epoch) {
+            slices[index].clear();
+            sliceEpochs[index] = epoch;
+        }
+        slices[index].add(key);
+    }
+
+    List<Map.Entry<String, Long>> top(int limit, long nowMillis) {
+        long oldestEpoch = nowMillis / sliceMillis - slices.length + 1;
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < slices.length; i++) {
+            if (sliceEpochs[i] >= oldestEpoch) {
+                slices[i].addCountsTo(counts);
+            }
+        }
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,129 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Space-Saving heavy hitters: keeps at most `capacity` counters and hands the smallest one over to a new key,
+// so a key's count may be overestimated by at most the evicted count.
+// Counters live in a stream-summary: buckets of equal counts kept in ascending order, so both an increment and
+// finding the smallest counter are O(1).
+class SpaceSaving {
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private Bucket minBucket;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    void add(String key) {
+        var counter = counters.get(key);
+        if (counter != null) {
+            increment(counter);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter(key);
+            counters.put(key, counter);
+            if (minBucket == null || minBucket.count != 1) {
+                var bucket = new Bucket(1);
+                bucket.next = minBucket;
+                if (minBucket != null) {
+                    minBucket.prev = bucket;
+                }
+                minBucket = bucket;
+            }
+            minBucket.attach(counter);
+            return;
+        }
+        counter = minBucket.first;
+        counters.remove(counter.key);
+        counter.key = key;
+        counters.put(key, counter);
+        increment(counter);
+    }
+
+    private void increment(Counter counter) {
+        var bucket = counter.bucket;
+        long count = bucket.count + 1;
+        var next = bucket.next;
+        if (next == null || next.count != count) {
+            next = new Bucket(count);
+            next.prev = bucket;
+            next.next = bucket.next;
+            if (bucket.next != null) {
+                bucket.next.prev = next;
+            }
+            bucket.next = next;
+        }
+        bucket.detach(counter);
+        next.attach(counter);
+        if (bucket.first == null) {
+            unlink(bucket);
+        }
+    }
+
+    private void unlink(Bucket bucket) {
+        if (bucket.prev != null) {
+            bucket.prev.next = bucket.next;
+        } else {
+            minBucket = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.prev = bucket.prev;
+        }
+    }
+
+    void addCountsTo(Map<String, Long> target) {
+        counters.forEach((key, counter) -> target.merge(key, counter.bucket.count, Long::sum));
+    }
+
+    void clear() {
+        counters.clear();
+        minBucket = null;
+    }
+
+    private static final class Bucket {
+        private final long count;
+        private Bucket prev;
+        private Bucket next;
+        private Counter first;
+
+        private Bucket(long count) {
+            this.count = count;
+        }
+
+        private void attach(Counter counter) {
+            counter.bucket = this;
+            counter.prev = null;
+            counter.next = first;
+            if (first != null) {
+                first.prev = counter;
+            }
+            first = counter;
+        }
+
+        private void detach(Counter counter) {
+            if (counter.prev != null) {
+                counter.prev.next = counter.next;
+            } else {
+                first = counter.next;
+            }
+            if (counter.next != null) {
+                counter.next.prev = counter.prev;
+            }
+        }
+    }
+
+    private static final class Counter {
+        private String key;
+        private Bucket bucket;
+        private Counter prev;
+        private Counter next;
+
+        private Counter(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.LocalDateTime;
+
+public record SummaryIncrement(
+        String path,
+        long views,
+        long viewsToday,
+        long viewsThisWeek,
+        long viewsThisMonth,
+        LocalDateTime lastViewedAt) {}
@@ -0,0 +1,5 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.Duration;
+
+public record SummaryRefreshResult(int rowsUpdated, Duration duration) {}
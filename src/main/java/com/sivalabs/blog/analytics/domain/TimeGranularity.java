@@ -0,0 +1,28 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum TimeGranularity {
+    HOUR,
+    DAY,
+    WEEK;
+
+    // Start of the bucket the time falls in, weeks start on Monday like ReportingPeriods
+    public LocalDateTime truncate(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> time.toLocalDate().with(DayOfWeek.MONDAY).atStartOfDay();
+        };
+    }
+
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return switch (this) {
+            case HOUR -> bucketStart.plusHours(1);
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+        };
+    }
+}
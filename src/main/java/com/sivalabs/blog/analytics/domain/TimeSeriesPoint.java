@@ -0,0 +1,5 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.LocalDateTime;
+
+public record TimeSeriesPoint(LocalDateTime start, long views, long uniqueVisitors) {}
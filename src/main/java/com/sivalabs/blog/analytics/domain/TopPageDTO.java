@@ -11,6 +11,10 @@ public record TopPageDTO(String path, Long views, String title) {
             return "Unknown";
         }
 
+        if (PagePathCanonicalizer.UNKNOWN_PATH.equals(path)) {
+            return "Unknown Pages";
+        }
+
         if ("/posts".equals(path) || "/".equals(path)) {
             return "Blog Home";
         }
@@ -0,0 +1,46 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TrendingPagesTracker {
+    private static final int SLICES_PER_WINDOW = 15;
+
+    private final Map<TrendingWindow, SlidingWindowTopK> windows = new EnumMap<>(TrendingWindow.class);
+    private final ZoneId zone;
+
+    public TrendingPagesTracker(ApplicationProperties properties) {
+        int capacity = properties.analytics().trendingCapacity();
+        this.zone = properties.analytics().timeZone();
+        for (var window : TrendingWindow.values()) {
+            windows.put(window, new SlidingWindowTopK(window.duration(), SLICES_PER_WINDOW, capacity));
+        }
+    }
+
+    public synchronized void record(List<PageViewEvent> events) {
+        var now = LocalDateTime.now(zone);
+        for (var event : events) {
+            var viewedAt = toEpochMillis(event.timestamp() != null ? event.timestamp() : now);
+            for (var window : windows.values()) {
+                window.add(event.path(), viewedAt);
+            }
+        }
+    }
+
+    public synchronized List<TopPageDTO> getTrendingPages(TrendingWindow window, int limit) {
+        return windows.get(window).top(limit, toEpochMillis(LocalDateTime.now(zone))).stream()
+                .map(entry -> new TopPageDTO(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,19 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.Duration;
+
+public enum TrendingWindow {
+    LAST_15_MINUTES(Duration.ofMinutes(15)),
+    LAST_HOUR(Duration.ofHours(1)),
+    LAST_24_HOURS(Duration.ofHours(24));
+
+    private final Duration duration;
+
+    TrendingWindow(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration duration() {
+        return duration;
+    }
+}
@@ -0,0 +1,3 @@
+package com.sivalabs.blog.analytics.domain;
+
+public record UniqueVisitorCounts(long today, long thisWeek, long thisMonth, long allTime) {}
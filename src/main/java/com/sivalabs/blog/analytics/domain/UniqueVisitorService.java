@@ -0,0 +1,211 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.domain.UniqueVisitorSketchRepository.DailySketchKey;
+import com.sivalabs.blog.analytics.domain.UniqueVisitorSketchRepository.SummarySketches;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+@Transactional
+public class UniqueVisitorService {
+    private static final Logger logger = LoggerFactory.getLogger(UniqueVisitorService.class);
+    private static final int REFRESH_BATCH_SIZE = 500;
+
+    private final UniqueVisitorSketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int precision;
+    private final ZoneId zone;
+
+    public UniqueVisitorService(
+            UniqueVisitorSketchRepository sketchRepository,
+            PlatformTransactionManager transactionManager,
+            ApplicationProperties properties) {
+        this.sketchRepository = sketchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.precision = properties.analytics().hllPrecision();
+        this.zone = properties.analytics().timeZone();
+    }
+
+    public void record(List<PageViewEvent> events) {
+        var periods = ReportingPeriods.current(zone);
+        Map<DailySketchKey, HyperLogLog> dailySketches = new LinkedHashMap<>();
+        Map<String, SummarySketches> summarySketches = new LinkedHashMap<>();
+
+        for (var event : events) {
+            if (event.sessionId() == null) {
+                continue;
+            }
+            var path = StringUtils.truncate(event.path(), 500);
+            var viewedAt = event.timestamp() != null ? event.timestamp() : periods.now();
+            dailySketches
+                    .computeIfAbsent(new DailySketchKey(path, viewedAt.toLocalDate()), key -> newSketch())
+                    .add(event.sessionId());
+            var sketches = summarySketches.computeIfAbsent(
+                    path, p -> new SummarySketches(p, newSketch(), newSketch(), newSketch(), null));
+            sketches.allTime().add(event.sessionId());
+            if (periods.isThisWeek(viewedAt)) {
+                sketches.week().add(event.sessionId());
+            }
+            if (periods.isThisMonth(viewedAt)) {
+                sketches.month().add(event.sessionId());
+            }
+        }
+        if (dailySketches.isEmpty()) {
+            return;
+        }
+
+        var storedDailySketches = sketchRepository.lockDailySketches(dailySketches.keySet());
+        dailySketches.replaceAll((key, sketch) -> merge(storedDailySketches.get(key), sketch));
+        sketchRepository.updateDailySketches(dailySketches);
+
+        var storedSummarySketches = sketchRepository.lockSummarySketches(summarySketches.keySet());
+        var updates = new ArrayList<SummarySketches>();
+        summarySketches.forEach((path, batch) -> {
+            var stored = storedSummarySketches.get(path);
+            if (stored == null) {
+                return;
+            }
+            var today = dailySketches.get(new DailySketchKey(path, periods.today()));
+            updates.add(new SummarySketches(
+                    path,
+                    merge(stored.allTime(), batch.allTime()),
+                    merge(stored.week(), batch.week()),
+                    merge(stored.month(), batch.month()),
+                    today));
+        });
+        sketchRepository.updateSummarySketches(updates);
+    }
+
+    // All-time visitors come from the summary sketch, only the daily sketches of the current periods are merged
+    @Transactional(readOnly = true)
+    public UniqueVisitorCounts estimate(String path) {
+        var periods = ReportingPeriods.current(zone);
+        var dailySketches = sketchRepository.findDailySketches(path, periods.earliestStart().toLocalDate());
+        var today = newSketch();
+        var week = newSketch();
+        var month = newSketch();
+        var allTime = merge(newSketch(), sketchRepository.findAllTimeSketch(path));
+        for (var entry : dailySketches.entrySet()) {
+            var dayStart = entry.getKey().atStartOfDay();
+            if (periods.isToday(dayStart)) {
+                today = today.merge(entry.getValue());
+            }
+            if (periods.isThisWeek(dayStart)) {
+                week = week.merge(entry.getValue());
+            }
+            if (periods.isThisMonth(dayStart)) {
+                month = month.merge(entry.getValue());
+            }
+            allTime = allTime.merge(entry.getValue());
+        }
+        return new UniqueVisitorCounts(
+                today.cardinality(), week.cardinality(), month.cardinality(), allTime.cardinality());
+    }
+
+    // Runs a transaction per backfilled path and per batch of refreshed summaries, so the flusher's sketch
+    // updates only ever wait for one batch
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void refreshAll() {
+        for (var path : sketchRepository.findPathsPendingBackfill()) {
+            transactionTemplate.executeWithoutResult(status -> backfillHistoricalVisitors(path));
+        }
+
+        var periods = ReportingPeriods.current(zone);
+        var fromDay = periods.earliestStart().toLocalDate();
+        var paths = sketchRepository.findPathsWithRecentSketches(fromDay);
+        for (int from = 0; from < paths.size(); from += REFRESH_BATCH_SIZE) {
+            var batch = paths.subList(from, Math.min(from + REFRESH_BATCH_SIZE, paths.size()));
+            transactionTemplate.executeWithoutResult(status -> refreshRecentSketches(batch, periods));
+        }
+        logger.info("Refreshed recent unique visitor counts of {} pages", paths.size());
+    }
+
+    private void refreshRecentSketches(List<String> paths, ReportingPeriods periods) {
+        sketchRepository.lockSummarySketches(paths);
+        Map<String, RecentSketches> recent = new LinkedHashMap<>();
+        paths.forEach(path -> recent.put(path, new RecentSketches(path)));
+        for (var dailySketch : sketchRepository.findDailySketches(paths, periods.earliestStart().toLocalDate())) {
+            recent.get(dailySketch.path()).add(periods, dailySketch.day(), dailySketch.sketch());
+        }
+        sketchRepository.updateRecentSketches(recent.values().stream()
+                .map(RecentSketches::toSummarySketches)
+                .toList());
+    }
+
+    private void backfillHistoricalVisitors(String path) {
+        var allTime = newSketch();
+        Map<DailySketchKey, HyperLogLog> dailySketches = new HashMap<>();
+        sketchRepository.forEachVisit(path, visit -> {
+            allTime.add(visit.sessionId());
+            dailySketches
+                    .computeIfAbsent(new DailySketchKey(path, visit.day()), key -> newSketch())
+                    .add(visit.sessionId());
+        });
+
+        if (!dailySketches.isEmpty()) {
+            var storedDailySketches = sketchRepository.lockDailySketches(dailySketches.keySet());
+            dailySketches.replaceAll((key, sketch) -> merge(storedDailySketches.get(key), sketch));
+            sketchRepository.updateDailySketches(dailySketches);
+        }
+        var stored = sketchRepository.lockSummarySketches(List.of(path)).get(path);
+        if (stored != null) {
+            sketchRepository.updateAllTimeSketch(path, merge(stored.allTime(), allTime));
+        }
+        sketchRepository.markBackfilled(path);
+        logger.info("Backfilled unique visitor sketches for path: {}", path);
+    }
+
+    private HyperLogLog newSketch() {
+        return new HyperLogLog(precision);
+    }
+
+    private static HyperLogLog merge(HyperLogLog stored, HyperLogLog update) {
+        if (stored == null) {
+            return update;
+        }
+        return update == null ? stored : stored.merge(update);
+    }
+
+    private static final class RecentSketches {
+        private final String path;
+        private HyperLogLog today;
+        private HyperLogLog week;
+        private HyperLogLog month;
+
+        private RecentSketches(String path) {
+            this.path = path;
+        }
+
+        private void add(ReportingPeriods periods, LocalDate day, HyperLogLog sketch) {
+            var dayStart = day.atStartOfDay();
+            if (periods.isToday(dayStart)) {
+                today = merge(today, sketch.copy());
+            }
+            if (periods.isThisWeek(dayStart)) {
+                week = merge(week, sketch.copy());
+            }
+            if (periods.isThisMonth(dayStart)) {
+                month = merge(month, sketch.copy());
+            }
+        }
+
+        private SummarySketches toSummarySketches() {
+            return new SummarySketches(path, null, week, month, today);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class UniqueVisitorSketchRepository {
+    private static final int VISIT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UniqueVisitorSketchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Map<DailySketchKey, HyperLogLog> lockDailySketches(Collection<DailySketchKey> keys) {
+        var keyList = List.copyOf(keys);
+        jdbcTemplate.batchUpdate(
+                "insert into page_views_daily(path, day) values (?, ?) on conflict do nothing",
+                keyList,
+                keyList.size(),
+                (ps, key) -> {
+                    ps.setString(1, key.path());
+                    ps.setObject(2, key.day());
+                });
+
+        var paths = keyList.stream().map(DailySketchKey::path).toArray();
+        var days = keyList.stream().map(key -> Date.valueOf(key.day())).toArray();
+        Map<DailySketchKey, HyperLogLog> sketches = new HashMap<>();
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            """
+                            select path, day, uniques_sketch from page_views_daily
+                            where (path, day) in (select * from unnest(?::varchar[], ?::date[]))
+                            order by path, day
+                            for update
+                            """);
+                    ps.setArray(1, con.createArrayOf("varchar", paths));
+                    ps.setArray(2, con.createArrayOf("date", days));
+                    return ps;
+                },
+                rs -> {
+                    var sketch = readSketch(rs, "uniques_sketch");
+                    if (sketch != null) {
+                        var key = new DailySketchKey(rs.getString("path"), rs.getObject("day", LocalDate.class));
+                        sketches.put(key, sketch);
+                    }
+                });
+        return sketches;
+    }
+
+    public void updateDailySketches(Map<DailySketchKey, HyperLogLog> sketches) {
+        var entries = new ArrayList<>(sketches.entrySet());
+        jdbcTemplate.batchUpdate(
+                "update page_views_daily set uniques_sketch = ? where path = ? and day = ?",
+                entries,
+                entries.size(),
+                (ps, entry) -> {
+                    ps.setBytes(1, entry.getValue().toBytes());
+                    ps.setString(2, entry.getKey().path());
+                    ps.setObject(3, entry.getKey().day());
+                });
+    }
+
+    public Map<String, SummarySketches> lockSummarySketches(Collection<String> paths) {
+        // View counts reach the summary asynchronously, so the row may not exist yet for a new page
+        jdbcTemplate.update(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            """
+                            insert into page_analytics_summary(path)
+                            select unnest(?::varchar[]) order by 1
+                            on conflict (path) do nothing
+                            """);
+                    ps.setArray(1, con.createArrayOf("varchar", paths.toArray()));
+                    return ps;
+                });
+        Map<String, SummarySketches> sketches = new HashMap<>();
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            """
+                            select path, unique_visitors_sketch, unique_visitors_week_sketch,
+                                   unique_visitors_month_sketch
+                            from page_analytics_summary
+                            where path = any(?)
+                            order by path
+                            for update
+                            """);
+                    ps.setArray(1, con.createArrayOf("varchar", paths.toArray()));
+                    return ps;
+                },
+                rs -> {
+                    var path = rs.getString("path");
+                    sketches.put(
+                            path,
+                            new SummarySketches(
+                                    path,
+                                    readSketch(rs, "unique_visitors_sketch"),
+                                    readSketch(rs, "unique_visitors_week_sketch"),
+                                    readSketch(rs, "unique_visitors_month_sketch"),
+                                    null));
+                });
+        return sketches;
+    }
+
+    public void updateSummarySketches(List<SummarySketches> sketches) {
+        jdbcTemplate.batchUpdate(
+                """
+                update page_analytics_summary set
+                    unique_visitors_sketch       = ?,
+                    unique_visitors_week_sketch  = ?,
+                    unique_visitors_month_sketch = ?,
+                    unique_visitors_total        = ?,
+                    unique_visitors_this_week    = ?,
+                    unique_visitors_this_month   = ?,
+                    unique_visitors_today        = ?
+                where path = ?
+                """,
+                sketches,
+                sketches.size(),
+                (ps, s) -> {
+                    ps.setBytes(1, toBytes(s.allTime()));
+                    ps.setBytes(2, toBytes(s.week()));
+                    ps.setBytes(3, toBytes(s.month()));
+                    ps.setLong(4, cardinality(s.allTime()));
+                    ps.setLong(5, cardinality(s.week()));
+                    ps.setLong(6, cardinality(s.month()));
+                    ps.setLong(7, cardinality(s.today()));
+                    ps.setString(8, s.path());
+                });
+    }
+
+    public void updateAllTimeSketch(String path, HyperLogLog sketch) {
+        jdbcTemplate.update(
+                """
+                update page_analytics_summary
+                set unique_visitors_sketch = ?, unique_visitors_total = ?
+                where path = ?
+                """,
+                sketch.toBytes(),
+                sketch.cardinality(),
+                path);
+    }
+
+    public void updateRecentSketches(List<SummarySketches> sketches) {
+        jdbcTemplate.batchUpdate(
+                """
+                update page_analytics_summary set
+                    unique_visitors_week_sketch  = ?,
+                    unique_visitors_month_sketch = ?,
+                    unique_visitors_this_week    = ?,
+                    unique_visitors_this_month   = ?,
+                    unique_visitors_today        = ?
+                where path = ?
+                """,
+                sketches,
+                sketches.size(),
+                (ps, s) -> {
+                    ps.setBytes(1, toBytes(s.week()));
+                    ps.setBytes(2, toBytes(s.month()));
+                    ps.setLong(3, cardinality(s.week()));
+                    ps.setLong(4, cardinality(s.month()));
+                    ps.setLong(5, cardinality(s.today()));
+                    ps.setString(6, s.path());
+                });
+    }
+
+    public Map<LocalDate, HyperLogLog> findDailySketches(String path, LocalDate fromDay) {
+        Map<LocalDate, HyperLogLog> sketches = new HashMap<>();
+        jdbcTemplate.query(
+                "select day, uniques_sketch from page_views_daily where path = ? and day >= ?",
+                rs -> {
+                    var sketch = readSketch(rs, "uniques_sketch");
+                    if (sketch != null) {
+                        sketches.put(rs.getObject("day", LocalDate.class), sketch);
+                    }
+                },
+                path,
+                fromDay);
+        return sketches;
+    }
+
+    public List<DailySketch> findDailySketches(List<String> paths, LocalDate fromDay) {
+        return jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            """
+                            select path, day, uniques_sketch from page_views_daily
+                            where path = any(?) and day >= ? and uniques_sketch is not null
+                            """);
+                    ps.setArray(1, con.createArrayOf("varchar", paths.toArray()));
+                    ps.setObject(2, fromDay);
+                    return ps;
+                },
+                (rs, rowNum) -> new DailySketch(
+                        rs.getString("path"), rs.getObject("day", LocalDate.class), readSketch(rs, "uniques_sketch")));
+    }
+
+    public HyperLogLog findAllTimeSketch(String path) {
+        return jdbcTemplate
+                .query(
+                        "select unique_visitors_sketch from page_analytics_summary where path = ?",
+                        (rs, rowNum) -> readSketch(rs, "unique_visitors_sketch"),
+                        path)
+                .stream()
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Pages with visitors in the current periods, or with recent counts that have to be cleared
+    public List<String> findPathsWithRecentSketches(LocalDate fromDay) {
+        return jdbcTemplate.queryForList(
+                """
+                select path from page_views_daily where day >= ? and uniques_sketch is not null
+                union
+                select path from page_analytics_summary
+                where unique_visitors_week_sketch is not null or unique_visitors_month_sketch is not null
+                   or unique_visitors_today > 0
+                order by path
+                """,
+                String.class,
+                fromDay);
+    }
+
+    public List<String> findPathsPendingBackfill() {
+        return jdbcTemplate.queryForList("select path from unique_visitor_backfill order by path", String.class);
+    }
+
+    // Fetched through a cursor of the caller's transaction
+    public void forEachVisit(String path, Consumer<Visit> consumer) {
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            """
+                            select session_id, created_at from page_views
+                            where path_id = (select id from page_view_paths where path = ?) and session_id is not null
+                            """,
+                            ResultSet.TYPE_FORWARD_ONLY,
+                            ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(VISIT_FETCH_SIZE);
+                    ps.setString(1, path);
+                    return ps;
+                },
+                rs -> {
+                    consumer.accept(new Visit(
+                            rs.getString("session_id"),
+                            rs.getTimestamp("created_at").toLocalDateTime().toLocalDate()));
+                });
+    }
+
+    public void markBackfilled(String path) {
+        jdbcTemplate.update("delete from unique_visitor_backfill where path = ?", path);
+    }
+
+    private static HyperLogLog readSketch(ResultSet rs, String column) throws SQLException {
+        var bytes = rs.getBytes(column);
+        return bytes != null ? HyperLogLog.fromBytes(bytes) : null;
+    }
+
+    private static byte[] toBytes(HyperLogLog sketch) {
+        return sketch != null ? sketch.toBytes() : null;
+    }
+
+    private static long cardinality(HyperLogLog sketch) {
+        return sketch != null ? sketch.cardinality() : 0L;
+    }
+
+    public record DailySketchKey(String path, LocalDate day) {}
+
+    public record DailySketch(String path, LocalDate day, HyperLogLog sketch) {}
+
+    public record SummarySketches(
+            String path, HyperLogLog allTime, HyperLogLog week, HyperLogLog month, HyperLogLog today) {}
+
+    public record Visit(String sessionId, LocalDate day) {}
+}
@@ -0,0 +1,13 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// A closed visit: the pages it entered and left on, when it started and ended, and how many pages were viewed
+public record VisitSession(
+        String entryPath, String exitPath, LocalDateTime startedAt, LocalDateTime endedAt, int pageViews) {
+
+    public Duration duration() {
+        return Duration.between(startedAt, endedAt);
+    }
+}
@@ -0,0 +1,100 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class VisitSessionJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public VisitSessionJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<VisitSessionRow> sessions) {
+        jdbcTemplate.batchUpdate(
+                """
+                insert into visit_sessions(
+                    started_at, ended_at, entry_path_id, exit_path_id, page_views, duration_seconds)
+                values (?, ?, ?, ?, ?, ?)
+                """,
+                sessions,
+                sessions.size(),
+                (ps, session) -> {
+                    ps.setObject(1, session.startedAt());
+                    ps.setObject(2, session.endedAt());
+                    ps.setInt(3, session.entryPathId());
+                    ps.setInt(4, session.exitPathId());
+                    ps.setInt(5, session.pageViews());
+                    ps.setInt(6, session.durationSeconds());
+                });
+    }
+
+    public SessionMetricsDTO findSessionMetrics(LocalDateTime since) {
+        return jdbcTemplate.queryForObject(
+                """
+                select null as path, count(*) as sessions, count(*) filter (where page_views = 1) as bounces,
+                       coalesce(sum(page_views), 0) as page_views,
+                       coalesce(sum(duration_seconds), 0) as duration_seconds
+                from visit_sessions
+                where started_at >= ?
+                """,
+                (rs, rowNum) -> toSessionMetrics(rs),
+                since);
+    }
+
+    public SessionMetricsDTO findSessionMetrics(String path, LocalDateTime since) {
+        return jdbcTemplate.queryForObject(
+                """
+                select ? as path, count(*) as sessions, count(*) filter (where s.page_views = 1) as bounces,
+                       coalesce(sum(s.page_views), 0) as page_views,
+                       coalesce(sum(s.duration_seconds), 0) as duration_seconds
+                from visit_sessions s
+                join page_view_paths p on p.id = s.entry_path_id
+                where p.path = ? and s.started_at >= ?
+                """,
+                (rs, rowNum) -> toSessionMetrics(rs),
+                path,
+                path,
+                since);
+    }
+
+    // Entry pages with the most sessions
+    public List<SessionMetricsDTO> findLandingPages(LocalDateTime since, int limit) {
+        return jdbcTemplate.query(
+                """
+                select p.path, count(*) as sessions, count(*) filter (where s.page_views = 1) as bounces,
+                       sum(s.page_views) as page_views, sum(s.duration_seconds) as duration_seconds
+                from visit_sessions s
+                join page_view_paths p on p.id = s.entry_path_id
+                where s.started_at >= ?
+                group by p.path
+                order by sessions desc, p.path
+                limit ?
+                """,
+                (rs, rowNum) -> toSessionMetrics(rs),
+                since,
+                limit);
+    }
+
+    private static SessionMetricsDTO toSessionMetrics(ResultSet rs) throws SQLException {
+        return new SessionMetricsDTO(
+                rs.getString("path"),
+                rs.getLong("sessions"),
+                rs.getLong("bounces"),
+                rs.getLong("page_views"),
+                rs.getLong("duration_seconds"));
+    }
+
+    public record VisitSessionRow(
+            LocalDateTime startedAt,
+            LocalDateTime endedAt,
+            int entryPathId,
+            int exitPathId,
+            int pageViews,
+            int durationSeconds) {}
+}
@@ -0,0 +1,87 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.domain.VisitSessionJdbcRepository.VisitSessionRow;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Writes the sessions closed by the VisitSessionizer and reports bounce rate, pages per session and time on site
+@Service
+@Transactional
+public class VisitSessionService {
+    private static final Logger logger = LoggerFactory.getLogger(VisitSessionService.class);
+
+    private final VisitSessionJdbcRepository visitSessionRepository;
+    private final VisitSessionizer sessionizer;
+    private final PageViewDictionaries dictionaries;
+    private final ZoneId zone;
+
+    public VisitSessionService(
+            VisitSessionJdbcRepository visitSessionRepository,
+            VisitSessionizer sessionizer,
+            PageViewDictionaries dictionaries,
+            ApplicationProperties properties) {
+        this.visitSessionRepository = visitSessionRepository;
+        this.sessionizer = sessionizer;
+        this.dictionaries = dictionaries;
+        this.zone = properties.analytics().timeZone();
+    }
+
+    public void flushClosedSessions() {
+        sessionizer.flush(this::write);
+    }
+
+    public void flushAllSessions() {
+        sessionizer.flushAll(this::write);
+    }
+
+    private void write(List<VisitSession> sessions) {
+        Set<String> paths = new HashSet<>();
+        for (var session : sessions) {
+            paths.add(session.entryPath());
+            paths.add(session.exitPath());
+        }
+        var pathIds = dictionaries.resolveIds(PageViewDictionary.PATHS, paths);
+        List<VisitSessionRow> rows = new ArrayList<>(sessions.size());
+        for (var session : sessions) {
+            rows.add(new VisitSessionRow(
+                    session.startedAt(),
+                    session.endedAt(),
+                    pathIds.get(session.entryPath()),
+                    pathIds.get(session.exitPath()),
+                    session.pageViews(),
+                    (int) Math.min(session.duration().toSeconds(), Integer.MAX_VALUE)));
+        }
+        visitSessionRepository.insertAll(rows);
+        logger.debug("Recorded {} visit sessions", rows.size());
+    }
+
+    // Sessions started in the last `days` days, site-wide or entering on one page
+    @Transactional(readOnly = true)
+    public SessionMetricsDTO getSessionMetrics(int days) {
+        return visitSessionRepository.findSessionMetrics(since(days));
+    }
+
+    @Transactional(readOnly = true)
+    public SessionMetricsDTO getSessionMetrics(String path, int days) {
+        return visitSessionRepository.findSessionMetrics(path, since(days));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SessionMetricsDTO> getLandingPages(int days, int limit) {
+        return visitSessionRepository.findLandingPages(since(days), limit);
+    }
+
+    private LocalDateTime since(int days) {
+        return LocalDate.now(zone).minusDays(days - 1).atStartOfDay();
+    }
+}
@@ -0,0 +1,157 @@
+package com.sivalabs.blog.analytics.domain;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Groups page views into visit sessions as they are flushed, so session metrics don't need self-joins of page_views.
+// Open sessions are kept in order of their last view and close after the inactivity timeout. Only closed sessions
+// are written, as compact VisitSession records, and they stay pending until the writer succeeds.
+@Component
+public class VisitSessionizer {
+    private static final Logger logger = LoggerFactory.getLogger(VisitSessionizer.class);
+
+    // Keyed by the visitor hash, least recently active first
+    private final LinkedHashMap<Long, OpenSession> openSessions = new LinkedHashMap<>();
+    private final List<VisitSession> closedSessions = new ArrayList<>();
+    private final Duration timeout;
+    private final int capacity;
+    private final Clock clock;
+    private long droppedSessions;
+
+    @Autowired
+    public VisitSessionizer(ApplicationProperties properties) {
+        this(
+                properties.analytics().sessionTimeout(),
+                properties.analytics().sessionCapacity(),
+                Clock.system(properties.analytics().timeZone()));
+    }
+
+    // Event timestamps are local date-times in the zone of the clock
+    VisitSessionizer(Duration timeout, int capacity, Clock clock) {
+        this.timeout = timeout;
+        this.capacity = capacity;
+        this.clock = clock;
+    }
+
+    public synchronized void record(List<PageViewEvent> events) {
+        var now = LocalDateTime.now(clock);
+        for (var event : events) {
+            var visitor = event.sessionId() != null ? event.sessionId() : event.ipAddress();
+            var path = PageViewDictionary.PATHS.normalize(event.path());
+            if (visitor == null || path == null) {
+                continue;
+            }
+            var viewedAt = event.timestamp() != null ? event.timestamp() : now;
+            see(HyperLogLog.hash64(visitor), path, viewedAt);
+        }
+    }
+
+    // Closes the sessions that timed out and hands all closed sessions to the writer
+    public synchronized void flush(Consumer<List<VisitSession>> writer) {
+        closeInactive(LocalDateTime.now(clock).minus(timeout));
+        write(writer);
+    }
+
+    // Closes every open session, e.g. on shutdown, so sessions spanning a restart are counted as two
+    public synchronized void flushAll(Consumer<List<VisitSession>> writer) {
+        openSessions.values().forEach(this::close);
+        openSessions.clear();
+        write(writer);
+    }
+
+    synchronized int openSessionCount() {
+        return openSessions.size();
+    }
+
+    private void see(long visitor, String path, LocalDateTime viewedAt) {
+        var session = openSessions.get(visitor);
+        if (session != null && viewedAt.isAfter(session.lastViewedAt.plus(timeout))) {
+            openSessions.remove(visitor);
+            close(session);
+            session = null;
+        }
+        if (session == null) {
+            if (openSessions.size() >= capacity) {
+                var eldest = openSessions.entrySet().iterator();
+                close(eldest.next().getValue());
+                eldest.remove();
+            }
+            openSessions.put(visitor, new OpenSession(path, viewedAt));
+            return;
+        }
+        session.pageViews++;
+        // Views of a replayed batch can arrive out of order
+        if (viewedAt.isBefore(session.startedAt)) {
+            session.startedAt = viewedAt;
+            session.entryPath = path;
+        } else if (!viewedAt.isBefore(session.lastViewedAt)) {
+            session.lastViewedAt = viewedAt;
+            session.exitPath = path;
+            openSessions.remove(visitor);
+            openSessions.put(visitor, session);
+        }
+    }
+
+    // Sessions are ordered by when they were last extended, which follows their last view for live traffic
+    private void closeInactive(LocalDateTime lastViewedBefore) {
+        Iterator<Map.Entry<Long, OpenSession>> iterator = openSessions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var session = iterator.next().getValue();
+            if (!session.lastViewedAt.isBefore(lastViewedBefore)) {
+                break;
+            }
+            close(session);
+            iterator.remove();
+        }
+    }
+
+    private void close(OpenSession session) {
+        // While the database is unavailable, the oldest closed sessions are dropped beyond the capacity
+        if (closedSessions.size() >= capacity) {
+            closedSessions.removeFirst();
+            droppedSessions++;
+        }
+        closedSessions.add(new VisitSession(
+                session.entryPath, session.exitPath, session.startedAt, session.lastViewedAt, session.pageViews));
+    }
+
+    private void write(Consumer<List<VisitSession>> writer) {
+        if (droppedSessions > 0) {
+            logger.warn("Dropped {} closed visit sessions that could not be written", droppedSessions);
+            droppedSessions = 0;
+        }
+        if (closedSessions.isEmpty()) {
+            return;
+        }
+        writer.accept(List.copyOf(closedSessions));
+        closedSessions.clear();
+    }
+
+    private static final class OpenSession {
+        private String entryPath;
+        private String exitPath;
+        private LocalDateTime startedAt;
+        private LocalDateTime lastViewedAt;
+        private int pageViews = 1;
+
+        private OpenSession(String path, LocalDateTime viewedAt) {
+            this.entryPath = path;
+            this.exitPath = path;
+            this.startedAt = viewedAt;
+            this.lastViewedAt = viewedAt;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.sivalabs.blog.analytics.events;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class DiscardingPageViewSpill implements PageViewSpill {
+    private final LongAdder discarded = new LongAdder();
+
+    @Override
+    public void spill(List<PageViewEvent> events) {
+        discarded.add(events.size());
+    }
+
+    @Override
+    public boolean hasPending() {
+        return false;
+    }
+
+    @Override
+    public void replay(int batchSize, Consumer<List<PageViewEvent>> consumer) {}
+
+    public long discardedCount() {
+        return discarded.sum();
+    }
+}
@@ -0,0 +1,194 @@
+package com.sivalabs.blog.analytics.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Appends spilled page views as JSON lines to files in a local directory, files are rolled over on every replay
+public class FilePageViewSpill implements PageViewSpill {
+    private static final Logger logger = LoggerFactory.getLogger(FilePageViewSpill.class);
+    private static final String FILE_PREFIX = "page-views-";
+    private static final String FILE_SUFFIX = ".ndjson";
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong spilledBytes = new AtomicLong();
+    private final LongAdder discarded = new LongAdder();
+    private long fileSequence;
+    private BufferedWriter writer;
+
+    public FilePageViewSpill(Path directory, long maxSizeBytes, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+            spilledBytes.set(spillFiles().stream().mapToLong(FilePageViewSpill::sizeOf).sum());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open page view spill directory " + directory, e);
+        }
+        if (spilledBytes.get() > 0) {
+            logger.info("Found {} bytes of spilled page views in {} to replay", spilledBytes.get(), directory);
+        }
+    }
+
+    @Override
+    public synchronized void spill(List<PageViewEvent> events) {
+        try {
+            var lines = new StringBuilder();
+            for (var event : events) {
+                lines.append(objectMapper.writeValueAsString(event)).append('\n');
+            }
+            var bytes = lines.toString().getBytes(StandardCharsets.UTF_8).length;
+            if (spilledBytes.get() + bytes > maxSizeBytes) {
+                discarded.add(events.size());
+                logger.debug("Page view spill is full, discarded {} page views", events.size());
+                return;
+            }
+            if (writer == null) {
+                writer = Files.newBufferedWriter(nextFile(), StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW);
+            }
+            writer.write(lines.toString());
+            writer.flush();
+            spilledBytes.addAndGet(bytes);
+        } catch (IOException e) {
+            discarded.add(events.size());
+            logger.error("Failed to spill {} page views to {}", events.size(), directory, e);
+        }
+    }
+
+    @Override
+    public boolean hasPending() {
+        return spilledBytes.get() > 0;
+    }
+
+    @Override
+    public void replay(int batchSize, Consumer<List<PageViewEvent>> consumer) {
+        try {
+            var files = spillFiles();
+            if (files.isEmpty()) {
+                return;
+            }
+            var file = files.getFirst();
+            if (files.size() == 1) {
+                rollOver();
+            }
+            replayFile(file, batchSize, consumer);
+        } catch (IOException e) {
+            logger.error("Failed to replay spilled page views from {}", directory, e);
+        }
+    }
+
+    public long discardedCount() {
+        return discarded.sum();
+    }
+
+    // Streams the file in batches, so replaying does not hold a whole spill file of page views in memory
+    private void replayFile(Path file, int batchSize, Consumer<List<PageViewEvent>> consumer) throws IOException {
+        long size = sizeOf(file);
+        long replayed = 0;
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> lines = new ArrayList<>(batchSize);
+            while (readLines(reader, batchSize, lines) > 0) {
+                var batch = new ArrayList<PageViewEvent>(lines.size());
+                for (var line : lines) {
+                    readEvent(line, batch);
+                }
+                try {
+                    consumer.accept(batch);
+                } catch (RuntimeException e) {
+                    if (replayed > 0) {
+                        keepRemaining(file, size, lines, reader);
+                    }
+                    throw e;
+                }
+                replayed += lines.size();
+                lines.clear();
+            }
+        }
+        Files.delete(file);
+        spilledBytes.addAndGet(-size);
+        logger.info("Replayed {} spilled page views from {}", replayed, file.getFileName());
+    }
+
+    private static int readLines(BufferedReader reader, int maxLines, List<String> lines) throws IOException {
+        String line;
+        while (lines.size() < maxLines && (line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines.size();
+    }
+
+    // Keep only what was not written yet, so a later replay does not record page views twice
+    private void keepRemaining(Path file, long size, List<String> pending, BufferedReader rest) throws IOException {
+        var tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (var line : pending) {
+                writer.write(line);
+                writer.write('\n');
+            }
+            rest.transferTo(writer);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        spilledBytes.addAndGet(sizeOf(file) - size);
+    }
+
+    private void readEvent(String line, List<PageViewEvent> batch) {
+        if (line.isBlank()) {
+            return;
+        }
+        try {
+            batch.add(objectMapper.readValue(line, PageViewEvent.class));
+        } catch (JsonProcessingException e) {
+            logger.warn("Skipping unreadable spilled page view: {}", e.getOriginalMessage());
+        }
+    }
+
+    private synchronized void rollOver() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private Path nextFile() {
+        return directory.resolve("%s%019d-%06d%s"
+                .formatted(FILE_PREFIX, System.currentTimeMillis(), fileSequence++ % 1_000_000, FILE_SUFFIX));
+    }
+
+    private List<Path> spillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        var name = file.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
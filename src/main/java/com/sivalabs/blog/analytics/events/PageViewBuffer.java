@@ -0,0 +1,44 @@
+package com.sivalabs.blog.analytics.events;
+
+import com.sivalabs.blog.ApplicationProperties;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PageViewBuffer {
+    private final BlockingQueue<PageViewEvent> queue;
+    private final LongAdder dropped = new LongAdder();
+
+    public PageViewBuffer(ApplicationProperties properties) {
+        this.queue = new ArrayBlockingQueue<>(properties.analytics().bufferCapacity());
+    }
+
+    public boolean offer(PageViewEvent event) {
+        return queue.offer(event);
+    }
+
+    // Counts a page view that was neither buffered nor spilled
+    public void recordDrop() {
+        dropped.increment();
+    }
+
+    PageViewEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    int drainTo(Collection<PageViewEvent> target, int maxElements) {
+        return queue.drainTo(target, maxElements);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+}
@@ -6,6 +6,7 @@ public record PageViewEvent(
         String path,
         String title,
         String referer,
+        String host,
         String userAgent,
         String ipAddress,
         String sessionId,
@@ -20,6 +21,7 @@ public record PageViewEvent(
         private String path;
         private String title;
         private String referer;
+        private String host;
         private String userAgent;
         private String ipAddress;
         private String sessionId;
@@ -41,6 +43,12 @@ public record PageViewEvent(
             return this;
         }
 
+        // Host name the page was served on
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
         public Builder userAgent(String userAgent) {
             this.userAgent = userAgent;
             return this;
@@ -67,7 +75,7 @@ public record PageViewEvent(
         }
 
         public PageViewEvent build() {
-            return new PageViewEvent(path, title, referer, userAgent, ipAddress, sessionId, userId, timestamp);
+            return new PageViewEvent(path, title, referer, host, userAgent, ipAddress, sessionId, userId, timestamp);
         }
     }
 }
@@ -1,28 +1,51 @@
 package com.sivalabs.blog.analytics.events;
 
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.domain.PageViewCounters;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class PageViewEventPublisher {
     private static final Logger logger = LoggerFactory.getLogger(PageViewEventPublisher.class);
 
-    private final ApplicationEventPublisher eventPublisher;
+    private final PageViewBuffer buffer;
+    private final PageViewSpill spill;
+    private final PageViewSpillWriter spillWriter;
+    private final PageViewCounters counters;
+    private final ZoneId zone;
 
-    public PageViewEventPublisher(ApplicationEventPublisher eventPublisher) {
-        this.eventPublisher = eventPublisher;
+    public PageViewEventPublisher(
+            PageViewBuffer buffer,
+            PageViewSpill spill,
+            ObjectProvider<PageViewSpillWriter> spillWriter,
+            PageViewCounters counters,
+            ApplicationProperties properties) {
+        this.buffer = buffer;
+        this.spill = spill;
+        // Only file-spill delivery spills the page views that do not fit in the buffer
+        this.spillWriter = spillWriter.getIfAvailable();
+        this.counters = counters;
+        this.zone = properties.analytics().timeZone();
     }
 
-    @Transactional
     public void publishPageView(PageViewEvent event) {
-        try {
-            eventPublisher.publishEvent(event);
-            logger.debug("Published page view event for path: {}", event.path());
-        } catch (Exception e) {
-            logger.error("Failed to publish page view event for path: {}", event.path(), e);
+        counters.increment(event.path(), event.timestamp() != null ? event.timestamp() : LocalDateTime.now(zone));
+        if (spill.writesAhead()) {
+            spill.spill(List.of(event));
+            logger.debug("Logged page view event for path: {}", event.path());
+        } else if (buffer.offer(event)) {
+            logger.debug("Buffered page view event for path: {}", event.path());
+        } else if (spillWriter != null && spillWriter.offer(event)) {
+            logger.debug("Page view buffer is full, spilling event for path: {}", event.path());
+        } else {
+            buffer.recordDrop();
+            logger.debug("Page view buffer is full, dropped event for path: {}", event.path());
         }
     }
 }
@@ -0,0 +1,208 @@
+package com.sivalabs.blog.analytics.events;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.analytics.domain.ActiveReadersTracker;
+import com.sivalabs.blog.analytics.domain.PageViewService;
+import com.sivalabs.blog.analytics.domain.TrendingPagesTracker;
+import com.sivalabs.blog.analytics.domain.VisitSessionService;
+import com.sivalabs.blog.analytics.domain.VisitSessionizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PageViewFlusher implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(PageViewFlusher.class);
+    // Start before and stop after the embedded web server, so no tracked request is left in the buffer.
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long REPLAY_RETRY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final PageViewBuffer buffer;
+    private final PageViewSpill spill;
+    private final PageViewService pageViewService;
+    private final TrendingPagesTracker trendingPagesTracker;
+    private final ActiveReadersTracker activeReadersTracker;
+    private final VisitSessionizer sessionizer;
+    private final VisitSessionService visitSessionService;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private volatile boolean running;
+    private Thread worker;
+    private long reportedDrops;
+    private boolean databaseAvailable = true;
+    private long retryReplayAt;
+
+    public PageViewFlusher(
+            PageViewBuffer buffer,
+            PageViewSpill spill,
+            PageViewService pageViewService,
+            TrendingPagesTracker trendingPagesTracker,
+            ActiveReadersTracker activeReadersTracker,
+            VisitSessionizer sessionizer,
+            VisitSessionService visitSessionService,
+            ApplicationProperties properties) {
+        this.buffer = buffer;
+        this.spill = spill;
+        this.pageViewService = pageViewService;
+        this.trendingPagesTracker = trendingPagesTracker;
+        this.activeReadersTracker = activeReadersTracker;
+        this.sessionizer = sessionizer;
+        this.visitSessionService = visitSessionService;
+        this.batchSize = properties.analytics().batchSize();
+        this.flushIntervalNanos = properties.analytics().flushInterval().toNanos();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("page-view-flusher").daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void run() {
+        List<PageViewEvent> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (running) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0 && batch.size() < batchSize) {
+                try {
+                    var event = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (event != null) {
+                        batch.add(event);
+                        buffer.drainTo(batch, batchSize - batch.size());
+                    }
+                } catch (InterruptedException e) {
+                    break;
+                }
+                continue;
+            }
+            flush(batch);
+            spill.preallocate();
+            replaySpill();
+            deadline = System.nanoTime() + flushIntervalNanos;
+        }
+        drain(batch);
+    }
+
+    private void drain(List<PageViewEvent> batch) {
+        do {
+            buffer.drainTo(batch, batchSize - batch.size());
+            flush(batch);
+        } while (buffer.size() > 0);
+        if (spill.writesAhead()) {
+            // Whatever can't be written now stays in the log for the next start
+            databaseAvailable = true;
+            replaySpill();
+        }
+        try {
+            visitSessionService.flushAllSessions();
+        } catch (Exception e) {
+            logger.error("Failed to write open visit sessions", e);
+        }
+        logger.info("Drained page view buffer on shutdown");
+    }
+
+    private void flush(List<PageViewEvent> batch) {
+        reportDrops();
+        flushViewCounters();
+        flushVisitSessions();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            pageViewService.recordPageViews(batch);
+            databaseAvailable = true;
+            logger.debug("Flushed {} page views", batch.size());
+        } catch (Exception e) {
+            databaseAvailable = false;
+            logger.error("Failed to flush {} page views", batch.size(), e);
+            spill.spill(List.copyOf(batch));
+            batch.clear();
+            return;
+        }
+        trackInMemory(batch);
+        batch.clear();
+    }
+
+    private void recordAndTrack(List<PageViewEvent> batch) {
+        pageViewService.recordPageViews(batch);
+        trackInMemory(batch);
+    }
+
+    // Only page views that are written reach the trackers, so a batch that is retried is not counted twice
+    private void trackInMemory(List<PageViewEvent> batch) {
+        trendingPagesTracker.record(batch);
+        activeReadersTracker.record(batch);
+        sessionizer.record(batch);
+    }
+
+    private void flushViewCounters() {
+        try {
+            pageViewService.flushViewCounters();
+        } catch (Exception e) {
+            // The counters keep their deltas until they are written
+            logger.error("Failed to flush page view counters", e);
+        }
+    }
+
+    private void flushVisitSessions() {
+        try {
+            visitSessionService.flushClosedSessions();
+        } catch (Exception e) {
+            // Closed sessions stay pending until they are written
+            logger.error("Failed to write closed visit sessions", e);
+        }
+    }
+
+    // Spilled page views are written back only while the database accepts writes and the buffer is not under pressure.
+    // Without buffered page views to show that the database is back, the replay is retried every few seconds.
+    private void replaySpill() {
+        if (!databaseAvailable && System.nanoTime() - retryReplayAt < 0) {
+            return;
+        }
+        if (!spill.hasPending() || buffer.size() >= batchSize) {
+            return;
+        }
+        try {
+            spill.replay(batchSize, this::recordAndTrack);
+            databaseAvailable = true;
+        } catch (Exception e) {
+            databaseAvailable = false;
+            retryReplayAt = System.nanoTime() + REPLAY_RETRY_NANOS;
+            logger.error("Failed to replay spilled page views", e);
+        }
+    }
+
+    private void reportDrops() {
+        long drops = buffer.droppedCount();
+        if (drops > reportedDrops) {
+            logger.warn("Page view buffer is full, {} page views were dropped", drops - reportedDrops);
+            reportedDrops = drops;
+        }
+    }
+}
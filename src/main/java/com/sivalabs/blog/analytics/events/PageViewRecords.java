@@ -0,0 +1,108 @@
+package com.sivalabs.blog.analytics.events;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Compact binary form of a page view: version, presence flags, timestamp, user id and length prefixed UTF-8 strings.
+// Version 2 appended the host, version 1 records are still read.
+final class PageViewRecords {
+    private static final byte VERSION = 2;
+    private static final int HAS_TIMESTAMP = 1;
+    private static final int HAS_USER_ID = 2;
+
+    private PageViewRecords() {}
+
+    static byte[] encode(PageViewEvent event) {
+        var out = new ByteArrayOutputStream(128);
+        int flags = (event.timestamp() != null ? HAS_TIMESTAMP : 0) | (event.userId() != null ? HAS_USER_ID : 0);
+        out.write(VERSION);
+        out.write(flags);
+        if (event.timestamp() != null) {
+            writeLong(out, event.timestamp().toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(out, event.timestamp().getNano());
+        }
+        if (event.userId() != null) {
+            writeLong(out, event.userId());
+        }
+        writeString(out, event.path());
+        writeString(out, event.title());
+        writeString(out, event.referer());
+        writeString(out, event.userAgent());
+        writeString(out, event.ipAddress());
+        writeString(out, event.sessionId());
+        writeString(out, event.host());
+        return out.toByteArray();
+    }
+
+    static PageViewEvent decode(ByteBuffer in) {
+        byte version = in.get();
+        if (version != 1 && version != VERSION) {
+            throw new IllegalArgumentException("Unsupported page view record version " + version);
+        }
+        int flags = in.get();
+        LocalDateTime timestamp = null;
+        if ((flags & HAS_TIMESTAMP) != 0) {
+            long epochSecond = in.getLong();
+            timestamp = LocalDateTime.ofEpochSecond(epochSecond, readVarInt(in), ZoneOffset.UTC);
+        }
+        Long userId = (flags & HAS_USER_ID) != 0 ? in.getLong() : null;
+        var path = readString(in);
+        var title = readString(in);
+        var referer = readString(in);
+        var userAgent = readString(in);
+        var ipAddress = readString(in);
+        var sessionId = readString(in);
+        var host = version >= 2 ? readString(in) : null;
+        return new PageViewEvent(path, title, referer, host, userAgent, ipAddress, sessionId, userId, timestamp);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    // Strings are prefixed with their byte length plus one, so that zero stands for null
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed page view record");
+    }
+}
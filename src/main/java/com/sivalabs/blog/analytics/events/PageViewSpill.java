@@ -0,0 +1,23 @@
+package com.sivalabs.blog.analytics.events;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface PageViewSpill {
+
+    // Takes page views that could not be buffered or written to the database
+    void spill(List<PageViewEvent> events);
+
+    boolean hasPending();
+
+    // Whether every page view is written here first and replayed from here, instead of going through the buffer
+    default boolean writesAhead() {
+        return false;
+    }
+
+    // Prepares room for upcoming spills on the flusher thread, so spilling on a request thread stays cheap
+    default void preallocate() {}
+
+    // Hands previously spilled page views back in batches, they are only forgotten once the consumer returns normally
+    void replay(int batchSize, Consumer<List<PageViewEvent>> consumer);
+}
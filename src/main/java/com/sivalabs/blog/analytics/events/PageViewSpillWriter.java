@@ -0,0 +1,95 @@
+package com.sivalabs.blog.analytics.events;
+
+import com.sivalabs.blog.ApplicationProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+// Spills the page views that did not fit in the buffer on its own thread, so a full buffer never makes
+// a request wait for the spill's file writes. Only used with file-spill delivery.
+public class PageViewSpillWriter implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(PageViewSpillWriter.class);
+    // Stop after the flusher, which is stopped after the embedded web server
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    private final PageViewSpill spill;
+    private final BlockingQueue<PageViewEvent> queue;
+    private final int batchSize;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public PageViewSpillWriter(PageViewSpill spill, ApplicationProperties properties) {
+        this.spill = spill;
+        this.queue = new ArrayBlockingQueue<>(properties.analytics().bufferCapacity());
+        this.batchSize = properties.analytics().batchSize();
+    }
+
+    public boolean offer(PageViewEvent event) {
+        return queue.offer(event);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("page-view-spill").daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void run() {
+        List<PageViewEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                var event = queue.take();
+                batch.add(event);
+                queue.drainTo(batch, batchSize - batch.size());
+            } catch (InterruptedException e) {
+                break;
+            }
+            write(batch);
+        }
+        do {
+            queue.drainTo(batch, batchSize - batch.size());
+            write(batch);
+        } while (!queue.isEmpty());
+    }
+
+    private void write(List<PageViewEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            spill.spill(List.copyOf(batch));
+            logger.debug("Spilled {} page views that did not fit in the buffer", batch.size());
+        } catch (Exception e) {
+            logger.error("Failed to spill {} page views", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.sivalabs.blog.analytics.events;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sun.misc.Unsafe;
+
+// Append-only log of memory-mapped segment files that every page view is written to before it reaches the database.
+// Records are [length][crc32c][payload], a zero length marks the end of the written part of a segment.
+// The checkpoint file holds the position up to which records are committed, older segments are deleted.
+// A batch that keeps failing to replay is appended to the dead letter file in the same format and committed past.
+public class PageViewWriteAheadLog implements PageViewSpill, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PageViewWriteAheadLog.class);
+    private static final String SEGMENT_PREFIX = "page-views-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String DEAD_LETTER_FILE = "dead-letter.log";
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int CHECKPOINT_BYTES = 16;
+    private static final Unsafe UNSAFE = unsafe();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int maxReplayAttempts;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final MappedByteBuffer checkpoint;
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private Segment active;
+    private Segment next;
+    private Position committed;
+    // Replay thread only
+    private Position failedAt;
+    private int failedAttempts;
+
+    public PageViewWriteAheadLog(Path directory, long segmentSizeBytes, long maxSizeBytes, int maxReplayAttempts) {
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(Math.max(segmentSizeBytes, 4096), Integer.MAX_VALUE);
+        this.maxSegments = (int) Math.max(2, maxSizeBytes / segmentSize);
+        this.maxReplayAttempts = Math.max(1, maxReplayAttempts);
+        try {
+            Files.createDirectories(directory);
+            this.checkpoint = map(directory.resolve(CHECKPOINT_FILE), CHECKPOINT_BYTES);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open page view log in " + directory, e);
+        }
+        if (hasPending()) {
+            logger.info("Found page views in the log in {} that are not written to the database yet", directory);
+        }
+    }
+
+    @Override
+    public void spill(List<PageViewEvent> events) {
+        List<byte[]> records = new ArrayList<>(events.size());
+        for (var event : events) {
+            records.add(PageViewRecords.encode(event));
+        }
+        synchronized (this) {
+            for (var record : records) {
+                append(record);
+            }
+        }
+    }
+
+    @Override
+    public boolean writesAhead() {
+        return true;
+    }
+
+    // Maps the segment that appends move on to once the active one is full, so that appends only copy bytes
+    @Override
+    public void preallocate() {
+        long id;
+        synchronized (this) {
+            if (next != null) {
+                return;
+            }
+            id = active.id + 1;
+        }
+        Segment segment;
+        try {
+            segment = newSegment(id);
+        } catch (IOException e) {
+            logger.warn("Failed to preallocate page view log segment in {}", directory, e);
+            return;
+        }
+        synchronized (this) {
+            // An append that could not wait for it may have created the segment in the meantime
+            if (active.id + 1 == id) {
+                next = segment;
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean hasPending() {
+        return committed.compareTo(writePosition()) < 0;
+    }
+
+    // Replays the records written up to now, the checkpoint moves past each batch once the consumer returns normally
+    // or once the batch failed maxReplayAttempts times in a row and is moved to the dead letter file
+    @Override
+    public void replay(int batchSize, Consumer<List<PageViewEvent>> consumer) {
+        Position end;
+        MappedByteBuffer activeBuffer;
+        synchronized (this) {
+            end = writePosition();
+            activeBuffer = active.buffer;
+        }
+        activeBuffer.force();
+        while (true) {
+            List<PageViewEvent> batch = new ArrayList<>(batchSize);
+            Position from;
+            Position next;
+            synchronized (this) {
+                from = committed;
+                next = read(from, end, batchSize, batch);
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    consumer.accept(batch);
+                } catch (RuntimeException e) {
+                    failedAttempts = from.equals(failedAt) ? failedAttempts + 1 : 1;
+                    failedAt = from;
+                    if (failedAttempts < maxReplayAttempts) {
+                        throw e;
+                    }
+                    deadLetter(batch, e);
+                }
+            }
+            commit(next);
+            if (next.compareTo(end) >= 0) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        active.buffer.force();
+        checkpoint.force();
+    }
+
+    public long discardedCount() {
+        return discarded.sum();
+    }
+
+    public long deadLetteredCount() {
+        return deadLettered.sum();
+    }
+
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    private void append(byte[] record) {
+        int size = RECORD_HEADER_BYTES + record.length;
+        // Keep room for the zero length that ends the segment
+        if (size + Integer.BYTES > segmentSize) {
+            discarded.increment();
+            logger.debug("Discarded page view of {} bytes that does not fit in a log segment", record.length);
+            return;
+        }
+        if (active.limit + size + Integer.BYTES > active.buffer.capacity()) {
+            if (segments.size() >= maxSegments) {
+                discarded.increment();
+                logger.debug("Page view log is full, discarded page view");
+                return;
+            }
+            try {
+                if (next != null) {
+                    segments.put(next.id, next);
+                    active = next;
+                    next = null;
+                } else {
+                    active = createSegment(active.id + 1);
+                }
+            } catch (IOException e) {
+                discarded.increment();
+                logger.error("Failed to create page view log segment in {}", directory, e);
+                return;
+            }
+        }
+        var crc = new CRC32C();
+        crc.update(record);
+        var buffer = active.buffer;
+        buffer.putInt(active.limit + Integer.BYTES, (int) crc.getValue());
+        buffer.put(active.limit + RECORD_HEADER_BYTES, record);
+        // The length is written last, so a record is only visible once it is complete
+        buffer.putInt(active.limit, record.length);
+        active.limit += size;
+    }
+
+    private Position read(Position from, Position end, int maxRecords, List<PageViewEvent> batch) {
+        var position = from;
+        while (batch.size() < maxRecords && position.compareTo(end) < 0) {
+            var segment = segments.get(position.segment());
+            int limit = segment.id == end.segment() ? end.offset() : segment.limit;
+            if (position.offset() >= limit) {
+                position = new Position(segments.higherKey(segment.id), 0);
+                continue;
+            }
+            int length = segment.buffer.getInt(position.offset());
+            try {
+                batch.add(PageViewRecords.decode(
+                        segment.buffer.slice(position.offset() + RECORD_HEADER_BYTES, length)));
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                logger.warn("Skipping unreadable page view in log segment {}", segment.file.getFileName());
+            }
+            position = new Position(segment.id, position.offset() + RECORD_HEADER_BYTES + length);
+        }
+        return position;
+    }
+
+    private void deadLetter(List<PageViewEvent> batch, RuntimeException failure) {
+        try (var channel = FileChannel.open(
+                directory.resolve(DEAD_LETTER_FILE),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            for (var event : batch) {
+                var record = PageViewRecords.encode(event);
+                var crc = new CRC32C();
+                crc.update(record);
+                channel.write(ByteBuffer.allocate(RECORD_HEADER_BYTES + record.length)
+                        .putInt(record.length)
+                        .putInt((int) crc.getValue())
+                        .put(record)
+                        .flip());
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+            throw failure;
+        }
+        deadLettered.add(batch.size());
+        failedAt = null;
+        logger.error(
+                "Moved {} page views that failed to replay {} times to {}",
+                batch.size(),
+                maxReplayAttempts,
+                directory.resolve(DEAD_LETTER_FILE),
+                failure);
+    }
+
+    // Only the replaying thread writes the checkpoint, so it is forced to disk without holding up appends
+    private void commit(Position position) {
+        checkpoint.putLong(0, position.segment());
+        checkpoint.putInt(Long.BYTES, position.offset());
+        checkpoint.putInt(Long.BYTES + Integer.BYTES, checksum(position));
+        checkpoint.force();
+        synchronized (this) {
+            committed = position;
+            deleteSegmentsBefore(position.segment());
+        }
+    }
+
+    // Segments before the checkpoint are fully committed
+    private void deleteSegmentsBefore(long segmentId) {
+        var expired = segments.headMap(segmentId, false);
+        for (var segment : List.copyOf(expired.values())) {
+            try {
+                Files.deleteIfExists(segment.file);
+            } catch (IOException e) {
+                logger.warn("Failed to delete page view log segment {}", segment.file, e);
+                continue;
+            }
+            expired.remove(segment.id);
+            unmap(segment.buffer);
+        }
+    }
+
+    private Position writePosition() {
+        return new Position(active.id, active.limit);
+    }
+
+    private void recover() throws IOException {
+        for (var file : segmentFiles()) {
+            var name = file.getFileName().toString();
+            long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            var buffer = map(file, Math.max(Files.size(file), segmentSize));
+            segments.put(id, new Segment(id, file, buffer, scan(buffer)));
+        }
+        var position = readCheckpoint();
+        if (segments.isEmpty()) {
+            active = createSegment(position != null ? position.segment() : 0);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        var first = segments.firstEntry().getValue();
+        if (position == null || !segments.containsKey(position.segment())) {
+            position = new Position(first.id, 0);
+        }
+        commit(position);
+    }
+
+    // Length of the valid records at the start of a segment, a torn or corrupt record ends it
+    private static int scan(MappedByteBuffer buffer) {
+        int offset = 0;
+        while (offset + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            var record = new byte[length];
+            buffer.get(offset + RECORD_HEADER_BYTES, record);
+            var crc = new CRC32C();
+            crc.update(record);
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                break;
+            }
+            offset += RECORD_HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private Position readCheckpoint() {
+        var position = new Position(checkpoint.getLong(0), checkpoint.getInt(Long.BYTES));
+        if (checkpoint.getInt(Long.BYTES + Integer.BYTES) != checksum(position)) {
+            return null;
+        }
+        return position;
+    }
+
+    private static int checksum(Position position) {
+        var crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(12)
+                .putLong(position.segment())
+                .putInt(position.offset())
+                .flip());
+        // Never zero, so that a new checkpoint file does not look valid
+        return (int) crc.getValue() | 1;
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        var segment = newSegment(id);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private Segment newSegment(long id) throws IOException {
+        var file = directory.resolve("%s%019d%s".formatted(SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        return new Segment(id, file, map(file, segmentSize), 0);
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (var channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    // Releases the mapping of a deleted segment right away instead of when the buffer is garbage collected.
+    // Its buffer must not be touched afterwards.
+    private static void unmap(MappedByteBuffer buffer) {
+        if (UNSAFE == null) {
+            return;
+        }
+        try {
+            UNSAFE.invokeCleaner(buffer);
+        } catch (RuntimeException e) {
+            logger.debug("Failed to unmap page view log segment", e);
+        }
+    }
+
+    private static Unsafe unsafe() {
+        try {
+            var field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (Unsafe) field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Deleted page view log segments are unmapped when garbage collected", e);
+            return null;
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        var name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int limit;
+
+        private Segment(long id, Path file, MappedByteBuffer buffer, int limit) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+            this.limit = limit;
+        }
+    }
+
+    private record Position(long segment, int offset) implements Comparable<Position> {
+        @Override
+        public int compareTo(Position other) {
+            int bySegment = Long.compare(segment, other.segment);
+            return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+        }
+    }
+}
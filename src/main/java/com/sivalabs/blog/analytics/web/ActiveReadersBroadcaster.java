@@ -0,0 +1,88 @@
+package com.sivalabs.blog.analytics.web;
+
+import com.sivalabs.blog.analytics.domain.ActiveReadersTracker;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Pushes the active readers to every open dashboard once a second, one snapshot from memory is shared by all of them.
+// Sends block on slow dashboards, so they run on the broadcaster's own thread rather than the shared task scheduler.
+@Component
+class ActiveReadersBroadcaster implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ActiveReadersBroadcaster.class);
+    // Browsers reconnect an EventSource on their own once the stream ends
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(30);
+    private static final int MAX_PAGES = 20;
+
+    private final ActiveReadersTracker activeReadersTracker;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    ActiveReadersBroadcaster(ActiveReadersTracker activeReadersTracker) {
+        this.activeReadersTracker = activeReadersTracker;
+    }
+
+    SseEmitter subscribe() {
+        var emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        send(emitter, activeReadersTracker.getActiveReaders(MAX_PAGES));
+        return emitter;
+    }
+
+    @Override
+    public synchronized void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("active-readers-broadcaster").daemon().factory());
+        scheduler.scheduleAtFixedRate(this::broadcast, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        scheduler.shutdownNow();
+        scheduler = null;
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    void broadcast() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        try {
+            var activeReaders = activeReadersTracker.getActiveReaders(MAX_PAGES);
+            for (var emitter : emitters) {
+                send(emitter, activeReaders);
+            }
+        } catch (RuntimeException e) {
+            // A task that throws is not run again by the scheduler
+            log.error("Failed to push active readers", e);
+        }
+    }
+
+    private void send(SseEmitter emitter, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name("active-readers").data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // The dashboard was closed, the emitter completes with the error and is removed
+            log.debug("Failed to push active readers to a dashboard: {}", e.getMessage());
+            emitters.remove(emitter);
+        }
+    }
+}
@@ -1,45 +1,188 @@
 package com.sivalabs.blog.analytics.web;
 
+import static com.sivalabs.blog.analytics.domain.TrendingWindow.LAST_15_MINUTES;
+import static com.sivalabs.blog.analytics.domain.TrendingWindow.LAST_24_HOURS;
+import static com.sivalabs.blog.analytics.domain.TrendingWindow.LAST_HOUR;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sivalabs.blog.ApplicationProperties;
 import com.sivalabs.blog.analytics.domain.AnalyticsService;
+import com.sivalabs.blog.analytics.domain.AnalyticsSnapshotService;
+import com.sivalabs.blog.analytics.domain.DailyViewsDTO;
+import com.sivalabs.blog.analytics.domain.TimeGranularity;
+import com.sivalabs.blog.analytics.domain.TimeSeriesPoint;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.lang3.EnumUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Controller
 @RequestMapping("/admin/analytics")
 class AnalyticsController {
     private static final Logger log = LoggerFactory.getLogger(AnalyticsController.class);
+    private static final int MAX_DAYS = 365;
 
     private final AnalyticsService analyticsService;
+    private final AnalyticsSnapshotService analyticsSnapshotService;
+    private final ActiveReadersBroadcaster activeReadersBroadcaster;
+    private final ObjectMapper objectMapper;
+    private final ZoneId zone;
 
-    AnalyticsController(AnalyticsService analyticsService) {
+    AnalyticsController(
+            AnalyticsService analyticsService,
+            AnalyticsSnapshotService analyticsSnapshotService,
+            ActiveReadersBroadcaster activeReadersBroadcaster,
+            ObjectMapper objectMapper,
+            ApplicationProperties properties) {
         this.analyticsService = analyticsService;
+        this.analyticsSnapshotService = analyticsSnapshotService;
+        this.activeReadersBroadcaster = activeReadersBroadcaster;
+        this.objectMapper = objectMapper;
+        this.zone = properties.analytics().timeZone();
     }
 
     @GetMapping
-    String showAnalytics(Model model) {
+    String showAnalytics(@RequestParam(defaultValue = "30") int days, Model model) {
         log.info("Fetching analytics data");
-        var totalAnalytics = analyticsService.getTotalAnalytics();
+        days = Math.clamp(days, 1, MAX_DAYS);
+        var snapshot = analyticsSnapshotService.getSnapshot();
 
-        model.addAttribute("totalAnalytics", totalAnalytics);
-        model.addAttribute("topPagesAllTime", analyticsService.getTopPages(10));
-        model.addAttribute("topPagesToday", analyticsService.getTopPagesToday(10));
-        model.addAttribute("topPagesThisWeek", analyticsService.getTopPagesThisWeek(10));
-        model.addAttribute("topPagesThisMonth", analyticsService.getTopPagesThisMonth(10));
+        model.addAttribute("totalAnalytics", snapshot.totalAnalytics());
+        model.addAttribute("topPagesAllTime", snapshot.topPagesAllTime());
+        model.addAttribute("topPagesToday", snapshot.topPagesToday());
+        model.addAttribute("topPagesThisWeek", snapshot.topPagesThisWeek());
+        model.addAttribute("topPagesThisMonth", snapshot.topPagesThisMonth());
+        model.addAttribute("snapshotComputedAt", LocalDateTime.ofInstant(snapshot.computedAt(), zone));
+        model.addAttribute("trendingLast15Minutes", analyticsService.getTrendingPages(LAST_15_MINUTES, 10));
+        model.addAttribute("trendingLastHour", analyticsService.getTrendingPages(LAST_HOUR, 10));
+        model.addAttribute("trendingLast24Hours", analyticsService.getTrendingPages(LAST_24_HOURS, 10));
+        var report = analyticsSnapshotService.getRangeReport(days);
+        addDailyViews(report.dailyViews(), model);
+        model.addAttribute("topReferrers", report.topReferrers());
+        model.addAttribute("topReferrerHosts", report.topReferrerHosts());
+        model.addAttribute("viewsByCountry", report.viewsByCountry());
+        model.addAttribute("sessionMetrics", report.sessionMetrics());
+        model.addAttribute("landingPages", report.landingPages());
+        model.addAttribute("days", days);
 
         return "admin/analytics";
     }
 
+    // Server-Sent Events stream of the active readers, pushed every second
+    @GetMapping(path = "/active-readers", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    SseEmitter streamActiveReaders() {
+        return activeReadersBroadcaster.subscribe();
+    }
+
     @GetMapping("/page-details")
-    String showPageDetails(@RequestParam String path, Model model) {
+    String showPageDetails(
+            @RequestParam String path,
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Model model) {
         log.info("Fetching analytics data for path: {}", path);
+        days = Math.clamp(days, 1, MAX_DAYS);
         var analytics = analyticsService.getAnalytics(path);
         model.addAttribute("analytics", analytics);
+        var report = analyticsSnapshotService.getPageReport(path, days);
+        addDailyViews(report.dailyViews(), model);
+        model.addAttribute("topReferrers", report.topReferrers());
+        model.addAttribute("viewsByCountry", report.viewsByCountry());
+        model.addAttribute("sessionMetrics", report.sessionMetrics());
+        model.addAttribute("days", days);
         model.addAttribute("path", path);
+        addTimeSeries(path, days, granularity, from, to, model);
         return "admin/page-analytics";
     }
+
+    // Days are stored newest first, the chart reads left to right
+    private static void addDailyViews(List<DailyViewsDTO> dailyViews, Model model) {
+        model.addAttribute("dailyViews", dailyViews.reversed());
+        model.addAttribute(
+                "dailyViewsMaxViews",
+                dailyViews.stream().mapToLong(DailyViewsDTO::views).max().orElse(0));
+    }
+
+    // Chart of the days from..to (inclusive), by default the last 2 days by hour, `days` days or 26 weeks
+    private void addTimeSeries(String path, int days, String granularity, LocalDate from, LocalDate to, Model model) {
+        var timeGranularity = EnumUtils.getEnumIgnoreCase(TimeGranularity.class, granularity, TimeGranularity.DAY);
+        var toDay = to != null ? to : LocalDate.now(zone);
+        var fromDay = from != null
+                ? from
+                : switch (timeGranularity) {
+                    case HOUR -> toDay.minusDays(1);
+                    case DAY -> toDay.minusDays(days - 1);
+                    case WEEK -> toDay.minusWeeks(25);
+                };
+        List<TimeSeriesPoint> timeSeries = List.of();
+        try {
+            timeSeries = analyticsService.getTimeSeries(
+                    path, fromDay.atStartOfDay(), toDay.plusDays(1).atStartOfDay(), timeGranularity);
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("timeSeriesError", e.getMessage());
+        }
+        model.addAttribute("timeSeries", timeSeries);
+        model.addAttribute(
+                "timeSeriesMaxViews",
+                timeSeries.stream().mapToLong(TimeSeriesPoint::views).max().orElse(0));
+        model.addAttribute("granularity", timeGranularity.name().toLowerCase());
+        model.addAttribute("from", fromDay);
+        model.addAttribute("to", toDay);
+    }
+
+    // Streams the raw page views of the given days (inclusive), defaulting to the last 30 days
+    @GetMapping("/export")
+    void exportPageViews(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response)
+            throws IOException {
+        var exportFormat = EnumUtils.getEnumIgnoreCase(PageViewExportFormat.class, format);
+        var toDay = to != null ? to : LocalDate.now(zone);
+        var fromDay = from != null ? from : toDay.minusDays(29);
+        if (exportFormat == null || fromDay.isAfter(toDay)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected format csv or ndjson and from <= to");
+            return;
+        }
+        log.info("Exporting page views from {} to {} as {}", fromDay, toDay, exportFormat);
+        var filename = "page-views-%s-%s.%s%s".formatted(fromDay, toDay, exportFormat.extension(), gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.contentType() + ";charset=UTF-8");
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), 8192) : response.getOutputStream();
+        try (var writer = PageViewExportWriter.create(exportFormat, out, objectMapper)) {
+            analyticsService.exportPageViews(fromDay, toDay, pageView -> {
+                try {
+                    writer.write(pageView);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
 }
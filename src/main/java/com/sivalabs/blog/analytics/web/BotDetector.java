@@ -0,0 +1,83 @@
+package com.sivalabs.blog.analytics.web;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BotDetector {
+    // Short markers are anchored on the delimiters that follow them in crawler tokens ("Googlebot/2.1",
+    // "DuckDuckBot;", "+http://...bot.html"), so device names such as "CUBOT X30" do not match
+    private static final List<String> BOT_PATTERNS = List.of(
+            "bot/",
+            "bot;",
+            "bot)",
+            "bot.",
+            "bot-",
+            "+http",
+            "crawl",
+            "spider",
+            "slurp",
+            "archiver",
+            "facebookexternalhit",
+            "embedly",
+            "preview",
+            "headless",
+            "phantomjs",
+            "lighthouse",
+            "pingdom",
+            "uptime",
+            "monitor",
+            "curl/",
+            "wget/",
+            "httpie/",
+            "python-requests",
+            "python-urllib",
+            "aiohttp",
+            "go-http-client",
+            "okhttp",
+            "apache-httpclient",
+            "java/",
+            "libwww-perl",
+            "node-fetch",
+            "axios/",
+            "scrapy",
+            "feedfetcher",
+            "rss/",
+            "rss reader",
+            "rssreader");
+    private static final int MAX_CACHED_VERDICTS = 1024;
+
+    private final MultiPatternMatcher matcher;
+    private final Map<String, Boolean> verdicts = new ConcurrentHashMap<>();
+
+    public BotDetector() {
+        this(new MultiPatternMatcher(BOT_PATTERNS));
+    }
+
+    BotDetector(MultiPatternMatcher matcher) {
+        this.matcher = matcher;
+    }
+
+    public boolean isBot(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return true;
+        }
+        var verdict = verdicts.get(userAgent);
+        if (verdict != null) {
+            return verdict;
+        }
+        boolean bot = matcher.matchesAny(userAgent);
+        if (verdicts.size() >= MAX_CACHED_VERDICTS) {
+            // Drop an arbitrary verdict rather than ordering the cache, which would need a lock per lookup
+            var iterator = verdicts.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        verdicts.put(userAgent, bot);
+        return bot;
+    }
+}
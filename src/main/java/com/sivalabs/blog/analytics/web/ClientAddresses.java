@@ -0,0 +1,22 @@
+package com.sivalabs.blog.analytics.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+final class ClientAddresses {
+
+    private ClientAddresses() {}
+
+    static String resolve(HttpServletRequest request) {
+        var xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            return xForwardedFor.split(",")[0].trim();
+        }
+
+        var xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isEmpty()) {
+            return xRealIp;
+        }
+
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,65 @@
+package com.sivalabs.blog.analytics.web;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.UUID;
+
+// Random visitor id kept in a signed first-party cookie, so readers are recognized across days without any
+// server-side state. Tampered or unsigned cookies are replaced with a fresh id.
+public class CookieVisitorIdResolver implements VisitorIdResolver {
+    static final String COOKIE_NAME = "vid";
+    private static final int MAX_AGE_SECONDS = (int) Duration.ofDays(365).toSeconds();
+
+    private final VisitorIdSigner signer;
+
+    public CookieVisitorIdResolver(byte[] secret) {
+        this.signer = new VisitorIdSigner(secret);
+    }
+
+    @Override
+    public String resolveVisitorId(HttpServletRequest request, HttpServletResponse response) {
+        var visitorId = readVisitorId(request);
+        if (visitorId != null) {
+            return visitorId;
+        }
+        visitorId = UUID.randomUUID().toString().replace("-", "");
+        var cookie = new Cookie(COOKIE_NAME, visitorId + "." + signer.sign(visitorId));
+        cookie.setPath("/");
+        cookie.setMaxAge(MAX_AGE_SECONDS);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setAttribute("SameSite", "Lax");
+        response.addCookie(cookie);
+        return visitorId;
+    }
+
+    private String readVisitorId(HttpServletRequest request) {
+        var cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (var cookie : cookies) {
+            if (!COOKIE_NAME.equals(cookie.getName())) {
+                continue;
+            }
+            var value = cookie.getValue();
+            int separator = value.indexOf('.');
+            if (separator <= 0) {
+                return null;
+            }
+            var visitorId = value.substring(0, separator);
+            var signature = value.substring(separator + 1);
+            var expected = signer.sign(visitorId);
+            if (MessageDigest.isEqual(
+                    expected.getBytes(StandardCharsets.US_ASCII), signature.getBytes(StandardCharsets.US_ASCII))) {
+                return visitorId;
+            }
+            return null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.sivalabs.blog.analytics.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Clock;
+import java.time.LocalDate;
+
+// Keyed hash of the client address and user agent with the current date mixed in, so the same reader maps to
+// the same id within a day of the analytics zone but ids cannot be linked across days and nothing is stored on either side.
+public class HashedVisitorIdResolver implements VisitorIdResolver {
+    private final VisitorIdSigner signer;
+    private final Clock clock;
+
+    public HashedVisitorIdResolver(byte[] secret, Clock clock) {
+        this.signer = new VisitorIdSigner(secret);
+        this.clock = clock;
+    }
+
+    @Override
+    public String resolveVisitorId(HttpServletRequest request, HttpServletResponse response) {
+        return signer.sign(
+                LocalDate.now(clock).toString(), ClientAddresses.resolve(request), request.getHeader("User-Agent"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.sivalabs.blog.analytics.web;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Aho-Corasick automaton compiled into a dense ASCII transition table, so matching all patterns
+// costs one array lookup per input character. Matching is case-insensitive.
+class MultiPatternMatcher {
+    private static final int ALPHABET_SIZE = 128;
+
+    private final int[][] transitions;
+    private final boolean[] accepting;
+
+    MultiPatternMatcher(List<String> patterns) {
+        List<int[]> gotos = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        gotos.add(newState());
+        terminal.add(false);
+
+        for (var pattern : patterns) {
+            int state = 0;
+            for (char c : pattern.toLowerCase(Locale.ROOT).toCharArray()) {
+                if (c >= ALPHABET_SIZE) {
+                    throw new IllegalArgumentException("Only ASCII patterns are supported: " + pattern);
+                }
+                if (gotos.get(state)[c] < 0) {
+                    gotos.get(state)[c] = gotos.size();
+                    gotos.add(newState());
+                    terminal.add(false);
+                }
+                state = gotos.get(state)[c];
+            }
+            terminal.set(state, true);
+        }
+
+        transitions = gotos.toArray(new int[0][]);
+        accepting = new boolean[transitions.length];
+        for (int i = 0; i < accepting.length; i++) {
+            accepting[i] = terminal.get(i);
+        }
+
+        int[] failure = new int[transitions.length];
+        var queue = new ArrayDeque<Integer>();
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+            int next = transitions[0][c];
+            if (next < 0) {
+                transitions[0][c] = 0;
+            } else {
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepting[state] |= accepting[failure[state]];
+            for (int c = 0; c < ALPHABET_SIZE; c++) {
+                int next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[failure[state]][c];
+                } else {
+                    failure[next] = transitions[failure[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    boolean matchesAny(String text) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            state = c < ALPHABET_SIZE ? transitions[state][c] : 0;
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET_SIZE];
+        Arrays.fill(state, -1);
+        return state;
+    }
+}
@@ -0,0 +1,119 @@
+package com.sivalabs.blog.analytics.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.ApplicationProperties.AnalyticsProperties.PageViewCapture;
+import com.sivalabs.blog.analytics.domain.PagePathCanonicalizer;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import com.sivalabs.blog.analytics.events.PageViewEventPublisher;
+import com.sivalabs.blog.analytics.web.PageViewRouteClassifier.RouteMatch;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+
+// Receives the page views that tracked pages post with navigator.sendBeacon when page-view-capture is beacon.
+// Payloads are a JSON array of {path, referrer}, sent as text/plain so no CORS preflight is needed.
+@Controller
+class PageViewBeaconController {
+    private static final Logger log = LoggerFactory.getLogger(PageViewBeaconController.class);
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024;
+    private static final int MAX_PAGE_VIEWS = 20;
+
+    private final PageViewEventPublisher eventPublisher;
+    private final BotDetector botDetector;
+    private final VisitorIdResolver visitorIdResolver;
+    private final PageViewRouteClassifier routeClassifier;
+    private final PagePathCanonicalizer pathCanonicalizer;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final ZoneId zone;
+
+    PageViewBeaconController(
+            PageViewEventPublisher eventPublisher,
+            BotDetector botDetector,
+            VisitorIdResolver visitorIdResolver,
+            PageViewRouteClassifier routeClassifier,
+            PagePathCanonicalizer pathCanonicalizer,
+            ObjectMapper objectMapper,
+            ApplicationProperties properties) {
+        this.eventPublisher = eventPublisher;
+        this.botDetector = botDetector;
+        this.visitorIdResolver = visitorIdResolver;
+        this.routeClassifier = routeClassifier;
+        this.pathCanonicalizer = pathCanonicalizer;
+        this.objectMapper = objectMapper;
+        this.enabled = properties.analytics().pageViewCapture() == PageViewCapture.BEACON;
+        this.zone = properties.analytics().timeZone();
+    }
+
+    @PostMapping("/api/pv")
+    ResponseEntity<Void> collectPageViews(HttpServletRequest request, HttpServletResponse response) {
+        if (!enabled) {
+            return ResponseEntity.notFound().build();
+        }
+        // Rejected on the declared length first, a chunked body is read no further than one byte past the limit
+        if (request.getContentLengthLong() > MAX_PAYLOAD_BYTES) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        BeaconPageView[] pageViews;
+        try {
+            var payload = request.getInputStream().readNBytes(MAX_PAYLOAD_BYTES + 1);
+            if (payload.length > MAX_PAYLOAD_BYTES) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+            }
+            pageViews = objectMapper.readValue(payload, BeaconPageView[].class);
+        } catch (IOException e) {
+            log.debug("Ignoring malformed page view beacon: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        var userAgent = request.getHeader("User-Agent");
+        if (pageViews == null || pageViews.length == 0 || botDetector.isBot(userAgent)) {
+            return ResponseEntity.noContent().build();
+        }
+        var visitorId = visitorIdResolver.resolveVisitorId(request, response);
+        var userId = PageViewInterceptor.getCurrentUserId();
+        var ipAddress = ClientAddresses.resolve(request);
+        var now = LocalDateTime.now(zone);
+        for (int i = 0; i < Math.min(pageViews.length, MAX_PAGE_VIEWS); i++) {
+            var pageView = pageViews[i];
+            // Only paths of tracked routes are accepted, the payload is not trusted
+            var route = pageView != null ? routeClassifier.matchTrackedRoute(pageView.path()) : null;
+            if (route == null) {
+                continue;
+            }
+            var path = pathCanonicalizer.canonicalize(route.template(), route.variables());
+            eventPublisher.publishPageView(PageViewEvent.builder()
+                    .path(path)
+                    .title(titleOf(route, path))
+                    .referer(StringUtils.truncate(pageView.referrer(), 2000))
+                    .host(request.getServerName())
+                    .userAgent(userAgent)
+                    .ipAddress(ipAddress)
+                    .sessionId(visitorId)
+                    .userId(userId)
+                    .timestamp(now)
+                    .build());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // Resolved on the server, a title taken from the payload would let any caller grow the title dictionary
+    private String titleOf(RouteMatch route, String path) {
+        if (PagePathCanonicalizer.UNKNOWN_PATH.equals(path)) {
+            return null;
+        }
+        var slug = route.variables().get("slug");
+        return slug != null ? pathCanonicalizer.postTitle(slug) : routeClassifier.titleForRoute(route.template());
+    }
+
+    record BeaconPageView(String path, String referrer) {}
+}
@@ -0,0 +1,130 @@
+package com.sivalabs.blog.analytics.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sivalabs.blog.analytics.domain.ExportedPageView;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Writes exported page views one at a time, so nothing but the writer's buffer is held in memory
+abstract class PageViewExportWriter implements AutoCloseable {
+    static final String[] COLUMNS = {
+        "id",
+        "created_at",
+        "path",
+        "title",
+        "referer_host",
+        "user_agent",
+        "ip_address",
+        "session_id",
+        "user_id",
+        "country_code"
+    };
+
+    static PageViewExportWriter create(PageViewExportFormat format, OutputStream out, ObjectMapper objectMapper)
+            throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        return switch (format) {
+            case CSV -> new CsvWriter(writer);
+            case NDJSON -> new NdjsonWriter(objectMapper.getFactory().createGenerator(writer));
+        };
+    }
+
+    abstract void write(ExportedPageView pageView) throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    private static final class CsvWriter extends PageViewExportWriter {
+        private final Writer writer;
+
+        private CsvWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(ExportedPageView pageView) throws IOException {
+            writer.write(Long.toString(pageView.id()));
+            writer.write(',');
+            writer.write(pageView.createdAt().toString());
+            writeField(pageView.path());
+            writeField(pageView.title());
+            writeField(pageView.refererHost());
+            writeField(pageView.userAgent());
+            writeField(pageView.ipAddress());
+            writeField(pageView.sessionId());
+            writer.write(',');
+            if (pageView.userId() != null) {
+                writer.write(pageView.userId().toString());
+            }
+            writeField(pageView.countryCode());
+            writer.write("\r\n");
+        }
+
+        // RFC 4180 quoting, empty for null. Values that a spreadsheet would run as a formula are prefixed with '
+        private void writeField(String value) throws IOException {
+            writer.write(',');
+            if (value == null) {
+                return;
+            }
+            if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class NdjsonWriter extends PageViewExportWriter {
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(JsonGenerator generator) {
+            this.generator = generator;
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(ExportedPageView pageView) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], pageView.id());
+            generator.writeStringField(COLUMNS[1], pageView.createdAt().toString());
+            generator.writeStringField(COLUMNS[2], pageView.path());
+            generator.writeStringField(COLUMNS[3], pageView.title());
+            generator.writeStringField(COLUMNS[4], pageView.refererHost());
+            generator.writeStringField(COLUMNS[5], pageView.userAgent());
+            generator.writeStringField(COLUMNS[6], pageView.ipAddress());
+            generator.writeStringField(COLUMNS[7], pageView.sessionId());
+            generator.writeFieldName(COLUMNS[8]);
+            if (pageView.userId() != null) {
+                generator.writeNumber(pageView.userId());
+            } else {
+                generator.writeNull();
+            }
+            generator.writeStringField(COLUMNS[9], pageView.countryCode());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
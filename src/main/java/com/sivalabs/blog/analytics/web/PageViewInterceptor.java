@@ -1,11 +1,18 @@
 package com.sivalabs.blog.analytics.web;
 
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.ApplicationProperties.AnalyticsProperties.PageViewCapture;
+import com.sivalabs.blog.analytics.domain.PagePathCanonicalizer;
 import com.sivalabs.blog.analytics.events.PageViewEvent;
 import com.sivalabs.blog.analytics.events.PageViewEventPublisher;
 import com.sivalabs.blog.shared.models.SecurityUser;
+import com.sivalabs.blog.shared.models.Titled;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
@@ -19,117 +26,90 @@ public class PageViewInterceptor implements HandlerInterceptor {
     private static final Logger log = LoggerFactory.getLogger(PageViewInterceptor.class);
 
     private final PageViewEventPublisher eventPublisher;
-
-    public PageViewInterceptor(PageViewEventPublisher eventPublisher) {
+    private final BotDetector botDetector;
+    private final VisitorIdResolver visitorIdResolver;
+    private final PageViewRouteClassifier routeClassifier;
+    private final PagePathCanonicalizer pathCanonicalizer;
+    private final Counter botPageViews;
+    private final boolean beaconCapture;
+    private final ZoneId zone;
+
+    public PageViewInterceptor(
+            PageViewEventPublisher eventPublisher,
+            BotDetector botDetector,
+            VisitorIdResolver visitorIdResolver,
+            PageViewRouteClassifier routeClassifier,
+            PagePathCanonicalizer pathCanonicalizer,
+            MeterRegistry meterRegistry,
+            ApplicationProperties properties) {
         this.eventPublisher = eventPublisher;
+        this.botDetector = botDetector;
+        this.visitorIdResolver = visitorIdResolver;
+        this.routeClassifier = routeClassifier;
+        this.pathCanonicalizer = pathCanonicalizer;
+        this.botPageViews = Counter.builder("analytics.page.views.bots")
+                .description("Page views from crawlers and bots that are not recorded")
+                .register(meterRegistry);
+        this.beaconCapture = properties.analytics().pageViewCapture() == PageViewCapture.BEACON;
+        this.zone = properties.analytics().timeZone();
     }
 
     @Override
     public void postHandle(
             HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
 
-        if (shouldTrackPageView(request, response)) {
+        if (shouldTrackPageView(request, response, handler)) {
+            if (beaconCapture) {
+                // The page reports its own view through PageViewBeaconController, also when served from a cache
+                if (modelAndView != null) {
+                    modelAndView.addObject("pageViewBeacon", true);
+                }
+                return;
+            }
+            var userAgent = request.getHeader("User-Agent");
+            if (botDetector.isBot(userAgent)) {
+                botPageViews.increment();
+                return;
+            }
+            var route = routeClassifier.matchedRoute(request);
+            var path = route != null
+                    ? pathCanonicalizer.canonicalize(route.template(), route.variables())
+                    : PagePathCanonicalizer.UNKNOWN_PATH;
             var event = PageViewEvent.builder()
-                    .path(request.getRequestURI())
+                    .path(path)
                     .title(extractTitle(modelAndView))
                     .referer(request.getHeader("Referer"))
-                    .userAgent(request.getHeader("User-Agent"))
-                    .ipAddress(getClientIpAddress(request))
-                    .sessionId(request.getSession().getId())
+                    .host(request.getServerName())
+                    .userAgent(userAgent)
+                    .ipAddress(ClientAddresses.resolve(request))
+                    .sessionId(visitorIdResolver.resolveVisitorId(request, response))
                     .userId(getCurrentUserId())
-                    .timestamp(LocalDateTime.now())
+                    .timestamp(LocalDateTime.now(zone))
                     .build();
 
             eventPublisher.publishPageView(event);
-            log.debug("Tracked page view for path: {}", request.getRequestURI());
+            log.debug("Tracked page view for path: {} as {}", request.getRequestURI(), path);
         }
     }
 
-    private boolean shouldTrackPageView(HttpServletRequest request, HttpServletResponse response) {
-        if (!"GET".equals(request.getMethod())) {
-            return false;
-        }
-
-        if (response.getStatus() != 200) {
-            return false;
-        }
-
-        var uri = request.getRequestURI();
-
-        if (uri.startsWith("/admin")) {
-            return false;
-        }
-
-        if (uri.startsWith("/api")) {
-            return false;
-        }
-
-        if (uri.contains("/webjars")
-                || uri.contains("/css")
-                || uri.contains("/js")
-                || uri.contains("/images")
-                || uri.contains("/user-images")
-                || uri.contains("/favicon.ico")) {
-            return false;
-        }
-
-        return !uri.equals("/") && !uri.equals("/login") && !uri.equals("/logout") && !uri.equals("/error");
+    private boolean shouldTrackPageView(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        return "GET".equals(request.getMethod())
+                && response.getStatus() == 200
+                && routeClassifier.isTracked(handler);
     }
 
     private String extractTitle(ModelAndView modelAndView) {
         if (modelAndView == null) {
             return null;
-        } else {
-            modelAndView.getModel();
         }
-
-        var model = modelAndView.getModel();
-
-        if (model.containsKey("post")) {
-            var post = model.get("post");
-            if (post != null) {
-                try {
-                    var titleMethod = post.getClass().getMethod("title");
-                    return (String) titleMethod.invoke(post);
-                } catch (Exception e) {
-                    log.debug("Failed to extract post title", e);
-                }
-            }
+        if (modelAndView.getModel().get("post") instanceof Titled post) {
+            return post.title();
         }
-
         var viewName = modelAndView.getViewName();
-        if (viewName != null) {
-            return formatViewNameAsTitle(viewName);
-        }
-
-        return null;
-    }
-
-    private String formatViewNameAsTitle(String viewName) {
-        return switch (viewName) {
-            case "blog/posts" -> "Blog Posts";
-            case "blog/post-details" -> "Post Details";
-            case "blog/contact" -> "Contact";
-            case "index" -> "Home";
-            default -> viewName.replace("/", " - ").replace("-", " ").trim();
-        };
-    }
-
-    private String getClientIpAddress(HttpServletRequest request) {
-        var xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-
-        var xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-
-        return request.getRemoteAddr();
+        return viewName != null ? routeClassifier.titleForView(viewName) : null;
     }
 
-    private Long getCurrentUserId() {
+    static Long getCurrentUserId() {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (authentication != null
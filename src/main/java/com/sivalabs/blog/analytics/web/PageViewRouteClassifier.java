@@ -0,0 +1,182 @@
+package com.sivalabs.blog.analytics.web;
+
+import com.sivalabs.blog.ApplicationProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.UriUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+// Decides once per controller method, at startup, whether its GET requests count as page views,
+// so the interceptor only does a map lookup per request.
+@Component
+public class PageViewRouteClassifier implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(PageViewRouteClassifier.class);
+
+    private final Supplier<Map<RequestMappingInfo, HandlerMethod>> handlerMethods;
+    private final List<PathPattern> excludedRoutes;
+    private final Map<String, String> viewTitles = new ConcurrentHashMap<>();
+    private volatile Map<Method, Boolean> trackedHandlers = Map.of();
+    private volatile List<PathPattern> trackedPatterns = List.of();
+
+    @Autowired
+    public PageViewRouteClassifier(
+            // Resolved lazily because the handler mapping itself depends on the interceptors using this classifier
+            @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMapping,
+            ApplicationProperties properties) {
+        this(() -> handlerMapping.getObject().getHandlerMethods(), properties.analytics().excludedRoutes());
+    }
+
+    PageViewRouteClassifier(
+            Supplier<Map<RequestMappingInfo, HandlerMethod>> handlerMethods, List<String> excludedRoutes) {
+        this.handlerMethods = handlerMethods;
+        this.excludedRoutes =
+                excludedRoutes.stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<Method, Boolean> handlers = new HashMap<>();
+        List<PathPattern> patterns = new ArrayList<>();
+        handlerMethods.get().forEach((mapping, handlerMethod) -> {
+            var tracked = isTracked(mapping.getMethodsCondition().getMethods(), mapping.getPatternValues());
+            handlers.merge(handlerMethod.getMethod(), tracked, Boolean::logicalOr);
+            if (tracked) {
+                mapping.getPatternValues().stream()
+                        .map(PathPatternParser.defaultInstance::parse)
+                        .forEach(patterns::add);
+            }
+        });
+        // Most specific first, so /posts/search wins over /posts/{slug}
+        patterns.sort(PathPattern.SPECIFICITY_COMPARATOR);
+        trackedHandlers = Map.copyOf(handlers);
+        trackedPatterns = List.copyOf(patterns);
+        long tracked = handlers.values().stream().filter(Boolean::booleanValue).count();
+        log.info("Tracking page views for {} of {} request mappings", tracked, handlers.size());
+    }
+
+    public boolean isTracked(Object handler) {
+        return handler instanceof HandlerMethod handlerMethod
+                && trackedHandlers.getOrDefault(handlerMethod.getMethod(), false);
+    }
+
+    // Whether a path reported by the browser is served by a tracked route
+    public boolean isTrackedPath(String path) {
+        return matchTrackedRoute(path) != null;
+    }
+
+    // Route template and URI variables Spring MVC matched the request with
+    public RouteMatch matchedRoute(HttpServletRequest request) {
+        var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return matchTrackedRoute(request.getRequestURI());
+        }
+        @SuppressWarnings("unchecked")
+        var variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return new RouteMatch(pattern.toString(), variables != null ? variables : Map.of());
+    }
+
+    // Tracked route serving a path reported by the browser, ignoring case, trailing and repeated slashes and
+    // path parameters, or null when there is none
+    public RouteMatch matchTrackedRoute(String path) {
+        var normalizedPath = normalizePath(path);
+        if (normalizedPath == null) {
+            return null;
+        }
+        var pathContainer = PathContainer.parsePath(normalizedPath);
+        for (var pattern : trackedPatterns) {
+            var match = pattern.matchAndExtract(pathContainer);
+            if (match != null) {
+                return new RouteMatch(pattern.getPatternString(), match.getUriVariables());
+            }
+        }
+        return null;
+    }
+
+    static String normalizePath(String path) {
+        if (path == null || !path.startsWith("/")) {
+            return null;
+        }
+        int end = path.length();
+        for (char terminator : new char[] {'?', '#'}) {
+            int index = path.indexOf(terminator);
+            end = index >= 0 ? Math.min(end, index) : end;
+        }
+        String decoded;
+        try {
+            decoded = UriUtils.decode(path.substring(0, end), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        var normalized = new StringBuilder();
+        for (var segment : decoded.split("/")) {
+            int parameters = segment.indexOf(';');
+            segment = parameters >= 0 ? segment.substring(0, parameters) : segment;
+            if (!segment.isEmpty()) {
+                normalized.append('/').append(segment);
+            }
+        }
+        return normalized.isEmpty() ? "/" : normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public String titleForView(String viewName) {
+        return viewTitles.computeIfAbsent(viewName, PageViewRouteClassifier::formatViewNameAsTitle);
+    }
+
+    // Title of the view a route template renders, for page views reported without a ModelAndView
+    public String titleForRoute(String template) {
+        return switch (template) {
+            case "/" -> titleForView("index");
+            case "/contact" -> titleForView("blog/contact");
+            case "/posts", "/posts/search", "/categories/{categorySlug}/posts", "/tags/{tagSlug}/posts" ->
+                titleForView("blog/posts");
+            default -> null;
+        };
+    }
+
+    private boolean isTracked(Set<RequestMethod> methods, Set<String> patterns) {
+        if (!methods.isEmpty() && !methods.contains(RequestMethod.GET)) {
+            return false;
+        }
+        return !patterns.isEmpty() && patterns.stream().noneMatch(this::isExcluded);
+    }
+
+    private boolean isExcluded(String pattern) {
+        var path = PathContainer.parsePath(pattern);
+        return excludedRoutes.stream().anyMatch(excluded -> excluded.matches(path));
+    }
+
+    private static String formatViewNameAsTitle(String viewName) {
+        return switch (viewName) {
+            case "blog/posts" -> "Blog Posts";
+            case "blog/post-details" -> "Post Details";
+            case "blog/contact" -> "Contact";
+            case "index" -> "Home";
+            default -> viewName.replace("/", " - ").replace("-", " ").trim();
+        };
+    }
+
+    public record RouteMatch(String template, Map<String, String> variables) {}
+}
@@ -0,0 +1,9 @@
+package com.sivalabs.blog.analytics.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public interface VisitorIdResolver {
+
+    String resolveVisitorId(HttpServletRequest request, HttpServletResponse response);
+}
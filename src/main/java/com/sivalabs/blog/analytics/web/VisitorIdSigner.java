@@ -0,0 +1,32 @@
+package com.sivalabs.blog.analytics.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+class VisitorIdSigner {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    VisitorIdSigner(byte[] secret) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    // 128 bits of the HMAC, hex encoded, which fits the 64 character session_id column
+    String sign(String... parts) {
+        try {
+            var mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            for (var part : parts) {
+                mac.update((part != null ? part : "").getBytes(StandardCharsets.UTF_8));
+                mac.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(mac.doFinal(), 0, 16);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign visitor id", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.sivalabs.blog.blog;
+
+import com.sivalabs.blog.blog.domain.BlogCategoryRepository;
+import com.sivalabs.blog.blog.domain.BlogPostRepository;
+import com.sivalabs.blog.blog.domain.BlogTagRepository;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Slugs of the content the blog serves pages for
+@Service
+public class ContentSlugService {
+    private final BlogPostRepository postRepository;
+    private final BlogCategoryRepository categoryRepository;
+    private final BlogTagRepository tagRepository;
+
+    public ContentSlugService(
+            BlogPostRepository postRepository,
+            BlogCategoryRepository categoryRepository,
+            BlogTagRepository tagRepository) {
+        this.postRepository = postRepository;
+        this.categoryRepository = categoryRepository;
+        this.tagRepository = tagRepository;
+    }
+
+    // Titles of the published posts by slug
+    @Transactional(readOnly = true)
+    public Map<String, String> findPublishedPostTitles() {
+        return postRepository.findPublishedPostTitles().stream()
+                .collect(Collectors.toUnmodifiableMap(row -> (String) row[0], row -> (String) row[1]));
+    }
+
+    @Transactional(readOnly = true)
+    public Set<String> findCategorySlugs() {
+        return Set.copyOf(categoryRepository.findAllSlugs());
+    }
+
+    @Transactional(readOnly = true)
+    public Set<String> findTagSlugs() {
+        return Set.copyOf(tagRepository.findAllSlugs());
+    }
+}
@@ -18,4 +18,7 @@ public interface BlogCategoryRepository extends JpaRepository<Category, Long> {
     ORDER BY c.label
     """)
     List<CategorySummaryDTO> getCategoriesWithPostCounts();
+
+    @Query("select c.slug from Category c")
+    List<String> findAllSlugs();
 }
@@ -2,6 +2,7 @@ package com.sivalabs.blog.blog.domain;
 
 import com.sivalabs.blog.shared.entities.Post;
 import com.sivalabs.blog.shared.exceptions.ResourceNotFoundException;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -75,4 +76,8 @@ and p.status = com.sivalabs.blog.shared.models.PostStatus.PUBLISHED
     default Post getBySlug(String slug) {
         return findBySlug(slug).orElseThrow(() -> new ResourceNotFoundException("Post not found for slug: " + slug));
     }
+
+    @Query(
+            "select p.slug, p.title from Post p where p.status = com.sivalabs.blog.shared.models.PostStatus.PUBLISHED")
+    List<Object[]> findPublishedPostTitles();
 }
@@ -1,6 +1,11 @@
 package com.sivalabs.blog.blog.domain;
 
 import com.sivalabs.blog.shared.entities.Tag;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface BlogTagRepository extends JpaRepository<Tag, Long> {}
+public interface BlogTagRepository extends JpaRepository<Tag, Long> {
+    @Query("select t.slug from Tag t")
+    List<String> findAllSlugs();
+}
@@ -1,6 +1,7 @@
 package com.sivalabs.blog.blog.domain.models;
 
 import com.sivalabs.blog.shared.models.PostStatus;
+import com.sivalabs.blog.shared.models.Titled;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -17,7 +18,8 @@ public record PostDetailsDTO(
         PostCategory category,
         List<PostTag> tags,
         PostStatus status,
-        LocalDateTime createdAt) {
+        LocalDateTime createdAt)
+        implements Titled {
 
     public record PostCategory(String label, String slug) {}
 
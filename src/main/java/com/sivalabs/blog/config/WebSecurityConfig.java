@@ -11,6 +11,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
 
 @Configuration
@@ -40,7 +41,9 @@ class WebSecurityConfig {
         };
         http.securityMatcher("/**");
 
-        http.csrf(csrf -> csrf.ignoringRequestMatchers("/my-profile/image"));
+        // Keep the CSRF token in a cookie so anonymous readers don't get an HttpSession just for the token
+        http.csrf(csrf -> csrf.csrfTokenRepository(new CookieCsrfTokenRepository())
+                .ignoringRequestMatchers("/my-profile/image", "/api/pv"));
 
         http.authorizeHttpRequests(r -> r.requestMatchers(publicPaths)
                 .permitAll()
@@ -52,7 +55,8 @@ class WebSecurityConfig {
                 .hasAnyRole("AUTHOR", "ADMIN")
                 .requestMatchers(HttpMethod.GET, "/posts", "/posts/{slug}", "/categories/*/posts", "/tags/*/posts")
                 .permitAll()
-                .requestMatchers(HttpMethod.POST, "/posts/*/comments", "/contact/messages", "/newsletter/subscribe")
+                .requestMatchers(
+                        HttpMethod.POST, "/posts/*/comments", "/contact/messages", "/newsletter/subscribe", "/api/pv")
                 .permitAll()
                 .anyRequest()
                 .authenticated());
@@ -17,17 +17,17 @@ public class PageView extends BaseEntity {
     @Column(name = "id", nullable = false)
     private Long id;
 
-    @Column(nullable = false, length = 500)
-    private String path;
+    @Column(name = "path_id", nullable = false)
+    private Integer pathId;
 
-    @Column(length = 500)
-    private String title;
+    @Column(name = "title_id")
+    private Integer titleId;
 
-    @Column(length = 1000)
-    private String referer;
+    @Column(name = "referer_host_id")
+    private Integer refererHostId;
 
-    @Column(name = "user_agent", columnDefinition = "TEXT")
-    private String userAgent;
+    @Column(name = "user_agent_id")
+    private Integer userAgentId;
 
     @Column(name = "ip_address", length = 45)
     private String ipAddress;
@@ -38,23 +38,28 @@ public class PageView extends BaseEntity {
     @Column(name = "user_id")
     private Long userId;
 
+    @Column(name = "country_code", length = 2)
+    private String countryCode;
+
     public PageView() {}
 
     public PageView(
-            String path,
-            String title,
-            String referer,
-            String userAgent,
+            Integer pathId,
+            Integer titleId,
+            Integer refererHostId,
+            Integer userAgentId,
             String ipAddress,
             String sessionId,
-            Long userId) {
-        this.path = path;
-        this.title = title;
-        this.referer = referer;
-        this.userAgent = userAgent;
+            Long userId,
+            String countryCode) {
+        this.pathId = pathId;
+        this.titleId = titleId;
+        this.refererHostId = refererHostId;
+        this.userAgentId = userAgentId;
         this.ipAddress = ipAddress;
         this.sessionId = sessionId;
         this.userId = userId;
+        this.countryCode = countryCode;
     }
 
     public Long getId() {
@@ -65,36 +70,36 @@ public class PageView extends BaseEntity {
         this.id = id;
     }
 
-    public String getPath() {
-        return path;
+    public Integer getPathId() {
+        return pathId;
     }
 
-    public void setPath(String path) {
-        this.path = path;
+    public void setPathId(Integer pathId) {
+        this.pathId = pathId;
     }
 
-    public String getTitle() {
-        return title;
+    public Integer getTitleId() {
+        return titleId;
     }
 
-    public void setTitle(String title) {
-        this.title = title;
+    public void setTitleId(Integer titleId) {
+        this.titleId = titleId;
     }
 
-    public String getReferer() {
-        return referer;
+    public Integer getRefererHostId() {
+        return refererHostId;
     }
 
-    public void setReferer(String referer) {
-        this.referer = referer;
+    public void setRefererHostId(Integer refererHostId) {
+        this.refererHostId = refererHostId;
     }
 
-    public String getUserAgent() {
-        return userAgent;
+    public Integer getUserAgentId() {
+        return userAgentId;
     }
 
-    public void setUserAgent(String userAgent) {
-        this.userAgent = userAgent;
+    public void setUserAgentId(Integer userAgentId) {
+        this.userAgentId = userAgentId;
     }
 
     public String getIpAddress() {
@@ -120,4 +125,12 @@ public class PageView extends BaseEntity {
     public void setUserId(Long userId) {
         this.userId = userId;
     }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public void setCountryCode(String countryCode) {
+        this.countryCode = countryCode;
+    }
 }
@@ -0,0 +1,5 @@
+package com.sivalabs.blog.shared.events;
+
+// Published when posts, categories or tags are created, deleted or change status, so the slugs the blog serves
+// pages for may have changed
+public record BlogContentChangedEvent() {}
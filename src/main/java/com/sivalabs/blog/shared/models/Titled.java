@@ -0,0 +1,6 @@
+package com.sivalabs.blog.shared.models;
+
+public interface Titled {
+
+    String title();
+}
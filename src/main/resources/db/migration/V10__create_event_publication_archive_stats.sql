@@ -0,0 +1,9 @@
+-- Completed event publications per type, listener and day, kept after the archived rows are compacted away
+CREATE TABLE event_publication_archive_stats
+(
+    event_type   TEXT   NOT NULL,
+    listener_id  TEXT   NOT NULL,
+    day          DATE   NOT NULL,
+    publications BIGINT NOT NULL DEFAULT 0,
+    primary key (event_type, listener_id, day)
+);
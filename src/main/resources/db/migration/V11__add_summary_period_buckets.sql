@@ -0,0 +1,11 @@
+-- Start of the day, week and month that views_today, views_this_week and views_this_month count.
+-- Increments for a later period reset a counter, and the rotation job resets counters of pages without new views.
+ALTER TABLE page_analytics_summary
+    ADD COLUMN today_bucket DATE,
+    ADD COLUMN week_bucket  DATE,
+    ADD COLUMN month_bucket DATE;
+
+UPDATE page_analytics_summary
+SET today_bucket = CURRENT_DATE,
+    week_bucket  = date_trunc('week', CURRENT_DATE)::date,
+    month_bucket = date_trunc('month', CURRENT_DATE)::date;
@@ -0,0 +1,106 @@
+-- Dictionaries of the repeated page view strings. Entries are never deleted, so cached ids stay valid.
+CREATE TABLE page_view_paths
+(
+    id   INTEGER      NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    path VARCHAR(500) NOT NULL,
+    primary key (id),
+    unique (path)
+);
+
+CREATE TABLE page_view_titles
+(
+    id    INTEGER      NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    title VARCHAR(500) NOT NULL,
+    primary key (id),
+    unique (title)
+);
+
+CREATE TABLE page_view_referer_hosts
+(
+    id   INTEGER      NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    host VARCHAR(255) NOT NULL,
+    primary key (id),
+    unique (host)
+);
+
+CREATE TABLE page_view_user_agents
+(
+    id         INTEGER      NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    user_agent VARCHAR(500) NOT NULL,
+    primary key (id),
+    unique (user_agent)
+);
+
+INSERT INTO page_view_paths (path)
+SELECT DISTINCT path
+FROM page_views;
+
+-- Blank titles and user agents are stored as NULL, as the application does
+INSERT INTO page_view_titles (title)
+SELECT DISTINCT title
+FROM page_views
+WHERE title ~ '\S';
+
+-- Only the host of a referer is kept
+INSERT INTO page_view_referer_hosts (host)
+SELECT DISTINCT left(lower(substring(referer FROM '^[A-Za-z][A-Za-z0-9+.-]*://(?:[^/?#@]*@)?([^/?#:]+)')), 255)
+FROM page_views
+WHERE referer ~ '^[A-Za-z][A-Za-z0-9+.-]*://(?:[^/?#@]*@)?[^/?#:]+';
+
+INSERT INTO page_view_user_agents (user_agent)
+SELECT DISTINCT left(user_agent, 500)
+FROM page_views
+WHERE user_agent ~ '\S';
+
+-- Recreate page_views and its monthly partitions with dictionary ids in place of the strings
+DROP INDEX idx_page_views_path_created_at;
+DROP INDEX idx_page_views_created_at;
+ALTER TABLE page_views RENAME TO page_views_unencoded;
+ALTER INDEX page_views_pkey RENAME TO page_views_unencoded_pkey;
+
+CREATE TABLE page_views
+(
+    id              BIGINT      NOT NULL DEFAULT nextval('page_view_id_seq'),
+    path_id         INTEGER     NOT NULL,
+    title_id        INTEGER,
+    referer_host_id INTEGER,
+    user_agent_id   INTEGER,
+    ip_address      VARCHAR(45),
+    session_id      VARCHAR(64),
+    user_id         BIGINT,
+    created_at      TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at      TIMESTAMP,
+    primary key (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+DO
+$$
+    DECLARE
+        part RECORD;
+    BEGIN
+        FOR part IN SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound
+                    FROM pg_inherits i
+                             JOIN pg_class c ON c.oid = i.inhrelid
+                    WHERE i.inhparent = 'page_views_unencoded'::regclass
+            LOOP
+                EXECUTE format('ALTER TABLE %I RENAME TO %I', part.name, part.name || '_unencoded');
+                EXECUTE format('CREATE TABLE %I PARTITION OF page_views %s', part.name, part.bound);
+            END LOOP;
+    END
+$$;
+
+INSERT INTO page_views (id, path_id, title_id, referer_host_id, user_agent_id, ip_address, session_id, user_id,
+                        created_at, updated_at)
+SELECT pv.id, p.id, t.id, h.id, ua.id, pv.ip_address, pv.session_id, pv.user_id, pv.created_at, pv.updated_at
+FROM page_views_unencoded pv
+         JOIN page_view_paths p ON p.path = pv.path
+         LEFT JOIN page_view_titles t ON t.title = pv.title
+         LEFT JOIN page_view_referer_hosts h
+                   ON h.host = left(lower(substring(pv.referer
+                                                    FROM '^[A-Za-z][A-Za-z0-9+.-]*://(?:[^/?#@]*@)?([^/?#:]+)')), 255)
+         LEFT JOIN page_view_user_agents ua ON ua.user_agent = left(pv.user_agent, 500);
+
+DROP TABLE page_views_unencoded;
+
+CREATE INDEX idx_page_views_path_created_at ON page_views (path_id, created_at);
+CREATE INDEX idx_page_views_created_at ON page_views USING brin (created_at);
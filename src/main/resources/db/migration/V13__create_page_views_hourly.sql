@@ -0,0 +1,25 @@
+-- Views and visitor sketch per page and hour, the finest cells of the analytics time series
+CREATE TABLE page_views_hourly
+(
+    path_id        INTEGER   NOT NULL,
+    hour           TIMESTAMP NOT NULL,
+    views          BIGINT    NOT NULL DEFAULT 0,
+    uniques_sketch BYTEA,
+    primary key (path_id, hour)
+);
+
+INSERT INTO page_views_hourly (path_id, hour, views)
+SELECT path_id, date_trunc('hour', created_at), count(*)
+FROM page_views
+GROUP BY path_id, date_trunc('hour', created_at);
+
+-- Pages whose historical visitors still have to be folded into the hourly sketches
+CREATE TABLE page_views_hourly_backfill
+(
+    path_id INTEGER NOT NULL,
+    primary key (path_id)
+);
+
+INSERT INTO page_views_hourly_backfill (path_id)
+SELECT DISTINCT path_id
+FROM page_views;
@@ -0,0 +1,44 @@
+-- Views per day and normalized referrer (host and path), per page and site-wide.
+-- Only the top referrers of a page or of the site are kept per day, the rest is summed into '(other)'.
+CREATE TABLE page_referrers_daily
+(
+    path_id  INTEGER      NOT NULL,
+    day      DATE         NOT NULL,
+    referrer VARCHAR(500) NOT NULL,
+    views    BIGINT       NOT NULL,
+    primary key (path_id, day, referrer)
+);
+
+CREATE TABLE site_referrers_daily
+(
+    day      DATE         NOT NULL,
+    referrer VARCHAR(500) NOT NULL,
+    views    BIGINT       NOT NULL,
+    primary key (day, referrer)
+);
+
+-- Earlier page views only kept the referer host
+INSERT INTO page_referrers_daily (path_id, day, referrer, views)
+SELECT path_id, day, CASE WHEN rank <= 50 THEN referrer ELSE '(other)' END, sum(views)
+FROM (SELECT pv.path_id,
+             pv.created_at::date                                                                      AS day,
+             regexp_replace(h.host, '^www\.', '')                                                     AS referrer,
+             count(*)                                                                                 AS views,
+             row_number() OVER (PARTITION BY pv.path_id, pv.created_at::date ORDER BY count(*) DESC) AS rank
+      FROM page_views pv
+               JOIN page_view_referer_hosts h ON h.id = pv.referer_host_id
+      WHERE h.host <> 'localhost'
+      GROUP BY pv.path_id, pv.created_at::date, regexp_replace(h.host, '^www\.', '')) ranked
+GROUP BY 1, 2, 3;
+
+INSERT INTO site_referrers_daily (day, referrer, views)
+SELECT day, CASE WHEN rank <= 500 THEN referrer ELSE '(other)' END, sum(views)
+FROM (SELECT pv.created_at::date                                                         AS day,
+             regexp_replace(h.host, '^www\.', '')                                        AS referrer,
+             count(*)                                                                    AS views,
+             row_number() OVER (PARTITION BY pv.created_at::date ORDER BY count(*) DESC) AS rank
+      FROM page_views pv
+               JOIN page_view_referer_hosts h ON h.id = pv.referer_host_id
+      WHERE h.host <> 'localhost'
+      GROUP BY pv.created_at::date, regexp_replace(h.host, '^www\.', '')) ranked
+GROUP BY 1, 2;
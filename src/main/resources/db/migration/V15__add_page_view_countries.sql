@@ -0,0 +1,14 @@
+-- ISO 3166 country of the client address, looked up from the configured IP range file as page views are written
+ALTER TABLE page_views ADD COLUMN country_code VARCHAR(2);
+
+-- Views per page, day and country, 'ZZ' for views whose country is unknown
+CREATE TABLE page_views_country_daily
+(
+    path_id      INTEGER    NOT NULL,
+    day          DATE       NOT NULL,
+    country_code VARCHAR(2) NOT NULL,
+    views        BIGINT     NOT NULL,
+    primary key (path_id, day, country_code)
+);
+
+CREATE INDEX idx_page_views_country_daily_day ON page_views_country_daily (day);
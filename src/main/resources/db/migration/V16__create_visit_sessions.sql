@@ -0,0 +1,14 @@
+-- Visit sessions closed by the in-stream sessionizer, one row per session
+CREATE TABLE visit_sessions
+(
+    id               BIGSERIAL PRIMARY KEY,
+    started_at       TIMESTAMP NOT NULL,
+    ended_at         TIMESTAMP NOT NULL,
+    entry_path_id    INTEGER   NOT NULL,
+    exit_path_id     INTEGER   NOT NULL,
+    page_views       INTEGER   NOT NULL,
+    duration_seconds INTEGER   NOT NULL
+);
+
+CREATE INDEX idx_visit_sessions_started_at ON visit_sessions (started_at);
+CREATE INDEX idx_visit_sessions_entry_path_started_at ON visit_sessions (entry_path_id, started_at);
@@ -0,0 +1,27 @@
+-- HyperLogLog sketches of the visitors seen per page and day
+CREATE TABLE page_views_daily
+(
+    path           VARCHAR(500) NOT NULL,
+    day            DATE         NOT NULL,
+    uniques_sketch BYTEA,
+    primary key (path, day)
+);
+
+CREATE INDEX idx_page_views_daily_day ON page_views_daily (day);
+
+-- Running all time, week and month sketches per page
+ALTER TABLE page_analytics_summary
+    ADD COLUMN unique_visitors_sketch       BYTEA,
+    ADD COLUMN unique_visitors_week_sketch  BYTEA,
+    ADD COLUMN unique_visitors_month_sketch BYTEA;
+
+-- Pages whose historical visitors still have to be folded into the sketches
+CREATE TABLE unique_visitor_backfill
+(
+    path VARCHAR(500) NOT NULL,
+    primary key (path)
+);
+
+INSERT INTO unique_visitor_backfill (path)
+SELECT DISTINCT path
+FROM page_views;
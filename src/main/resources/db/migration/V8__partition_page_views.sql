@@ -0,0 +1,49 @@
+-- Convert page_views into a table range partitioned by month of created_at
+ALTER TABLE page_views RENAME TO page_views_unpartitioned;
+ALTER INDEX page_views_pkey RENAME TO page_views_unpartitioned_pkey;
+
+CREATE TABLE page_views
+(
+    id         BIGINT       NOT NULL DEFAULT nextval('page_view_id_seq'),
+    path       VARCHAR(500) NOT NULL,
+    title      VARCHAR(500),
+    referer    VARCHAR(1000),
+    user_agent TEXT,
+    ip_address VARCHAR(45),
+    session_id VARCHAR(64),
+    user_id    BIGINT,
+    created_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    primary key (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Rows outside of every monthly partition land here until a partition is created for them
+CREATE TABLE page_views_default PARTITION OF page_views DEFAULT;
+
+-- Monthly partitions from the oldest existing page view up to a few months ahead
+DO
+$$
+    DECLARE
+        month_start DATE := date_trunc('month', coalesce((SELECT min(created_at) FROM page_views_unpartitioned),
+                                                         CURRENT_TIMESTAMP));
+        last_month  DATE := date_trunc('month', CURRENT_TIMESTAMP + INTERVAL '3 months');
+    BEGIN
+        WHILE month_start <= last_month
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF page_views FOR VALUES FROM (%L) TO (%L)',
+                               'page_views_' || to_char(month_start, '"y"YYYY"m"MM'),
+                               month_start,
+                               month_start + INTERVAL '1 month');
+                month_start := month_start + INTERVAL '1 month';
+            END LOOP;
+    END
+$$;
+
+INSERT INTO page_views (id, path, title, referer, user_agent, ip_address, session_id, user_id, created_at, updated_at)
+SELECT id, path, title, referer, user_agent, ip_address, session_id, user_id, created_at, updated_at
+FROM page_views_unpartitioned;
+
+DROP TABLE page_views_unpartitioned;
+
+CREATE INDEX idx_page_views_path_created_at ON page_views (path, created_at);
+CREATE INDEX idx_page_views_created_at ON page_views USING brin (created_at);
@@ -0,0 +1,16 @@
+-- Views per page and day, maintained as page views are ingested
+ALTER TABLE page_views_daily
+    ADD COLUMN views BIGINT NOT NULL DEFAULT 0;
+
+-- Days whose historical page views still have to be counted into page_views_daily.
+-- Views with an id above max_page_view_id were recorded after this migration and are already counted.
+CREATE TABLE page_views_daily_backfill
+(
+    day               DATE   NOT NULL,
+    max_page_view_id  BIGINT NOT NULL,
+    primary key (day)
+);
+
+INSERT INTO page_views_daily_backfill (day, max_page_view_id)
+SELECT DISTINCT created_at::date, (SELECT max(id) FROM page_views)
+FROM page_views;
@@ -0,0 +1,45 @@
+// Reports page views to the analytics beacon endpoint, so that pages can be served from a cache.
+// Views are queued and sent in one beacon shortly after they happen or when the page is hidden.
+(function () {
+    var script = document.currentScript;
+    var endpoint = (script && script.dataset.endpoint) || "/api/pv";
+    var queue = [];
+    var timer = null;
+
+    function flush() {
+        if (timer) {
+            clearTimeout(timer);
+            timer = null;
+        }
+        if (queue.length === 0) {
+            return;
+        }
+        var payload = JSON.stringify(queue.splice(0, queue.length));
+        // text/plain keeps the beacon a simple request without a CORS preflight
+        var body = new Blob([payload], {type: "text/plain"});
+        if (!(navigator.sendBeacon && navigator.sendBeacon(endpoint, body))) {
+            fetch(endpoint, {method: "POST", body: body, keepalive: true, credentials: "same-origin"});
+        }
+    }
+
+    function track() {
+        queue.push({path: location.pathname, referrer: document.referrer || null});
+        if (!timer) {
+            timer = setTimeout(flush, 1000);
+        }
+    }
+
+    document.addEventListener("visibilitychange", function () {
+        if (document.visibilityState === "hidden") {
+            flush();
+        }
+    });
+    window.addEventListener("pagehide", flush);
+    // Pages restored from the back/forward cache are viewed again without loading this script
+    window.addEventListener("pageshow", function (event) {
+        if (event.persisted) {
+            track();
+        }
+    });
+    track();
+})();
@@ -0,0 +1,109 @@
+package com.sivalabs.blog.admin.jobs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sivalabs.blog.ApplicationProperties.EventArchiveProperties;
+import com.sivalabs.blog.BaseServiceTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class EventPublicationArchiveCompactionJobTest extends BaseServiceTest {
+    private static final String PAGE_VIEW_EVENT = "com.sivalabs.blog.analytics.events.PageViewEvent";
+    private static final String COMMENT_EVENT = "com.sivalabs.blog.CommentAddedEvent";
+
+    @Autowired
+    private EventPublicationArchiveRepository archiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        // Same shape as the archive table created by Spring Modulith's JDBC event registry
+        jdbcTemplate.execute(
+                """
+                create table if not exists event_publication_archive (
+                    id               uuid not null primary key,
+                    listener_id      text not null,
+                    event_type       text not null,
+                    serialized_event text not null,
+                    publication_date timestamp with time zone not null,
+                    completion_date  timestamp with time zone
+                )
+                """);
+        jdbcTemplate.update("delete from event_publication_archive");
+        jdbcTemplate.update("delete from event_publication_archive_stats");
+    }
+
+    @Test
+    void shouldPurgeExpiredPublicationsInBatchesAndKeepDailyCounts() {
+        var now = Instant.now();
+        archive(PAGE_VIEW_EVENT, 5, now.minus(Duration.ofHours(3)));
+        archive(PAGE_VIEW_EVENT, 2, now.minus(Duration.ofMinutes(10)));
+        archive(COMMENT_EVENT, 3, now.minus(Duration.ofDays(3)));
+        archive(COMMENT_EVENT, 4, now.minus(Duration.ofDays(10)));
+
+        var retention = Map.of(PAGE_VIEW_EVENT, Duration.ofHours(1));
+        var properties = new EventArchiveProperties("-", Duration.ofDays(7), retention, 2, true);
+        var job = new EventPublicationArchiveCompactionJob(archiveRepository, properties, meterRegistry);
+
+        assertThat(job.compactArchive()).isEqualTo(9);
+
+        assertThat(countArchived(PAGE_VIEW_EVENT)).isEqualTo(2);
+        assertThat(countArchived(COMMENT_EVENT)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+                        "select sum(publications) from event_publication_archive_stats where event_type = ?",
+                        Long.class,
+                        PAGE_VIEW_EVENT))
+                .isEqualTo(5);
+        assertThat(meterRegistry
+                        .get("event.publication.archive.purged")
+                        .tag("event.type", COMMENT_EVENT)
+                        .counter()
+                        .count())
+                .isEqualTo(4);
+    }
+
+    @Test
+    void shouldOnlyDeleteWhenAggregationIsDisabled() {
+        archive(COMMENT_EVENT, 3, Instant.now().minus(Duration.ofDays(10)));
+
+        var properties = new EventArchiveProperties("-", Duration.ofDays(7), Map.of(), 100, false);
+        var job = new EventPublicationArchiveCompactionJob(archiveRepository, properties, meterRegistry);
+
+        assertThat(job.compactArchive()).isEqualTo(3);
+        assertThat(countArchived(COMMENT_EVENT)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from event_publication_archive_stats", Long.class))
+                .isZero();
+    }
+
+    private void archive(String eventType, int count, Instant completedAt) {
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update(
+                    """
+                    insert into event_publication_archive(id, listener_id, event_type, serialized_event,
+                                                          publication_date, completion_date)
+                    values (?, 'listener', ?, '{}', ?, ?)
+                    """,
+                    UUID.randomUUID(),
+                    eventType,
+                    Timestamp.from(completedAt),
+                    Timestamp.from(completedAt));
+        }
+    }
+
+    private long countArchived(String eventType) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from event_publication_archive where event_type = ?", Long.class, eventType);
+    }
+}
@@ -0,0 +1,71 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.pageView;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ActiveReadersTrackerTests {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+    private final MutableClock clock = new MutableClock(START);
+    private final ActiveReadersTracker tracker = new ActiveReadersTracker(60, clock);
+
+    @Test
+    void shouldCountReadersOnTheirLastPage() {
+        tracker.record(List.of(
+                pageView("/posts/one", "visitor-1", START.minusSeconds(20)),
+                pageView("/posts/one", "visitor-2", START.minusSeconds(10)),
+                pageView("/posts/two", "visitor-1", START.minusSeconds(5)),
+                pageView("/posts/two", "visitor-3", START)));
+
+        var activeReaders = tracker.getActiveReaders(10);
+
+        assertThat(activeReaders.total()).isEqualTo(3);
+        assertThat(activeReaders.pages())
+                .containsExactly(new ActiveReaders.Page("/posts/two", 2), new ActiveReaders.Page("/posts/one", 1));
+    }
+
+    @Test
+    void shouldExpireReadersOnceTheirLastViewLeavesTheWindow() {
+        tracker.record(List.of(
+                pageView("/posts/one", "visitor-1", START.minusSeconds(50)),
+                pageView("/posts/one", "visitor-2", START.minusSeconds(30)),
+                pageView("/posts/two", "visitor-2", START.minusSeconds(5))));
+
+        clock.advanceSeconds(15);
+        assertThat(tracker.getActiveReaders(10).pages()).containsExactly(new ActiveReaders.Page("/posts/two", 1));
+
+        clock.advanceSeconds(35);
+        assertThat(tracker.getActiveReaders(10).pages()).containsExactly(new ActiveReaders.Page("/posts/two", 1));
+
+        clock.advanceSeconds(10);
+        var activeReaders = tracker.getActiveReaders(10);
+        assertThat(activeReaders.total()).isZero();
+        assertThat(activeReaders.pages()).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreViewsOlderThanTheWindowAndOutOfOrderViews() {
+        tracker.record(List.of(
+                pageView("/posts/old", "visitor-1", START.minusMinutes(5)),
+                pageView("/posts/new", "visitor-2", START.minusSeconds(1)),
+                pageView("/posts/older", "visitor-2", START.minusSeconds(30))));
+
+        assertThat(tracker.getActiveReaders(10).pages()).containsExactly(new ActiveReaders.Page("/posts/new", 1));
+    }
+
+    @Test
+    void shouldReuseSlotsAcrossManyWindows() {
+        for (int i = 0; i < 300; i++) {
+            tracker.record(List.of(pageView("/posts/" + (i % 3), "visitor-" + (i % 7), clock.now())));
+            clock.advanceSeconds(1);
+        }
+
+        var activeReaders = tracker.getActiveReaders(10);
+        assertThat(activeReaders.total()).isEqualTo(7);
+        assertThat(activeReaders.pages()).extracting(ActiveReaders.Page::readers).containsOnly(2, 2, 3);
+    }
+}
@@ -0,0 +1,79 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sivalabs.blog.BaseServiceTest;
+import com.sivalabs.blog.shared.entities.PageAnalyticsSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// Page views flushed by other tests end up in the summaries too, so the pages saved here get view counts
+// no other page reaches and the totals are compared to those of a snapshot taken before
+class AnalyticsSnapshotServiceTest extends BaseServiceTest {
+    private static final long MANY_VIEWS = 1_000_000_000L;
+
+    @Autowired
+    private AnalyticsSnapshotService analyticsSnapshotService;
+
+    @Autowired
+    private PageAnalyticsSummaryRepository summaryRepository;
+
+    @Test
+    void shouldComputeTotalsAndTopPagesInSnapshot() {
+        var before = analyticsSnapshotService.refresh().totalAnalytics();
+        saveSummary("/posts/snapshot-one", MANY_VIEWS + 100L, MANY_VIEWS + 10L, 40L);
+        saveSummary("/posts/snapshot-two", MANY_VIEWS + 300L, MANY_VIEWS + 5L, 60L);
+
+        var snapshot = analyticsSnapshotService.refresh();
+
+        var totals = snapshot.totalAnalytics();
+        assertThat(totals.path()).isEqualTo("total");
+        assertThat(totals.viewsAllTime() - before.viewsAllTime()).isEqualTo(2 * MANY_VIEWS + 400L);
+        assertThat(totals.viewsToday() - before.viewsToday()).isEqualTo(2 * MANY_VIEWS + 15L);
+        assertThat(totals.uniqueVisitorsAllTime() - before.uniqueVisitorsAllTime()).isEqualTo(100L);
+        assertThat(snapshot.topPagesAllTime())
+                .extracting(TopPageDTO::path)
+                .startsWith("/posts/snapshot-two", "/posts/snapshot-one");
+        assertThat(snapshot.topPagesToday())
+                .extracting(TopPageDTO::path)
+                .startsWith("/posts/snapshot-one", "/posts/snapshot-two");
+    }
+
+    @Test
+    void shouldServeCachedSnapshotWithinTtl() {
+        var snapshot = analyticsSnapshotService.refresh();
+        saveSummary("/posts/snapshot-late", 3 * MANY_VIEWS, 3 * MANY_VIEWS, 5L);
+
+        var cached = analyticsSnapshotService.getSnapshot();
+
+        assertThat(cached).isSameAs(snapshot);
+        assertThat(cached.totalAnalytics().viewsAllTime())
+                .isEqualTo(snapshot.totalAnalytics().viewsAllTime())
+                .isLessThan(3 * MANY_VIEWS);
+        assertThat(cached.topPagesAllTime()).extracting(TopPageDTO::path).doesNotContain("/posts/snapshot-late");
+        assertThat(analyticsSnapshotService.refresh().topPagesAllTime())
+                .extracting(TopPageDTO::path)
+                .startsWith("/posts/snapshot-late");
+    }
+
+    @Test
+    void shouldCacheReportsPerPageAndNumberOfDays() {
+        var rangeReport = analyticsSnapshotService.getRangeReport(7);
+        var pageReport = analyticsSnapshotService.getPageReport("/posts/snapshot-one", 7);
+
+        assertThat(analyticsSnapshotService.getRangeReport(7)).isSameAs(rangeReport);
+        assertThat(analyticsSnapshotService.getRangeReport(30)).isNotSameAs(rangeReport);
+        assertThat(analyticsSnapshotService.getPageReport("/posts/snapshot-one", 7)).isSameAs(pageReport);
+        assertThat(analyticsSnapshotService.getPageReport("/posts/snapshot-two", 7)).isNotSameAs(pageReport);
+    }
+
+    private void saveSummary(String path, long totalViews, long viewsToday, long uniqueVisitors) {
+        var summary = new PageAnalyticsSummary(path);
+        summary.setTotalViews(totalViews);
+        summary.setViewsToday(viewsToday);
+        summary.setViewsThisWeek(viewsToday);
+        summary.setViewsThisMonth(viewsToday);
+        summary.setUniqueVisitorsTotal(uniqueVisitors);
+        summaryRepository.save(summary);
+    }
+}
@@ -0,0 +1,76 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.aPageView;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sivalabs.blog.BaseServiceTest;
+import com.sivalabs.blog.analytics.domain.IpCountryRangeFileWriter.IpCountryRange;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+class CountryViewsServiceTest extends BaseServiceTest {
+
+    @Autowired
+    private PageViewService pageViewService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void ipCountryFile(DynamicPropertyRegistry registry) throws IOException {
+        var file = Files.createTempFile("ip-country", ".bin");
+        file.toFile().deleteOnExit();
+        IpCountryRangeFileWriter.write(
+                file,
+                List.of(
+                        new IpCountryRange("81.2.69.0", "81.2.69.255", "GB"),
+                        new IpCountryRange("203.0.113.0", "203.0.113.255", "NL"),
+                        new IpCountryRange("2001:db8::", "2001:db8::ffff", "DE")));
+        registry.add("app.analytics.ip-country-file", file::toString);
+    }
+
+    @Test
+    void shouldTagPageViewsWithCountryAndRollThemUp() {
+        var path = "/posts/country-rollup";
+        var now = LocalDateTime.now();
+        pageViewService.recordPageViews(List.of(
+                aPageView(path).ipAddress("81.2.69.142").timestamp(now).build(),
+                aPageView(path).ipAddress("81.2.69.10").timestamp(now).build(),
+                aPageView(path).ipAddress("203.0.113.7").timestamp(now).build(),
+                aPageView(path).ipAddress("2001:db8::42").timestamp(now).build(),
+                aPageView(path).ipAddress("192.0.2.1").timestamp(now).build(),
+                aPageView(path).ipAddress(null).timestamp(now).build()));
+
+        var countryCodes = jdbcTemplate.queryForList(
+                """
+                select pv.country_code from page_views pv join page_view_paths p on p.id = pv.path_id
+                where p.path = ? order by pv.id
+                """,
+                String.class,
+                path);
+        assertThat(countryCodes).containsExactly("GB", "GB", "NL", "DE", null, null);
+
+        var viewsByCountry = analyticsService.getViewsByCountry(path, 1, 10);
+        assertThat(viewsByCountry)
+                .containsExactly(
+                        new CountryViewsDTO("GB", 2),
+                        new CountryViewsDTO("ZZ", 2),
+                        new CountryViewsDTO("DE", 1),
+                        new CountryViewsDTO("NL", 1));
+        assertThat(viewsByCountry.getFirst().countryName()).isEqualTo("United Kingdom");
+        assertThat(viewsByCountry.get(1).countryName()).isEqualTo("Unknown");
+        assertThat(analyticsService.getViewsByCountry(1, 300))
+                .extracting(CountryViewsDTO::countryCode)
+                .contains("GB", "NL", "DE", "ZZ");
+    }
+}
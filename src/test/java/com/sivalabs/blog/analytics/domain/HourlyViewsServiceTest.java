@@ -0,0 +1,104 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.pageView;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sivalabs.blog.BaseServiceTest;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class HourlyViewsServiceTest extends BaseServiceTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 3, 2, 0, 0);
+
+    @Autowired
+    private PageViewService pageViewService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private HourlyViewsService hourlyViewsService;
+
+    @Autowired
+    private PageViewJdbcRepository pageViewJdbcRepository;
+
+    @Autowired
+    private PageViewDictionaries dictionaries;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldSumHourlyCellsIntoTimeSeries() {
+        var path = "/posts/hourly-cube";
+        pageViewService.recordPageViews(List.of(
+                pageView(path, "session-1", MONDAY.withHour(10).withMinute(15)),
+                pageView(path, "session-2", MONDAY.withHour(10).withMinute(45)),
+                pageView(path, "session-1", MONDAY.withHour(11).withMinute(5)),
+                pageView(path, "session-3", MONDAY.plusDays(1).withHour(9)),
+                pageView(path, "session-1", MONDAY.plusWeeks(1).withHour(8))));
+
+        assertThat(analyticsService.getTimeSeries(
+                        path, MONDAY.withHour(10), MONDAY.withHour(13), TimeGranularity.HOUR))
+                .containsExactly(
+                        new TimeSeriesPoint(MONDAY.withHour(10), 2, 2),
+                        new TimeSeriesPoint(MONDAY.withHour(11), 1, 1),
+                        new TimeSeriesPoint(MONDAY.withHour(12), 0, 0));
+        assertThat(analyticsService.getTimeSeries(path, MONDAY.withHour(10), MONDAY.plusDays(2), TimeGranularity.DAY))
+                .containsExactly(
+                        new TimeSeriesPoint(MONDAY, 3, 2), new TimeSeriesPoint(MONDAY.plusDays(1), 1, 1));
+        assertThat(analyticsService.getTimeSeries(path, MONDAY, MONDAY.plusWeeks(2), TimeGranularity.WEEK))
+                .containsExactly(
+                        new TimeSeriesPoint(MONDAY, 4, 3), new TimeSeriesPoint(MONDAY.plusWeeks(1), 1, 1));
+    }
+
+    @Test
+    void shouldCombineDailyAndHourlyCellsForPartialDays() {
+        var path = "/posts/partial-days";
+        pageViewService.recordPageViews(List.of(
+                pageView(path, "session-1", MONDAY.withHour(23)),
+                pageView(path, "session-2", MONDAY.plusDays(1).withHour(12)),
+                pageView(path, "session-3", MONDAY.plusDays(2).withHour(1)),
+                pageView(path, "session-4", MONDAY.plusDays(2).withHour(5))));
+
+        var points = analyticsService.getTimeSeries(
+                path, MONDAY.withHour(22), MONDAY.plusDays(2).withHour(3), TimeGranularity.DAY);
+
+        assertThat(points)
+                .containsExactly(
+                        new TimeSeriesPoint(MONDAY, 1, 1),
+                        new TimeSeriesPoint(MONDAY.plusDays(1), 1, 1),
+                        new TimeSeriesPoint(MONDAY.plusDays(2), 1, 1));
+    }
+
+    @Test
+    void shouldRejectTimeSeriesWithTooManyPoints() {
+        assertThatThrownBy(() -> analyticsService.getTimeSeries(
+                        "/posts", MONDAY, MONDAY.plusYears(1), TimeGranularity.HOUR))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldBackfillHourlySketchesFromPageViews() {
+        var path = "/posts/hourly-backfill";
+        pageViewJdbcRepository.insertAll(List.of(
+                pageView(path, "session-1", MONDAY.withHour(7)),
+                pageView(path, "session-2", MONDAY.withHour(7).withMinute(30)),
+                pageView(path, "session-2", MONDAY.withHour(8))));
+        var pathId = dictionaries.resolveIds(PageViewDictionary.PATHS, List.of(path)).get(path);
+        jdbcTemplate.update("insert into page_views_hourly_backfill(path_id) values (?)", pathId);
+
+        hourlyViewsService.backfillHistoricalVisitors();
+
+        assertThat(analyticsService.getTimeSeries(path, MONDAY.withHour(7), MONDAY.withHour(9), TimeGranularity.HOUR))
+                .extracting(TimeSeriesPoint::uniqueVisitors)
+                .containsExactly(2L, 1L);
+        assertThat(jdbcTemplate.queryForObject(
+                        "select count(*) from page_views_hourly_backfill where path_id = ?", Integer.class, pathId))
+                .isZero();
+    }
+}
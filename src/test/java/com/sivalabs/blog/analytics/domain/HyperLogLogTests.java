@@ -0,0 +1,97 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTests {
+
+    @Test
+    void shouldEstimateCardinalityWithinExpectedError() {
+        var sketch = new HyperLogLog(12);
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add("visitor-" + i);
+            sketch.add("visitor-" + i);
+        }
+
+        assertThat(sketch.cardinality()).isCloseTo(100_000L, within(5_000L));
+    }
+
+    @Test
+    void shouldCountSmallCardinalitiesExactlyEnough() {
+        var sketch = new HyperLogLog(12);
+        sketch.add("session1");
+        sketch.add("session2");
+        sketch.add("session1");
+
+        assertThat(sketch.cardinality()).isEqualTo(2L);
+        assertThat(new HyperLogLog(12).cardinality()).isZero();
+    }
+
+    @Test
+    void shouldMergeSketchesAsUnion() {
+        var monday = new HyperLogLog(12);
+        var tuesday = new HyperLogLog(12);
+        for (int i = 0; i < 10_000; i++) {
+            monday.add("visitor-" + i);
+            tuesday.add("visitor-" + (i + 5_000));
+        }
+
+        var week = monday.copy().merge(tuesday);
+
+        assertThat(week.cardinality()).isCloseTo(15_000L, within(750L));
+        assertThat(monday.cardinality()).isCloseTo(10_000L, within(500L));
+    }
+
+    @Test
+    void shouldMergeSketchesWithDifferentPrecision() {
+        var precise = new HyperLogLog(14);
+        var coarse = new HyperLogLog(10);
+        for (int i = 0; i < 20_000; i++) {
+            precise.add("visitor-" + i);
+            coarse.add("visitor-" + (i + 10_000));
+        }
+
+        var merged = precise.merge(coarse);
+
+        assertThat(merged.precision()).isEqualTo(10);
+        assertThat(merged.cardinality()).isCloseTo(30_000L, within(3_000L));
+    }
+
+    @Test
+    void shouldRoundTripThroughBytes() {
+        var sketch = new HyperLogLog(11);
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add("visitor-" + i);
+        }
+
+        var restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertThat(restored.precision()).isEqualTo(11);
+        assertThat(restored.cardinality()).isEqualTo(sketch.cardinality());
+    }
+
+    @Test
+    void shouldStoreSmallSketchesSparsely() {
+        var sketch = new HyperLogLog(14);
+        for (int i = 0; i < 25; i++) {
+            sketch.add("visitor-" + i);
+        }
+
+        var bytes = sketch.toBytes();
+        var restored = HyperLogLog.fromBytes(bytes);
+
+        assertThat(bytes.length).isLessThan(100);
+        assertThat(restored.precision()).isEqualTo(14);
+        assertThat(restored.cardinality()).isEqualTo(sketch.cardinality()).isEqualTo(25L);
+        assertThat(HyperLogLog.fromBytes(new HyperLogLog(12).toBytes()).isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldRejectInvalidPrecision() {
+        assertThatThrownBy(() -> new HyperLogLog(3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[] {12, 0})).isInstanceOf(IllegalArgumentException.class);
+    }
+}
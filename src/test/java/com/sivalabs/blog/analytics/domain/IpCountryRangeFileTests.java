@@ -0,0 +1,147 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sivalabs.blog.analytics.domain.IpCountryRangeFileWriter.IpCountryRange;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IpCountryRangeFileTests {
+
+    @TempDir
+    Path directory;
+
+    private IpCountryRangeFile rangeFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var file = directory.resolve("ip-country.bin");
+        IpCountryRangeFileWriter.write(
+                file,
+                List.of(
+                        new IpCountryRange("81.2.69.0", "81.2.69.255", "gb"),
+                        new IpCountryRange("1.0.0.0", "1.0.0.255", "AU"),
+                        new IpCountryRange("203.0.113.0", "203.0.113.127", "NL"),
+                        new IpCountryRange("255.255.255.0", "255.255.255.255", "US"),
+                        new IpCountryRange("2001:db8::", "2001:db8::ffff:ffff", "DE"),
+                        new IpCountryRange("2a00:1450::", "2a00:1450:ffff:ffff:ffff:ffff:ffff:ffff", "IE"),
+                        new IpCountryRange("10.0.0.0", "10.255.255.255", "-")));
+        rangeFile = IpCountryRangeFile.open(file);
+    }
+
+    @Test
+    void shouldFindCountryOfIpv4Addresses() {
+        assertThat(rangeFile.rangeCount()).isEqualTo(6);
+        assertThat(rangeFile.countryOf("1.0.0.0")).isEqualTo("AU");
+        assertThat(rangeFile.countryOf("1.0.0.255")).isEqualTo("AU");
+        assertThat(rangeFile.countryOf("81.2.69.142")).isEqualTo("GB");
+        assertThat(rangeFile.countryOf("203.0.113.127")).isEqualTo("NL");
+        assertThat(rangeFile.countryOf("203.0.113.128")).isNull();
+        assertThat(rangeFile.countryOf("255.255.255.255")).isEqualTo("US");
+        assertThat(rangeFile.countryOf("0.255.255.255")).isNull();
+        assertThat(rangeFile.countryOf("10.1.2.3")).isNull();
+    }
+
+    @Test
+    void shouldFindCountryOfIpv6Addresses() {
+        assertThat(rangeFile.countryOf("2001:db8::1")).isEqualTo("DE");
+        assertThat(rangeFile.countryOf("2001:0DB8:0000:0000:0000:0000:ffff:ffff")).isEqualTo("DE");
+        assertThat(rangeFile.countryOf("2001:db8::1:0:0")).isNull();
+        assertThat(rangeFile.countryOf("2a00:1450:4001:82a::200e")).isEqualTo("IE");
+        assertThat(rangeFile.countryOf("fe80::1%eth0")).isNull();
+        assertThat(rangeFile.countryOf("::ffff:81.2.69.142")).isEqualTo("GB");
+    }
+
+    @Test
+    void shouldReturnSameCountryCodeInstanceForEveryLookup() {
+        assertThat(rangeFile.countryOf("81.2.69.1")).isSameAs(rangeFile.countryOf("81.2.69.2"));
+    }
+
+    @Test
+    void shouldNotFindCountryOfMalformedAddresses() {
+        assertThat(rangeFile.countryOf(null)).isNull();
+        assertThat(rangeFile.countryOf("")).isNull();
+        assertThat(rangeFile.countryOf("81.2.69")).isNull();
+        assertThat(rangeFile.countryOf("81.2.69.256")).isNull();
+        assertThat(rangeFile.countryOf("81.2.69.1.5")).isNull();
+        assertThat(rangeFile.countryOf("unknown")).isNull();
+        assertThat(rangeFile.countryOf("2001:db8:::1")).isNull();
+        assertThat(rangeFile.countryOf("2001:db8::1::2")).isNull();
+        assertThat(rangeFile.countryOf("1:2:3:4:5:6:7")).isNull();
+        assertThat(rangeFile.countryOf("2001:db8:")).isNull();
+    }
+
+    @Test
+    void shouldParseIpv6Addresses() {
+        long[] address = new long[4];
+
+        assertThat(IpAddresses.parseIpv6("::", address)).isTrue();
+        assertThat(address[0]).isZero();
+        assertThat(address[1]).isZero();
+
+        assertThat(IpAddresses.parseIpv6("::1", address)).isTrue();
+        assertThat(address[0]).isZero();
+        assertThat(address[1]).isEqualTo(1);
+
+        assertThat(IpAddresses.parseIpv6("1:2:3:4:5:6:7:8", address)).isTrue();
+        assertThat(address[0]).isEqualTo(0x0001000200030004L);
+        assertThat(address[1]).isEqualTo(0x0005000600070008L);
+
+        assertThat(IpAddresses.parseIpv6("ffff::", address)).isTrue();
+        assertThat(address[0]).isEqualTo(0xFFFF000000000000L);
+        assertThat(address[1]).isZero();
+
+        assertThat(IpAddresses.parseIpv6("1:2:3::4.5.6.7", address)).isTrue();
+        assertThat(address[0]).isEqualTo(0x0001000200030000L);
+        assertThat(address[1]).isEqualTo(0x0000000004050607L);
+    }
+
+    @Test
+    void shouldWriteRangesReadFromCsv() throws IOException {
+        var csv = Files.writeString(
+                directory.resolve("ranges.csv"),
+                """
+                start,end,country
+                "1.0.0.0","1.0.0.255","AU"
+                81.2.69.0,81.2.69.255,gb
+
+                2001:db8::,2001:db8::ffff:ffff,DE
+                10.0.0.0,10.255.255.255,-
+                """);
+        var file = directory.resolve("from-csv.bin");
+
+        var ranges = IpCountryRangeFileWriter.readCsv(csv);
+        int written = IpCountryRangeFileWriter.write(file, ranges);
+
+        assertThat(ranges).hasSize(5);
+        assertThat(written).isEqualTo(3);
+        var fromCsv = IpCountryRangeFile.open(file);
+        assertThat(fromCsv.rangeCount()).isEqualTo(3);
+        assertThat(fromCsv.countryOf("1.0.0.7")).isEqualTo("AU");
+        assertThat(fromCsv.countryOf("81.2.69.142")).isEqualTo("GB");
+        assertThat(fromCsv.countryOf("2001:db8::1")).isEqualTo("DE");
+        assertThat(fromCsv.countryOf("10.1.2.3")).isNull();
+    }
+
+    @Test
+    void shouldRejectCsvRowsWithoutThreeColumns() throws IOException {
+        var csv = Files.writeString(directory.resolve("ranges.csv"), "1.0.0.0,1.0.0.255,AU\n81.2.69.0;GB\n");
+
+        assertThatThrownBy(() -> IpCountryRangeFileWriter.readCsv(csv))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 2");
+    }
+
+    @Test
+    void shouldRejectFilesThatAreNotRangeFiles() throws IOException {
+        var file = Files.write(directory.resolve("other.bin"), new byte[32]);
+
+        assertThatThrownBy(() -> IpCountryRangeFile.open(file)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
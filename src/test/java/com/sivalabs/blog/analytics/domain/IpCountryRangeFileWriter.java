@@ -0,0 +1,104 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+// Writes the binary range file read by IpCountryRangeFile, e.g. from a "start,end,country" CSV such as the
+// DB-IP IP to Country Lite database. Run with: main() from the IDE, or
+// java -cp target/test-classes:target/classes com.sivalabs.blog.analytics.domain.IpCountryRangeFileWriter \
+//     ranges.csv ip-country.bin
+public final class IpCountryRangeFileWriter {
+
+    private IpCountryRangeFileWriter() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: IpCountryRangeFileWriter <ranges.csv> <ip-country.bin>");
+        }
+        var ranges = readCsv(Path.of(args[0]));
+        int written = write(Path.of(args[1]), ranges);
+        System.out.printf(
+                "Wrote %d ranges to %s, skipped %d without a country%n", written, args[1], ranges.size() - written);
+    }
+
+    // Rows of at least three columns, optionally quoted. A header row is read as a range without a country.
+    static List<IpCountryRange> readCsv(Path file) throws IOException {
+        List<IpCountryRange> ranges = new ArrayList<>();
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                var columns = line.replace("\"", "").split(",");
+                if (columns.length < 3) {
+                    throw new IllegalArgumentException("Expected start,end,country on line %d: %s"
+                            .formatted(lineNumber, line));
+                }
+                ranges.add(new IpCountryRange(columns[0].strip(), columns[1].strip(), columns[2].strip()));
+            }
+        }
+        return ranges;
+    }
+
+    // Ranges must not overlap, they are sorted by start address here. Returns how many ranges had a country code
+    // and were written, the others (such as "-" or a header row) are left out.
+    public static int write(Path file, List<IpCountryRange> ranges) throws IOException {
+        List<long[]> ipv4 = new ArrayList<>();
+        List<long[]> ipv6 = new ArrayList<>();
+        for (var range : ranges) {
+            var country = range.countryCode().toUpperCase(Locale.ROOT);
+            if (!country.matches("[A-Z]{2}")) {
+                continue;
+            }
+            long code = (country.charAt(0) << 8) | country.charAt(1);
+            long start = IpAddresses.parseIpv4(range.start(), 0, range.start().length());
+            long end = IpAddresses.parseIpv4(range.end(), 0, range.end().length());
+            if (start != IpAddresses.INVALID && end != IpAddresses.INVALID) {
+                ipv4.add(new long[] {start, end, code});
+                continue;
+            }
+            long[] startIpv6 = new long[4];
+            long[] endIpv6 = new long[4];
+            if (!IpAddresses.parseIpv6(range.start(), startIpv6) || !IpAddresses.parseIpv6(range.end(), endIpv6)) {
+                throw new IllegalArgumentException("Invalid IP range " + range.start() + " - " + range.end());
+            }
+            ipv6.add(new long[] {startIpv6[0], startIpv6[1], endIpv6[0], endIpv6[1], code});
+        }
+        ipv4.sort(Comparator.comparingLong(range -> range[0]));
+        ipv6.sort((a, b) -> IpCountryRangeFile.compare(a[0], a[1], b[0], b[1]));
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(IpCountryRangeFile.MAGIC);
+            out.writeByte(IpCountryRangeFile.VERSION);
+            out.write(new byte[3]);
+            out.writeInt(ipv4.size());
+            out.writeInt(ipv6.size());
+            for (var range : ipv4) {
+                out.writeInt((int) range[0]);
+                out.writeInt((int) range[1]);
+                out.writeShort((int) range[2]);
+            }
+            for (var range : ipv6) {
+                out.writeLong(range[0]);
+                out.writeLong(range[1]);
+                out.writeLong(range[2]);
+                out.writeLong(range[3]);
+                out.writeShort((int) range[4]);
+            }
+        }
+        return ipv4.size() + ipv6.size();
+    }
+
+    public record IpCountryRange(String start, String end, String countryCode) {}
+}
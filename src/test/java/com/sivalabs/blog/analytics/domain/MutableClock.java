@@ -0,0 +1,43 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+// A UTC clock the test moves by hand
+final class MutableClock extends Clock {
+    private Instant instant;
+
+    MutableClock(LocalDateTime start) {
+        set(start);
+    }
+
+    void set(LocalDateTime now) {
+        instant = now.toInstant(ZoneOffset.UTC);
+    }
+
+    void advanceSeconds(long seconds) {
+        instant = instant.plusSeconds(seconds);
+    }
+
+    LocalDateTime now() {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
@@ -0,0 +1,64 @@
+package com.sivalabs.blog.analytics.domain;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Eight request threads counting views of the same viral post: PageViewCounters against a single lock guarding
+// the count, which is how every view serializes when it updates the same summary row. Run with: main() from the
+// IDE, or java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main PageViewCountersBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class PageViewCountersBenchmark {
+    private static final String HOT_PATH = "/posts/viral-post";
+
+    private PageViewCounters counters;
+    private Map<String, Long> lockedCounts;
+    private LocalDateTime viewedAt;
+
+    @Setup
+    public void setUp() {
+        counters = new PageViewCounters();
+        lockedCounts = new HashMap<>();
+        viewedAt = LocalDateTime.now();
+    }
+
+    @Benchmark
+    public void stripedCounters() {
+        counters.increment(HOT_PATH, viewedAt);
+    }
+
+    @Benchmark
+    public void singleLock() {
+        synchronized (lockedCounts) {
+            lockedCounts.merge(HOT_PATH, 1L, Long::sum);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(PageViewCountersBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
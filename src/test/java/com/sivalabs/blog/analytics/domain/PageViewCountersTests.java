@@ -0,0 +1,150 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class PageViewCountersTests {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 14, 12, 0);
+    private static final ReportingPeriods PERIODS = ReportingPeriods.at(NOW);
+
+    private final PageViewCounters counters = new PageViewCounters();
+
+    @Test
+    void shouldFlushDeltasClassifiedByReportingPeriod() {
+        counters.increment("/posts/hot", NOW);
+        counters.increment("/posts/hot", NOW.minusHours(1));
+        counters.increment("/posts/hot", NOW.minusDays(2));
+        counters.increment("/posts/hot", NOW.minusMonths(2));
+
+        var increments = flush();
+
+        assertThat(increments).containsExactly(new SummaryIncrement("/posts/hot", 4, 2, 3, 3, NOW));
+    }
+
+    @Test
+    void shouldOnlyFlushViewsAddedSinceTheLastFlush() {
+        counters.increment("/posts/hot", NOW);
+        flush();
+        counters.increment("/posts/hot", NOW.plusMinutes(1));
+        counters.increment("/posts/cold", NOW);
+
+        assertThat(flush())
+                .containsExactlyInAnyOrder(
+                        new SummaryIncrement("/posts/hot", 1, 1, 1, 1, NOW.plusMinutes(1)),
+                        new SummaryIncrement("/posts/cold", 1, 1, 1, 1, NOW));
+        assertThat(flush()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepDeltasWhenWritingThemFails() {
+        counters.increment("/posts/hot", NOW);
+        try {
+            counters.flush(PERIODS, increments -> {
+                throw new IllegalStateException("database is down");
+            });
+        } catch (IllegalStateException expected) {
+            // retried on the next flush
+        }
+
+        assertThat(flush()).extracting(SummaryIncrement::views).containsExactly(1L);
+    }
+
+    @Test
+    void shouldEvictCountersOfPastDaysOnceFlushed() {
+        counters.increment("/posts/old", NOW.minusDays(3));
+        counters.increment("/posts/hot", NOW);
+
+        flush();
+
+        assertThat(counters.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotLoseConcurrentIncrementsWhileFlushing() throws Exception {
+        int threads = 8;
+        int viewsPerThread = 20_000;
+        var start = new CountDownLatch(1);
+        var done = new AtomicBoolean();
+        List<SummaryIncrement> flushed = new ArrayList<>();
+        try (var executor = Executors.newFixedThreadPool(threads + 1)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int v = 0; v < viewsPerThread; v++) {
+                        counters.increment("/posts/viral", NOW);
+                    }
+                    return null;
+                }));
+            }
+            var flushing = executor.submit(() -> {
+                while (!done.get()) {
+                    counters.flush(PERIODS, flushed::addAll);
+                }
+            });
+            start.countDown();
+            for (var writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            flushing.get();
+        }
+        counters.flush(PERIODS, flushed::addAll);
+
+        assertThat(flushed.stream().mapToLong(SummaryIncrement::views).sum())
+                .isEqualTo((long) threads * viewsPerThread);
+    }
+
+    @Test
+    void shouldNotLoseIncrementsOfPastDaysWhileTheirCountersAreEvicted() throws Exception {
+        int threads = 8;
+        int viewsPerThread = 20_000;
+        var pastDay = NOW.minusDays(3);
+        var start = new CountDownLatch(1);
+        var done = new AtomicBoolean();
+        List<SummaryIncrement> flushed = new ArrayList<>();
+        try (var executor = Executors.newFixedThreadPool(threads + 1)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int v = 0; v < viewsPerThread; v++) {
+                        counters.increment("/posts/late", pastDay);
+                    }
+                    return null;
+                }));
+            }
+            var flushing = executor.submit(() -> {
+                while (!done.get()) {
+                    counters.flush(PERIODS, flushed::addAll);
+                }
+            });
+            start.countDown();
+            for (var writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            flushing.get();
+        }
+        counters.flush(PERIODS, flushed::addAll);
+        counters.flush(PERIODS, flushed::addAll);
+
+        assertThat(flushed.stream().mapToLong(SummaryIncrement::views).sum())
+                .isEqualTo((long) threads * viewsPerThread);
+        assertThat(counters.size()).isZero();
+    }
+
+    private List<SummaryIncrement> flush() {
+        List<SummaryIncrement> flushed = new ArrayList<>();
+        counters.flush(PERIODS, flushed::addAll);
+        return flushed;
+    }
+}
@@ -0,0 +1,79 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sivalabs.blog.BaseServiceTest;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PageViewDictionariesTest extends BaseServiceTest {
+
+    @Autowired
+    private PageViewDictionaries dictionaries;
+
+    @Autowired
+    private PageViewJdbcRepository pageViewJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldAssignStableIdsToDictionaryValues() {
+        var ids = dictionaries.resolveIds(PageViewDictionary.PATHS, List.of("/posts/dict-a", "/posts/dict-b"));
+        var again = dictionaries.resolveIds(PageViewDictionary.PATHS, List.of("/posts/dict-b", "/posts/dict-a"));
+
+        assertThat(ids).hasSize(2).isEqualTo(again);
+        assertThat(ids.get("/posts/dict-a")).isNotEqualTo(ids.get("/posts/dict-b"));
+        assertThat(dictionaries.resolveValues(PageViewDictionary.PATHS, ids.values()))
+                .isEqualTo(Map.of(
+                        ids.get("/posts/dict-a"), "/posts/dict-a",
+                        ids.get("/posts/dict-b"), "/posts/dict-b"));
+    }
+
+    @Test
+    void shouldStoreDictionaryIdsInPageViews() {
+        var path = "/posts/dictionary-encoded";
+        var event = PageViewEvent.builder()
+                .path(path)
+                .title("Dictionary Encoded")
+                .referer("https://News.Example.com/item?id=1")
+                .userAgent("Mozilla/5.0 (dictionary test)")
+                .sessionId("session-1")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        pageViewJdbcRepository.insertAll(List.of(event, event));
+
+        var rows = jdbcTemplate.queryForList(
+                """
+                select p.path, t.title, h.host, ua.user_agent from page_views pv
+                join page_view_paths p on p.id = pv.path_id
+                join page_view_titles t on t.id = pv.title_id
+                join page_view_referer_hosts h on h.id = pv.referer_host_id
+                join page_view_user_agents ua on ua.id = pv.user_agent_id
+                where p.path = ?
+                """,
+                path);
+        assertThat(rows)
+                .hasSize(2)
+                .allSatisfy(row -> assertThat(row)
+                        .containsEntry("title", "Dictionary Encoded")
+                        .containsEntry("host", "news.example.com")
+                        .containsEntry("user_agent", "Mozilla/5.0 (dictionary test)"));
+        assertThat(jdbcTemplate.queryForObject(
+                        "select count(*) from page_view_paths where path = ?", Integer.class, path))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldLeaveRelativeReferersWithoutHost() {
+        assertThat(Referers.hostOf("/posts")).isNull();
+        assertThat(Referers.hostOf("not a url")).isNull();
+        assertThat(Referers.hostOf("http://user@Example.org:8080/a")).isEqualTo("example.org");
+    }
+}
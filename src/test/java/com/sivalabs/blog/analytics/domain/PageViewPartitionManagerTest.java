@@ -0,0 +1,53 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sivalabs.blog.BaseServiceTest;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class PageViewPartitionManagerTest extends BaseServiceTest {
+
+    @Autowired
+    private PageViewPartitionManager partitionManager;
+
+    @Autowired
+    private PageViewPartitionRepository partitionRepository;
+
+    @Autowired
+    private PageViewJdbcRepository pageViewJdbcRepository;
+
+    @Autowired
+    private PageViewRepository pageViewRepository;
+
+    @Test
+    void shouldPreCreateUpcomingMonthlyPartitions() {
+        var farFuture = YearMonth.now().plusYears(5);
+
+        partitionManager.createPartitions(farFuture, 2);
+
+        assertThat(partitionRepository.findMonthlyPartitions())
+                .contains(farFuture, farFuture.plusMonths(1), farFuture.plusMonths(2));
+    }
+
+    @Test
+    void shouldDropPartitionsOlderThanRetention() {
+        var oldMonth = YearMonth.now().minusYears(10);
+        partitionManager.createPartitions(oldMonth, 0);
+        var path = "/posts/expired-page-view";
+        pageViewJdbcRepository.insertAll(List.of(PageViewEvent.builder()
+                .path(path)
+                .sessionId("session-1")
+                .timestamp(oldMonth.atDay(15).atStartOfDay())
+                .build()));
+        assertThat(pageViewRepository.countTotalViewsForPath(path)).isEqualTo(1L);
+
+        partitionManager.removePartitionsBefore(oldMonth.plusMonths(1), true);
+
+        assertThat(partitionRepository.findMonthlyPartitions()).doesNotContain(oldMonth);
+        assertThat(pageViewRepository.countTotalViewsForPath(path)).isZero();
+    }
+}
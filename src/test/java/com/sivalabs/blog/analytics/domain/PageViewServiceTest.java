@@ -0,0 +1,184 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.pageView;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sivalabs.blog.BaseServiceTest;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PageViewServiceTest extends BaseServiceTest {
+
+    @Autowired
+    private PageViewService pageViewService;
+
+    @Autowired
+    private PageViewRepository pageViewRepository;
+
+    @Autowired
+    private PageAnalyticsSummaryRepository summaryRepository;
+
+    @Autowired
+    private UniqueVisitorService uniqueVisitorService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private PageViewCounters pageViewCounters;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldRecordPageViewsInBatchAndUpdateSummary() {
+        var path = "/posts/batched-page-views";
+        var now = LocalDateTime.now();
+        var events = List.of(
+                pageView(path, "session-1", now), pageView(path, "session-2", now), pageView(path, "session-1", now));
+
+        record(events);
+
+        assertThat(pageViewRepository.countTotalViewsForPath(path)).isEqualTo(3L);
+        var summary = summaryRepository.findByPath(path).orElseThrow();
+        assertThat(summary.getTotalViews()).isEqualTo(3L);
+        assertThat(summary.getViewsToday()).isEqualTo(3L);
+        assertThat(summary.getUniqueVisitorsTotal()).isEqualTo(2L);
+        assertThat(summary.getUniqueVisitorsToday()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldIncrementExistingSummaryWithoutRecounting() {
+        var path = "/posts/incremental-summary";
+        var now = LocalDateTime.now();
+        record(List.of(pageView(path, "session-1", now)));
+        record(List.of(pageView(path, "session-2", now), pageView(path, "session-3", now)));
+
+        var summary = summaryRepository.findByPath(path).orElseThrow();
+        assertThat(summary.getTotalViews()).isEqualTo(3L);
+        assertThat(summary.getViewsThisWeek()).isEqualTo(3L);
+        assertThat(summary.getViewsThisMonth()).isEqualTo(3L);
+        assertThat(summary.getUniqueVisitorsThisMonth()).isEqualTo(3L);
+        assertThat(summary.getLastViewedAt()).isNotNull();
+    }
+
+    @Test
+    void shouldNotCountRepeatVisitorsTwiceAcrossBatches() {
+        var path = "/posts/repeat-visitors";
+        var now = LocalDateTime.now();
+        record(List.of(pageView(path, "session-1", now), pageView(path, "session-2", now)));
+        record(List.of(pageView(path, "session-2", now), pageView(path, "session-1", now)));
+
+        var summary = summaryRepository.findByPath(path).orElseThrow();
+        assertThat(summary.getTotalViews()).isEqualTo(4L);
+        assertThat(summary.getUniqueVisitorsTotal()).isEqualTo(2L);
+        assertThat(summary.getUniqueVisitorsThisWeek()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldRebuildRecentUniqueVisitorsFromDailySketches() {
+        var path = "/posts/rebuilt-unique-visitors";
+        var now = LocalDateTime.now();
+        record(List.of(pageView(path, "session-1", now), pageView(path, "session-2", now)));
+
+        uniqueVisitorService.refreshAll();
+
+        var summary = summaryRepository.findByPath(path).orElseThrow();
+        assertThat(summary.getUniqueVisitorsToday()).isEqualTo(2L);
+        assertThat(summary.getUniqueVisitorsThisWeek()).isEqualTo(2L);
+        assertThat(summary.getUniqueVisitorsThisMonth()).isEqualTo(2L);
+        assertThat(summary.getUniqueVisitorsTotal()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldEstimateAllTimeVisitorsFromSummarySketch() {
+        var path = "/posts/estimated-unique-visitors";
+        var now = LocalDateTime.now();
+        record(List.of(pageView(path, "session-1", now), pageView(path, "session-2", now)));
+        record(List.of(pageView(path, "session-3", LocalDateTime.now().minusYears(1))));
+
+        var counts = uniqueVisitorService.estimate(path);
+
+        assertThat(counts.today()).isEqualTo(2L);
+        assertThat(counts.thisMonth()).isEqualTo(2L);
+        assertThat(counts.allTime()).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldRefreshAllSummariesFromPageViews() {
+        var path = "/posts/refreshed-summary";
+        var now = LocalDateTime.now();
+        record(List.of(pageView(path, "session-1", now), pageView(path, "session-2", now)));
+        record(List.of(pageView(path, "session-3", LocalDateTime.now().minusYears(1))));
+
+        var result = pageViewService.refreshAllSummaries();
+
+        assertThat(result.rowsUpdated()).isPositive();
+        var summary = summaryRepository.findByPath(path).orElseThrow();
+        assertThat(summary.getTotalViews()).isEqualTo(3L);
+        assertThat(summary.getViewsToday()).isEqualTo(2L);
+        assertThat(summary.getViewsThisMonth()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldMaintainDailyViewsRollup() {
+        var path = "/posts/daily-rollup";
+        var now = LocalDateTime.now();
+        var yesterday = LocalDateTime.now().minusDays(1);
+        record(List.of(pageView(path, "session-1", now), pageView(path, "session-2", yesterday)));
+        record(List.of(pageView(path, "session-3", now)));
+
+        var dailyViews = analyticsService.getDailyViews(path, 7);
+
+        assertThat(dailyViews)
+                .containsExactly(
+                        new DailyViewsDTO(LocalDate.now(), 2L), new DailyViewsDTO(yesterday.toLocalDate(), 1L));
+    }
+
+    @Test
+    void shouldRotateStalePeriodCountersWithoutRecounting() {
+        var path = "/posts/rotated-period-counters";
+        var now = LocalDateTime.now();
+        record(List.of(pageView(path, "session-1", now), pageView(path, "session-2", now)));
+        moveTodayBucketBack(path);
+
+        pageViewService.rotatePeriodBuckets();
+
+        var summary = summaryRepository.findByPath(path).orElseThrow();
+        assertThat(summary.getViewsToday()).isZero();
+        assertThat(summary.getViewsThisMonth()).isEqualTo(2L);
+        assertThat(summary.getTotalViews()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldRestartPeriodCounterWhenIncrementBelongsToNewDay() {
+        var path = "/posts/restarted-period-counter";
+        var now = LocalDateTime.now();
+        record(List.of(pageView(path, "session-1", now), pageView(path, "session-2", now)));
+        moveTodayBucketBack(path);
+
+        record(List.of(pageView(path, "session-3", now)));
+
+        var summary = summaryRepository.findByPath(path).orElseThrow();
+        assertThat(summary.getViewsToday()).isEqualTo(1L);
+        assertThat(summary.getViewsThisMonth()).isEqualTo(3L);
+        assertThat(summary.getTotalViews()).isEqualTo(3L);
+    }
+
+    // As if the counters were last written yesterday
+    private void moveTodayBucketBack(String path) {
+        jdbcTemplate.update("update page_analytics_summary set today_bucket = today_bucket - 1 where path = ?", path);
+    }
+
+    // Mirrors the ingestion pipeline: views are counted when published and written by the flusher
+    private void record(List<PageViewEvent> events) {
+        events.forEach(event -> pageViewCounters.increment(event.path(), event.timestamp()));
+        pageViewService.recordPageViews(events);
+        pageViewService.flushViewCounters();
+    }
+}
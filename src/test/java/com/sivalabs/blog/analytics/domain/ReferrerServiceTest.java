@@ -0,0 +1,136 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.aPageView;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sivalabs.blog.BaseServiceTest;
+import com.sivalabs.blog.analytics.domain.ReferrerJdbcRepository.SiteReferrerIncrement;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ReferrerServiceTest extends BaseServiceTest {
+
+    @Autowired
+    private PageViewService pageViewService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ReferrerService referrerService;
+
+    @Autowired
+    private ReferrerJdbcRepository referrerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldNormalizeReferrers() {
+        assertThat(referrerService.externalReferrer("https://WWW.Google.com/search?q=spring#top", "sivalabs.in"))
+                .isEqualTo("google.com/search");
+        assertThat(referrerService.externalReferrer("https://news.ycombinator.com/", "sivalabs.in"))
+                .isEqualTo("news.ycombinator.com");
+        assertThat(referrerService.externalReferrer("https://dev.to//sivalabs/posts/", "sivalabs.in"))
+                .isEqualTo("dev.to/sivalabs/posts");
+        assertThat(referrerService.externalReferrer("/posts/other", "sivalabs.in")).isNull();
+        assertThat(referrerService.externalReferrer(null, "sivalabs.in")).isNull();
+    }
+
+    @Test
+    void shouldTreatNavigationFromTheServingHostAsInternal() {
+        assertThat(referrerService.externalReferrer("http://localhost:8080/posts/other", "localhost"))
+                .isNull();
+        assertThat(referrerService.externalReferrer("https://www.sivalabs.in/posts/other", "sivalabs.in"))
+                .isNull();
+        assertThat(referrerService.externalReferrer("https://sivalabs.in/posts/other", "www.SivaLabs.in"))
+                .isNull();
+        assertThat(referrerService.externalReferrer("https://sivalabs.in/posts/other", "localhost"))
+                .isEqualTo("sivalabs.in/posts/other");
+        assertThat(referrerService.externalReferrer("https://sivalabs.in/posts/other", null))
+                .isEqualTo("sivalabs.in/posts/other");
+    }
+
+    @Test
+    void shouldAggregateTopReferrersPerPageAndSiteWide() {
+        var path = "/posts/referrer-rollup";
+        var now = LocalDateTime.now();
+        pageViewService.recordPageViews(List.of(
+                aPageView(path).referer("https://www.rollup-search.example/search?q=one").timestamp(now).build(),
+                aPageView(path).referer("https://rollup-search.example/search?q=two").timestamp(now).build(),
+                aPageView(path).referer("https://rollup-news.example/item").timestamp(now).build(),
+                aPageView(path).referer("http://localhost:8080/posts").timestamp(now).build(),
+                aPageView("/posts/other-rollup").referer("https://rollup-news.example/").timestamp(now).build(),
+                aPageView("/posts/other-rollup").referer("https://rollup-news.example/item").timestamp(now).build()));
+
+        assertThat(analyticsService.getTopReferrers(path, 1, 10))
+                .containsExactly(
+                        new ReferrerDTO("rollup-search.example/search", 2),
+                        new ReferrerDTO("rollup-news.example/item", 1));
+        assertThat(analyticsService.getTopReferrers(1, 100))
+                .contains(
+                        new ReferrerDTO("rollup-search.example/search", 2),
+                        new ReferrerDTO("rollup-news.example/item", 2),
+                        new ReferrerDTO("rollup-news.example", 1));
+        assertThat(analyticsService.getTopReferrerHosts(1, 100))
+                .contains(new ReferrerDTO("rollup-news.example", 3), new ReferrerDTO("rollup-search.example", 2));
+    }
+
+    @Test
+    void shouldFoldReferrersBeyondCapacityIntoOther() {
+        var path = "/posts/referrer-capacity";
+        var now = LocalDateTime.now();
+        List<PageViewEvent> events = new ArrayList<>();
+        IntStream.range(0, 50).forEach(i -> {
+            events.add(aPageView(path).referer("https://capacity-" + i + ".example/").timestamp(now).build());
+            events.add(aPageView(path).referer("https://capacity-" + i + ".example/").timestamp(now).build());
+        });
+        events.add(aPageView(path).referer("https://capacity-tail-1.example/").timestamp(now).build());
+        pageViewService.recordPageViews(events);
+        pageViewService.recordPageViews(List.of(
+                aPageView(path).referer("https://capacity-tail-2.example/").timestamp(now).build()));
+
+        var referrers = jdbcTemplate.queryForList(
+                """
+                select r.referrer from page_referrers_daily r join page_view_paths p on p.id = r.path_id
+                where p.path = ?
+                """,
+                String.class,
+                path);
+        assertThat(referrers).hasSize(51).contains("(other)").doesNotContain("capacity-tail-1.example");
+        assertThat(jdbcTemplate.queryForObject(
+                        """
+                        select r.views from page_referrers_daily r join page_view_paths p on p.id = r.path_id
+                        where p.path = ? and r.referrer = '(other)'
+                        """,
+                        Long.class,
+                        path))
+                .isEqualTo(2);
+        assertThat(analyticsService.getTopReferrers(path, 1, 100)).hasSize(50);
+    }
+
+    @Test
+    void shouldTrimSiteReferrersOfADay() {
+        var day = LocalDate.of(2020, 2, 3);
+        referrerRepository.incrementSiteReferrers(List.of(
+                new SiteReferrerIncrement(day, "a.example", 5),
+                new SiteReferrerIncrement(day, "b.example", 3),
+                new SiteReferrerIncrement(day, "c.example", 2),
+                new SiteReferrerIncrement(day, "d.example", 1)));
+
+        referrerRepository.trimSiteReferrers(List.of(day), 2);
+
+        var views = jdbcTemplate.queryForList(
+                "select referrer || '=' || views from site_referrers_daily where day = ? order by referrer",
+                String.class,
+                day);
+        assertThat(views).containsExactly("(other)=3", "a.example=5", "b.example=3");
+    }
+}
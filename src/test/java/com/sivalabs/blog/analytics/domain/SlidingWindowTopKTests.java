@@ -0,0 +1,63 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowTopKTests {
+
+    @Test
+    void shouldRankMostViewedKeysFirst() {
+        var topK = new SlidingWindowTopK(Duration.ofMinutes(15), 15, 10);
+        add(topK, "/posts/a", 5, 0);
+        add(topK, "/posts/b", 9, 0);
+        add(topK, "/posts/c", 2, 0);
+
+        assertThat(topK.top(2, 0)).containsExactly(Map.entry("/posts/b", 9L), Map.entry("/posts/a", 5L));
+    }
+
+    @Test
+    void shouldForgetViewsOutsideTheWindow() {
+        var topK = new SlidingWindowTopK(Duration.ofMinutes(15), 15, 10);
+        add(topK, "/posts/old", 10, 0);
+        add(topK, "/posts/new", 1, Duration.ofMinutes(20).toMillis());
+
+        assertThat(topK.top(10, Duration.ofMinutes(20).toMillis())).containsExactly(Map.entry("/posts/new", 1L));
+    }
+
+    @Test
+    void shouldKeepHeavyHittersWithinCapacity() {
+        var topK = new SlidingWindowTopK(Duration.ofMinutes(15), 1, 3);
+        add(topK, "/posts/popular", 100, 0);
+        for (int i = 0; i < 50; i++) {
+            add(topK, "/posts/long-tail-" + i, 1, 0);
+        }
+
+        var top = topK.top(1, 0);
+        assertThat(top).hasSize(1);
+        assertThat(top.getFirst().getKey()).isEqualTo("/posts/popular");
+        assertThat(top.getFirst().getValue()).isEqualTo(100L);
+    }
+
+    @Test
+    void shouldHandTheSmallestCounterOverToANewKey() {
+        var topK = new SlidingWindowTopK(Duration.ofMinutes(15), 1, 2);
+        add(topK, "/posts/a", 3, 0);
+        add(topK, "/posts/b", 1, 0);
+        add(topK, "/posts/c", 1, 0);
+
+        assertThat(topK.top(10, 0)).containsExactly(Map.entry("/posts/a", 3L), Map.entry("/posts/c", 2L));
+
+        add(topK, "/posts/d", 1, 0);
+
+        assertThat(topK.top(10, 0)).containsExactly(Map.entry("/posts/a", 3L), Map.entry("/posts/d", 3L));
+    }
+
+    private static void add(SlidingWindowTopK topK, String key, int times, long timestampMillis) {
+        for (int i = 0; i < times; i++) {
+            topK.add(key, timestampMillis);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.pageView;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.BaseServiceTest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class VisitSessionServiceTest extends BaseServiceTest {
+
+    @Autowired
+    private VisitSessionJdbcRepository visitSessionRepository;
+
+    @Autowired
+    private PageViewDictionaries dictionaries;
+
+    @Autowired
+    private ApplicationProperties properties;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Test
+    void shouldReportBounceRateAndDurationOfSessionsEnteringOnPage() {
+        // Not the application's sessionizer, which the page view flusher thread records into and flushes
+        var sessionizer = new VisitSessionizer(properties);
+        var visitSessionService =
+                new VisitSessionService(visitSessionRepository, sessionizer, dictionaries, properties);
+        var path = "/posts/session-landing";
+        var startedAt = LocalDateTime.now().minusHours(2);
+        sessionizer.record(List.of(
+                pageView(path, "session-visitor-1", startedAt),
+                pageView("/posts/session-next", "session-visitor-1", startedAt.plusMinutes(3)),
+                pageView("/posts/session-last", "session-visitor-1", startedAt.plusMinutes(4)),
+                pageView(path, "session-visitor-2", startedAt.plusMinutes(1)),
+                pageView(path, "session-visitor-3", startedAt.plusMinutes(2)),
+                pageView("/posts/session-next", "session-visitor-3", startedAt.plusMinutes(4))));
+
+        visitSessionService.flushClosedSessions();
+
+        var metrics = analyticsService.getSessionMetrics(path, 2);
+        assertThat(metrics.sessions()).isEqualTo(3);
+        assertThat(metrics.bounces()).isEqualTo(1);
+        assertThat(metrics.bounceRate()).isCloseTo(33.3, within(0.1));
+        assertThat(metrics.pagesPerSession()).isEqualTo(2.0);
+        assertThat(metrics.averageDuration()).isEqualTo(Duration.ofMinutes(2));
+
+        assertThat(analyticsService.getLandingPages(2, 100))
+                .extracting(SessionMetricsDTO::path)
+                .contains(path)
+                .doesNotContain("/posts/session-last");
+        assertThat(analyticsService.getSessionMetrics(2).sessions()).isGreaterThanOrEqualTo(3);
+    }
+}
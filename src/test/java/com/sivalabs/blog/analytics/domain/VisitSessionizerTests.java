@@ -0,0 +1,105 @@
+package com.sivalabs.blog.analytics.domain;
+
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.pageView;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class VisitSessionizerTests {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+    private final MutableClock clock = new MutableClock(START);
+    private final VisitSessionizer sessionizer = new VisitSessionizer(Duration.ofMinutes(30), 3, clock);
+    private final List<VisitSession> written = new ArrayList<>();
+
+    @Test
+    void shouldCloseSessionsAfterInactivityTimeout() {
+        sessionizer.record(List.of(
+                pageView("/posts/entry", "visitor-1", START),
+                pageView("/posts/single", "visitor-2", START.plusMinutes(5)),
+                pageView("/posts/second", "visitor-1", START.plusMinutes(10)),
+                pageView("/posts/exit", "visitor-1", START.plusMinutes(20))));
+
+        clock.set(START.plusMinutes(30));
+        sessionizer.flush(written::addAll);
+        assertThat(written).isEmpty();
+
+        clock.set(START.plusMinutes(36));
+        sessionizer.flush(written::addAll);
+        var singleViewAt = START.plusMinutes(5);
+        assertThat(written)
+                .containsExactly(new VisitSession("/posts/single", "/posts/single", singleViewAt, singleViewAt, 1));
+
+        clock.set(START.plusMinutes(51));
+        sessionizer.flush(written::addAll);
+        assertThat(written)
+                .last()
+                .isEqualTo(new VisitSession("/posts/entry", "/posts/exit", START, START.plusMinutes(20), 3));
+        assertThat(written.getLast().duration()).isEqualTo(Duration.ofMinutes(20));
+        assertThat(sessionizer.openSessionCount()).isZero();
+    }
+
+    @Test
+    void shouldStartNewSessionWhenVisitorReturnsAfterTimeout() {
+        clock.set(START.plusHours(2));
+        sessionizer.record(List.of(
+                pageView("/posts/one", "visitor-1", START),
+                pageView("/posts/two", "visitor-1", START.plusMinutes(31))));
+
+        sessionizer.flush(written::addAll);
+
+        assertThat(written)
+                .containsExactly(
+                        new VisitSession("/posts/one", "/posts/one", START, START, 1),
+                        new VisitSession("/posts/two", "/posts/two", START.plusMinutes(31), START.plusMinutes(31), 1));
+    }
+
+    @Test
+    void shouldKeepEntryAndExitPagesOfOutOfOrderViews() {
+        sessionizer.record(List.of(
+                pageView("/posts/middle", "visitor-1", START.plusMinutes(5)),
+                pageView("/posts/entry", "visitor-1", START),
+                pageView("/posts/exit", "visitor-1", START.plusMinutes(10))));
+
+        sessionizer.flushAll(written::addAll);
+
+        assertThat(written)
+                .containsExactly(new VisitSession("/posts/entry", "/posts/exit", START, START.plusMinutes(10), 3));
+    }
+
+    @Test
+    void shouldCloseLeastRecentlyActiveSessionBeyondCapacity() {
+        sessionizer.record(List.of(
+                pageView("/posts/one", "visitor-1", START),
+                pageView("/posts/two", "visitor-2", START.plusMinutes(1)),
+                pageView("/posts/three", "visitor-3", START.plusMinutes(2)),
+                pageView("/posts/one-again", "visitor-1", START.plusMinutes(3)),
+                pageView("/posts/four", "visitor-4", START.plusMinutes(4))));
+
+        sessionizer.flush(written::addAll);
+
+        assertThat(written).extracting(VisitSession::entryPath).containsExactly("/posts/two");
+        assertThat(sessionizer.openSessionCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldKeepClosedSessionsUntilWritten() {
+        sessionizer.record(List.of(pageView("/posts/one", "visitor-1", START)));
+        clock.set(START.plusHours(1));
+
+        try {
+            sessionizer.flush(sessions -> {
+                throw new IllegalStateException("Database unavailable");
+            });
+        } catch (IllegalStateException expected) {
+            // retried on the next flush
+        }
+        sessionizer.flush(written::addAll);
+
+        assertThat(written).extracting(VisitSession::entryPath).containsExactly("/posts/one");
+    }
+}
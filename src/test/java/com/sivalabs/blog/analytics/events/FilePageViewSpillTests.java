@@ -0,0 +1,83 @@
+package com.sivalabs.blog.analytics.events;
+
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.aPageView;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FilePageViewSpillTests {
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplaySpilledPageViewsInBatches() {
+        var spill = new FilePageViewSpill(directory, 1024 * 1024, objectMapper);
+        spill.spill(List.of(aPageView("/posts/one").build(), aPageView("/posts/two").build()));
+        spill.spill(List.of(aPageView("/posts/three").build()));
+
+        assertThat(spill.hasPending()).isTrue();
+
+        List<List<PageViewEvent>> batches = new ArrayList<>();
+        spill.replay(2, batches::add);
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.getFirst()).extracting(PageViewEvent::path).containsExactly("/posts/one", "/posts/two");
+        assertThat(batches.get(1).getFirst()).isEqualTo(aPageView("/posts/three").build());
+        assertThat(spill.hasPending()).isFalse();
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    void shouldKeepPageViewsThatFailedToReplay() {
+        var spill = new FilePageViewSpill(directory, 1024 * 1024, objectMapper);
+        spill.spill(List.of(
+                aPageView("/posts/one").build(),
+                aPageView("/posts/two").build(),
+                aPageView("/posts/three").build()));
+
+        List<PageViewEvent> replayed = new ArrayList<>();
+        assertThatThrownBy(() -> spill.replay(1, batch -> {
+                    if (!replayed.isEmpty()) {
+                        throw new IllegalStateException("database is down");
+                    }
+                    replayed.addAll(batch);
+                }))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(spill.hasPending()).isTrue();
+
+        replayed.clear();
+        spill.replay(10, replayed::addAll);
+
+        assertThat(replayed).extracting(PageViewEvent::path).containsExactly("/posts/two", "/posts/three");
+        assertThat(spill.hasPending()).isFalse();
+    }
+
+    @Test
+    void shouldReplayPageViewsSpilledBeforeRestart() {
+        new FilePageViewSpill(directory, 1024 * 1024, objectMapper).spill(List.of(aPageView("/posts/one").build()));
+
+        var spill = new FilePageViewSpill(directory, 1024 * 1024, objectMapper);
+        List<PageViewEvent> replayed = new ArrayList<>();
+        spill.replay(10, replayed::addAll);
+
+        assertThat(replayed).extracting(PageViewEvent::path).containsExactly("/posts/one");
+    }
+
+    @Test
+    void shouldDiscardPageViewsOnceSpillIsFull() {
+        var spill = new FilePageViewSpill(directory, 64, objectMapper);
+        spill.spill(List.of(aPageView("/posts/one").build()));
+
+        assertThat(spill.hasPending()).isFalse();
+        assertThat(spill.discardedCount()).isEqualTo(1);
+    }
+}
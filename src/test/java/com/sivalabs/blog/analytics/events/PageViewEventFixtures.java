@@ -0,0 +1,26 @@
+package com.sivalabs.blog.analytics.events;
+
+import java.time.LocalDateTime;
+
+public final class PageViewEventFixtures {
+    public static final LocalDateTime VIEWED_AT = LocalDateTime.of(2026, 10, 17, 10, 30, 15, 123_000_000);
+
+    private PageViewEventFixtures() {}
+
+    // A browser's page view of the path, tests override only the fields they assert on
+    public static PageViewEvent.Builder aPageView(String path) {
+        return PageViewEvent.builder()
+                .path(path)
+                .title("Title")
+                .referer("https://example.com/some/page")
+                .host("localhost")
+                .userAgent("Mozilla/5.0")
+                .ipAddress("127.0.0.1")
+                .sessionId("session-1")
+                .timestamp(VIEWED_AT);
+    }
+
+    public static PageViewEvent pageView(String path, String visitor, LocalDateTime viewedAt) {
+        return aPageView(path).sessionId(visitor).timestamp(viewedAt).build();
+    }
+}
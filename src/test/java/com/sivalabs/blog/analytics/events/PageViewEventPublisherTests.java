@@ -0,0 +1,63 @@
+package com.sivalabs.blog.analytics.events;
+
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.aPageView;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.sivalabs.blog.ApplicationProperties;
+import com.sivalabs.blog.ApplicationProperties.AnalyticsProperties;
+import com.sivalabs.blog.analytics.domain.PageViewCounters;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+class PageViewEventPublisherTests {
+    private final ApplicationProperties properties = mock(ApplicationProperties.class);
+    private final AnalyticsProperties analytics = mock(AnalyticsProperties.class);
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    private PageViewBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        when(properties.analytics()).thenReturn(analytics);
+        when(analytics.bufferCapacity()).thenReturn(1);
+        when(analytics.batchSize()).thenReturn(10);
+        when(analytics.timeZone()).thenReturn(ZoneOffset.UTC);
+        buffer = new PageViewBuffer(properties);
+    }
+
+    @Test
+    void shouldDropPageViewsThatDoNotFitInTheBufferWithoutSpillingThem() {
+        var publisher = publisher();
+
+        publisher.publishPageView(aPageView("/posts/one").build());
+        publisher.publishPageView(aPageView("/posts/two").build());
+
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.droppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCountSpilledPageViewsAsDropped() {
+        beanFactory.registerSingleton(
+                "pageViewSpillWriter", new PageViewSpillWriter(new DiscardingPageViewSpill(), properties));
+        var publisher = publisher();
+
+        publisher.publishPageView(aPageView("/posts/one").build());
+        publisher.publishPageView(aPageView("/posts/two").build());
+
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.droppedCount()).isZero();
+    }
+
+    private PageViewEventPublisher publisher() {
+        return new PageViewEventPublisher(
+                buffer,
+                new DiscardingPageViewSpill(),
+                beanFactory.getBeanProvider(PageViewSpillWriter.class),
+                new PageViewCounters(),
+                properties);
+    }
+}
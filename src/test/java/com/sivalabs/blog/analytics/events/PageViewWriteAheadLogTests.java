@@ -0,0 +1,175 @@
+package com.sivalabs.blog.analytics.events;
+
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.aPageView;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PageViewWriteAheadLogTests {
+    private static final long SEGMENT_SIZE = 4096;
+    private static final int MAX_REPLAY_ATTEMPTS = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplayLoggedPageViewsInBatches() {
+        var log = new PageViewWriteAheadLog(directory, SEGMENT_SIZE, 1024 * 1024, MAX_REPLAY_ATTEMPTS);
+        log.spill(List.of(aPageView("/posts/one").build(), aPageView("/posts/two").build()));
+        log.spill(List.of(aPageView("/posts/three").build()));
+
+        assertThat(log.hasPending()).isTrue();
+
+        List<List<PageViewEvent>> batches = new ArrayList<>();
+        log.replay(2, batches::add);
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.getFirst()).extracting(PageViewEvent::path).containsExactly("/posts/one", "/posts/two");
+        assertThat(batches.get(1).getFirst()).isEqualTo(aPageView("/posts/three").build());
+        assertThat(log.hasPending()).isFalse();
+    }
+
+    @Test
+    void shouldKeepPageViewsThatFailedToReplay() {
+        var log = new PageViewWriteAheadLog(directory, SEGMENT_SIZE, 1024 * 1024, MAX_REPLAY_ATTEMPTS);
+        log.spill(List.of(
+                aPageView("/posts/one").build(),
+                aPageView("/posts/two").build(),
+                aPageView("/posts/three").build()));
+
+        List<PageViewEvent> replayed = new ArrayList<>();
+        assertThatThrownBy(() -> log.replay(1, batch -> {
+                    if (!replayed.isEmpty()) {
+                        throw new IllegalStateException("database is down");
+                    }
+                    replayed.addAll(batch);
+                }))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(log.hasPending()).isTrue();
+
+        replayed.clear();
+        log.replay(10, replayed::addAll);
+
+        assertThat(replayed).extracting(PageViewEvent::path).containsExactly("/posts/two", "/posts/three");
+        assertThat(log.hasPending()).isFalse();
+    }
+
+    @Test
+    void shouldMoveBatchesThatKeepFailingToTheDeadLetterFile() {
+        var log = new PageViewWriteAheadLog(directory, SEGMENT_SIZE, 1024 * 1024, MAX_REPLAY_ATTEMPTS);
+        log.spill(List.of(
+                aPageView("/posts/one").build(),
+                aPageView("/posts/poison").build(),
+                aPageView("/posts/three").build()));
+
+        List<PageViewEvent> replayed = new ArrayList<>();
+        Consumer<List<PageViewEvent>> consumer = batch -> {
+            if (batch.getFirst().path().equals("/posts/poison")) {
+                throw new IllegalArgumentException("value too long");
+            }
+            replayed.addAll(batch);
+        };
+        for (int attempt = 1; attempt < MAX_REPLAY_ATTEMPTS; attempt++) {
+            assertThatThrownBy(() -> log.replay(1, consumer)).isInstanceOf(IllegalArgumentException.class);
+        }
+        log.replay(1, consumer);
+
+        assertThat(replayed).extracting(PageViewEvent::path).containsExactly("/posts/one", "/posts/three");
+        assertThat(log.deadLetteredCount()).isEqualTo(1);
+        assertThat(directory.resolve("dead-letter.log")).isNotEmptyFile();
+        assertThat(log.hasPending()).isFalse();
+    }
+
+    @Test
+    void shouldReplayOnlyUncommittedPageViewsAfterRestart() {
+        var log = new PageViewWriteAheadLog(directory, SEGMENT_SIZE, 1024 * 1024, MAX_REPLAY_ATTEMPTS);
+        log.spill(List.of(aPageView("/posts/one").build()));
+        log.replay(10, batch -> {});
+        log.spill(List.of(aPageView("/posts/two").build(), aPageView("/posts/three").build()));
+        log.close();
+
+        var reopened = new PageViewWriteAheadLog(directory, SEGMENT_SIZE, 1024 * 1024, MAX_REPLAY_ATTEMPTS);
+        List<PageViewEvent> replayed = new ArrayList<>();
+        reopened.replay(10, replayed::addAll);
+
+        assertThat(replayed).extracting(PageViewEvent::path).containsExactly("/posts/two", "/posts/three");
+
+        reopened.spill(List.of(aPageView("/posts/four").build()));
+        replayed.clear();
+        reopened.replay(10, replayed::addAll);
+        assertThat(replayed).extracting(PageViewEvent::path).containsExactly("/posts/four");
+    }
+
+    @Test
+    void shouldDeleteSegmentsOnceTheirPageViewsAreCommitted() {
+        var log = new PageViewWriteAheadLog(directory, SEGMENT_SIZE, 1024 * 1024, MAX_REPLAY_ATTEMPTS);
+        var events = IntStream.range(0, 200).mapToObj(i -> aPageView("/posts/" + i).build()).toList();
+        log.spill(events);
+
+        assertThat(log.segmentCount()).isGreaterThan(1);
+
+        List<PageViewEvent> replayed = new ArrayList<>();
+        log.replay(50, replayed::addAll);
+
+        assertThat(replayed).isEqualTo(events);
+        assertThat(log.segmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMoveOnToThePreallocatedSegment() throws Exception {
+        var log = new PageViewWriteAheadLog(directory, SEGMENT_SIZE, 1024 * 1024, MAX_REPLAY_ATTEMPTS);
+        log.preallocate();
+
+        assertThat(log.segmentCount()).isEqualTo(1);
+        try (var files = Files.list(directory)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".log"))).hasSize(2);
+        }
+
+        var events = IntStream.range(0, 60).mapToObj(i -> aPageView("/posts/" + i).build()).toList();
+        log.spill(events);
+        log.close();
+
+        assertThat(log.segmentCount()).isEqualTo(2);
+        List<PageViewEvent> replayed = new ArrayList<>();
+        new PageViewWriteAheadLog(directory, SEGMENT_SIZE, 1024 * 1024, MAX_REPLAY_ATTEMPTS)
+                .replay(100, replayed::addAll);
+        assertThat(replayed).isEqualTo(events);
+    }
+
+    @Test
+    void shouldDiscardPageViewsOnceLogIsFull() {
+        var log = new PageViewWriteAheadLog(directory, SEGMENT_SIZE, 2 * SEGMENT_SIZE, MAX_REPLAY_ATTEMPTS);
+        log.spill(IntStream.range(0, 500).mapToObj(i -> aPageView("/posts/" + i).build()).toList());
+
+        assertThat(log.segmentCount()).isEqualTo(2);
+        assertThat(log.discardedCount()).isPositive();
+
+        List<PageViewEvent> replayed = new ArrayList<>();
+        log.replay(100, replayed::addAll);
+        assertThat(replayed).hasSize(500 - (int) log.discardedCount());
+    }
+
+    @Test
+    void shouldEncodePageViewsWithMissingValues() {
+        var event = PageViewEvent.builder()
+                .path("/posts/ünïcödé")
+                .userAgent("Mozilla/5.0")
+                .userId(42L)
+                .build();
+
+        var decoded = PageViewRecords.decode(ByteBuffer.wrap(PageViewRecords.encode(event)));
+
+        assertThat(decoded).isEqualTo(event);
+        assertThat(PageViewRecords.decode(ByteBuffer.wrap(PageViewRecords.encode(aPageView("/posts/one").build()))))
+                .isEqualTo(aPageView("/posts/one").build());
+    }
+}
@@ -1,11 +1,29 @@
 package com.sivalabs.blog.analytics.web;
 
+import static com.sivalabs.blog.analytics.events.PageViewEventFixtures.aPageView;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
 import com.sivalabs.blog.AbstractIT;
+import com.sivalabs.blog.analytics.domain.PageViewJdbcRepository;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithUserDetails;
 
 class AnalyticsControllerTests extends AbstractIT {
 
+    @Autowired
+    private PageViewJdbcRepository pageViewJdbcRepository;
+
     @Test
     @WithUserDetails("admin@gmail.com")
     void shouldShowAnalyticsDashboard() throws Exception {
@@ -27,6 +45,41 @@ class AnalyticsControllerTests extends AbstractIT {
         result.assertThat().hasStatus3xxRedirection();
     }
 
+    @Test
+    @WithUserDetails("admin@gmail.com")
+    void shouldStreamActiveReaders() throws Exception {
+        // exchange() would wait for the stream to end, perform() returns once the request went async
+        var result = mockMvcTester.perform(
+                get("/admin/analytics/active-readers").accept(MediaType.TEXT_EVENT_STREAM));
+
+        // Only the first event, sent on subscribe, has been written
+        result.assertThat().request().hasAsyncStarted(true);
+        result.assertThat().hasStatusOk();
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(result.getResponse().getContentAsString(StandardCharsets.UTF_8))
+                .contains("event:active-readers")
+                .contains("\"total\"");
+    }
+
+    @Test
+    @WithUserDetails("admin@gmail.com")
+    void shouldClampRequestedDays() {
+        var result = mockMvcTester
+                .get()
+                .uri("/admin/analytics")
+                .param("days", "100000")
+                .exchange();
+        result.assertThat().hasStatus2xxSuccessful().model().containsEntry("days", 365);
+
+        result = mockMvcTester
+                .get()
+                .uri("/admin/analytics/page-details")
+                .param("path", "/posts")
+                .param("days", "-5")
+                .exchange();
+        result.assertThat().hasStatus2xxSuccessful().model().containsEntry("days", 1);
+    }
+
     @Test
     @WithUserDetails("admin@gmail.com")
     void shouldShowPageDetails() {
@@ -38,4 +91,123 @@ class AnalyticsControllerTests extends AbstractIT {
 
         result.assertThat().hasStatus2xxSuccessful().hasViewName("admin/page-analytics");
     }
+
+    @Test
+    @WithUserDetails("admin@gmail.com")
+    void shouldShowPageViewsOverTimeByHour() {
+        var result = mockMvcTester
+                .get()
+                .uri("/admin/analytics/page-details")
+                .param("path", "/posts")
+                .param("granularity", "hour")
+                .param("from", "2026-03-01")
+                .param("to", "2026-03-02")
+                .exchange();
+
+        result.assertThat()
+                .hasStatus2xxSuccessful()
+                .model()
+                .containsEntry("granularity", "hour")
+                .doesNotContainKey("timeSeriesError")
+                .extractingByKey("timeSeries")
+                .asInstanceOf(InstanceOfAssertFactories.LIST)
+                .hasSize(48);
+    }
+
+    @Test
+    @WithUserDetails("admin@gmail.com")
+    void shouldReportTimeSeriesRangesWithTooManyPoints() {
+        var result = mockMvcTester
+                .get()
+                .uri("/admin/analytics/page-details")
+                .param("path", "/posts")
+                .param("granularity", "hour")
+                .param("from", "2025-01-01")
+                .param("to", "2026-03-02")
+                .exchange();
+
+        result.assertThat().hasStatus2xxSuccessful().model().containsKey("timeSeriesError");
+    }
+
+    @Test
+    @WithUserDetails("admin@gmail.com")
+    void shouldExportPageViewsAsCsv() throws Exception {
+        var viewedAt = LocalDateTime.of(2026, 3, 14, 9, 26, 53);
+        pageViewJdbcRepository.insertAll(
+                List.of(
+                        aPageView("/posts/export-one")
+                                .title("Export, \"quoted\"")
+                                .timestamp(viewedAt)
+                                .build(),
+                        aPageView("/posts/export-two")
+                                .title(null)
+                                .timestamp(viewedAt.plusDays(5))
+                                .build(),
+                        aPageView("/posts/export-formula")
+                                .title("=HYPERLINK(\"https://evil.example\")")
+                                .timestamp(viewedAt)
+                                .build()),
+                Arrays.asList("NL", null, null));
+
+        var result = mockMvcTester
+                .get()
+                .uri("/admin/analytics/export")
+                .param("from", "2026-03-14")
+                .param("to", "2026-03-14")
+                .exchange();
+
+        result.assertThat().hasStatusOk().hasContentTypeCompatibleWith("text/csv");
+        assertThat(result.getResponse().getHeader("Content-Disposition"))
+                .contains("page-views-2026-03-14-2026-03-14.csv");
+        var lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0])
+                .isEqualTo(
+                        "id,created_at,path,title,referer_host,user_agent,ip_address,session_id,user_id,country_code");
+        assertThat(lines[1])
+                .endsWith(",2026-03-14T09:26:53,/posts/export-one,\"Export, \"\"quoted\"\"\",example.com,Mozilla/5.0,"
+                        + "127.0.0.1,session-1,,NL");
+        assertThat(lines[2]).contains(",/posts/export-formula,\"'=HYPERLINK(\"\"https://evil.example\"\")\",");
+    }
+
+    @Test
+    @WithUserDetails("admin@gmail.com")
+    void shouldExportPageViewsAsGzippedNdjson() throws Exception {
+        var today = LocalDate.now();
+        pageViewJdbcRepository.insertAll(List.of(aPageView("/posts/export-ndjson")
+                .title("NDJSON")
+                .timestamp(today.atTime(8, 0))
+                .build()));
+
+        var result = mockMvcTester
+                .get()
+                .uri("/admin/analytics/export")
+                .param("format", "ndjson")
+                .param("gzip", "true")
+                .exchange();
+
+        result.assertThat().hasStatusOk().hasContentType("application/gzip");
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            var content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(content.lines()).singleElement().satisfies(line -> assertThat(line)
+                    .startsWith("{\"id\":")
+                    .contains(
+                            "\"created_at\":\"" + today + "T08:00\"",
+                            "\"path\":\"/posts/export-ndjson\"",
+                            "\"referer_host\":\"example.com\"",
+                            "\"user_id\":null,\"country_code\":null}"));
+        }
+    }
+
+    @Test
+    @WithUserDetails("admin@gmail.com")
+    void shouldRejectUnknownExportFormat() {
+        var result = mockMvcTester
+                .get()
+                .uri("/admin/analytics/export")
+                .param("format", "xml")
+                .exchange();
+
+        result.assertThat().hasStatus(400);
+    }
 }
@@ -0,0 +1,68 @@
+package com.sivalabs.blog.analytics.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BotDetectorTests {
+    private final BotDetector botDetector = new BotDetector();
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)",
+                "Mozilla/5.0 (compatible; bingbot/2.0; +http://www.bing.com/bingbot.htm)",
+                "facebookexternalhit/1.1 (+http://www.facebook.com/externalhit_uatext.php)",
+                "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) HeadlessChrome/120.0",
+                "curl/8.4.0",
+                "python-requests/2.31.0",
+                "Mozilla/5.0 (compatible; Yahoo! Slurp; http://help.yahoo.com/help/us/ysearch/slurp)",
+                "Mozilla/5.0 (compatible; DuckDuckBot-Https/1.1; https://duckduckgo.com/duckduckbot)",
+                "Feedly/1.0 (+http://www.feedly.com/fetcher.html; like FeedFetcher-Google)",
+                "Tiny Tiny RSS/23.04 (https://tt-rss.org/)"
+            })
+    void shouldDetectBots(String userAgent) {
+        assertThat(botDetector.isBot(userAgent)).isTrue();
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    void shouldTreatMissingUserAgentAsBot(String userAgent) {
+        assertThat(botDetector.isBot(userAgent)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0",
+                "Mozilla/5.0 (Macintosh; Intel Mac OS X 14_1) AppleWebKit/605.1.15 (KHTML, like Gecko) Safari/605.1",
+                "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0",
+                "Mozilla/5.0 (Linux; Android 10; CUBOT X30) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Mobile",
+                "Mozilla/5.0 (Linux; Android 12; CUBOT_P50) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Mobile"
+            })
+    void shouldNotFlagBrowsers(String userAgent) {
+        assertThat(botDetector.isBot(userAgent)).isFalse();
+    }
+
+    @Test
+    void shouldReturnCachedVerdictForRepeatedUserAgent() {
+        var matches = new AtomicInteger();
+        var detector = new BotDetector(new MultiPatternMatcher(List.of("bot/")) {
+            @Override
+            boolean matchesAny(String text) {
+                matches.incrementAndGet();
+                return super.matchesAny(text);
+            }
+        });
+        var userAgent = "Mozilla/5.0 (compatible; DuckDuckBot/1.1)";
+
+        assertThat(detector.isBot(userAgent)).isTrue();
+        assertThat(detector.isBot(userAgent)).isTrue();
+        assertThat(matches).hasValue(1);
+    }
+}
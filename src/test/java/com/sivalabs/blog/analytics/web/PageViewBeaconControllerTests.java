@@ -0,0 +1,153 @@
+package com.sivalabs.blog.analytics.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.sivalabs.blog.AbstractIT;
+import com.sivalabs.blog.analytics.domain.PagePathCanonicalizer;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import com.sivalabs.blog.analytics.events.PageViewEventPublisher;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@TestPropertySource(properties = "app.analytics.page-view-capture=beacon")
+class PageViewBeaconControllerTests extends AbstractIT {
+    private static final String BROWSER_USER_AGENT =
+            "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0";
+
+    @MockitoBean
+    private PageViewEventPublisher eventPublisher;
+
+    @Test
+    void shouldPublishReportedPageViewsOfTrackedRoutes() {
+        var result = mockMvcTester
+                .post()
+                .uri("/api/pv")
+                .header("User-Agent", BROWSER_USER_AGENT)
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(
+                        """
+                        [{"path": "/posts/test-post-1", "referrer": "https://news.example/item"},
+                         {"path": "/admin/analytics"}]
+                        """)
+                .exchange();
+
+        result.assertThat().hasStatus(HttpStatus.NO_CONTENT);
+        var event = ArgumentCaptor.forClass(PageViewEvent.class);
+        verify(eventPublisher).publishPageView(event.capture());
+        assertThat(event.getValue().path()).isEqualTo("/posts/test-post-1");
+        assertThat(event.getValue().title()).isEqualTo("Test Post 1");
+        assertThat(event.getValue().referer()).isEqualTo("https://news.example/item");
+        assertThat(event.getValue().host()).isEqualTo("localhost");
+        assertThat(event.getValue().userAgent()).isEqualTo(BROWSER_USER_AGENT);
+        assertThat(event.getValue().sessionId()).isNotBlank();
+        assertThat(event.getValue().timestamp()).isNotNull();
+    }
+
+    @Test
+    void shouldCountReportedPathsUnderTheirCanonicalPath() {
+        var result = mockMvcTester
+                .post()
+                .uri("/api/pv")
+                .header("User-Agent", BROWSER_USER_AGENT)
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(
+                        """
+                        [{"path": "/Posts/Test-Post-1/"},
+                         {"path": "/posts/random-junk-1"},
+                         {"path": "/posts/random-junk-2"}]
+                        """)
+                .exchange();
+
+        result.assertThat().hasStatus(HttpStatus.NO_CONTENT);
+        var event = ArgumentCaptor.forClass(PageViewEvent.class);
+        verify(eventPublisher, times(3)).publishPageView(event.capture());
+        assertThat(event.getAllValues())
+                .extracting(PageViewEvent::path)
+                .containsExactly(
+                        "/posts/test-post-1", PagePathCanonicalizer.UNKNOWN_PATH, PagePathCanonicalizer.UNKNOWN_PATH);
+    }
+
+    @Test
+    void shouldResolveTitlesOnTheServerInsteadOfTakingThemFromThePayload() {
+        var result = mockMvcTester
+                .post()
+                .uri("/api/pv")
+                .header("User-Agent", BROWSER_USER_AGENT)
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(
+                        """
+                        [{"path": "/posts/test-post-1", "title": "Spam 1"},
+                         {"path": "/tags/java/posts", "title": "Spam 2"},
+                         {"path": "/posts/random-junk-1", "title": "Spam 3"}]
+                        """)
+                .exchange();
+
+        result.assertThat().hasStatus(HttpStatus.NO_CONTENT);
+        var event = ArgumentCaptor.forClass(PageViewEvent.class);
+        verify(eventPublisher, times(3)).publishPageView(event.capture());
+        assertThat(event.getAllValues())
+                .extracting(PageViewEvent::title)
+                .containsExactly("Test Post 1", "Blog Posts", null);
+    }
+
+    @Test
+    void shouldIgnoreBeaconsOfBots() {
+        var result = mockMvcTester
+                .post()
+                .uri("/api/pv")
+                .header("User-Agent", "Googlebot/2.1 (+http://www.google.com/bot.html)")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("[{\"path\": \"/posts/test-post-1\"}]")
+                .exchange();
+
+        result.assertThat().hasStatus(HttpStatus.NO_CONTENT);
+        verify(eventPublisher, never()).publishPageView(any());
+    }
+
+    @Test
+    void shouldRejectOversizedBeacons() {
+        var result = mockMvcTester
+                .post()
+                .uri("/api/pv")
+                .header("User-Agent", BROWSER_USER_AGENT)
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("[" + "{\"path\": \"/posts/test-post-1\"},".repeat(1000) + "{}]")
+                .exchange();
+
+        result.assertThat().hasStatus(HttpStatus.PAYLOAD_TOO_LARGE);
+        verify(eventPublisher, never()).publishPageView(any());
+    }
+
+    @Test
+    void shouldRejectMalformedBeacons() {
+        var result = mockMvcTester
+                .post()
+                .uri("/api/pv")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("{\"path\": ")
+                .exchange();
+
+        result.assertThat().hasStatus(HttpStatus.BAD_REQUEST);
+        verify(eventPublisher, never()).publishPageView(any());
+    }
+
+    @Test
+    void shouldRenderBeaconScriptInsteadOfRecordingPageViews() {
+        var result = mockMvcTester
+                .get()
+                .uri("/posts/{slug}", "test-post-1")
+                .header("User-Agent", BROWSER_USER_AGENT)
+                .exchange();
+
+        result.assertThat().hasStatusOk().bodyText().contains("/js/page-view-beacon.js");
+        verify(eventPublisher, never()).publishPageView(any());
+    }
+}
@@ -0,0 +1,117 @@
+package com.sivalabs.blog.analytics.web;
+
+import com.sivalabs.blog.shared.models.Titled;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+
+// Compares the per-request tracking decision and title lookup of the old string/reflection based
+// interceptor with PageViewRouteClassifier. Run with: main() from the IDE, or
+// java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main PageViewInterceptorBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageViewInterceptorBenchmark {
+
+    @Param({"/posts/spring-boot-tips", "/admin/analytics", "/tags/java/posts"})
+    public String uri;
+
+    private PageViewRouteClassifier classifier;
+    private Object handler;
+    private Object post;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        var controller = new Controller();
+        var handlers = Map.of(
+                RequestMappingInfo.paths("/posts/{slug}").methods(RequestMethod.GET).build(),
+                new HandlerMethod(controller, "postDetails"),
+                RequestMappingInfo.paths("/tags/{tag}/posts").methods(RequestMethod.GET).build(),
+                new HandlerMethod(controller, "postsByTag"),
+                RequestMappingInfo.paths("/admin/analytics").methods(RequestMethod.GET).build(),
+                new HandlerMethod(controller, "adminAnalytics"));
+        classifier = new PageViewRouteClassifier(
+                () -> handlers, List.of("/", "/login", "/logout", "/error", "/admin/**", "/api/**"));
+        classifier.afterSingletonsInstantiated();
+        handler = handlers.entrySet().stream()
+                .filter(entry -> entry.getKey()
+                        .getPathPatternsCondition()
+                        .getPatterns()
+                        .iterator()
+                        .next()
+                        .matches(PathContainer.parsePath(uri)))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElseThrow();
+        post = new Post("Spring Boot Tips");
+    }
+
+    @Benchmark
+    public String legacyStringChecksAndReflection() throws ReflectiveOperationException {
+        if (!legacyShouldTrack(uri)) {
+            return null;
+        }
+        return (String) post.getClass().getMethod("title").invoke(post);
+    }
+
+    @Benchmark
+    public String routeClassifier() {
+        if (!classifier.isTracked(handler)) {
+            return null;
+        }
+        return post instanceof Titled titled ? titled.title() : null;
+    }
+
+    private static boolean legacyShouldTrack(String uri) {
+        if (uri.startsWith("/admin") || uri.startsWith("/api")) {
+            return false;
+        }
+        if (uri.contains("/webjars")
+                || uri.contains("/css")
+                || uri.contains("/js")
+                || uri.contains("/images")
+                || uri.contains("/user-images")
+                || uri.contains("/favicon.ico")) {
+            return false;
+        }
+        return !uri.equals("/") && !uri.equals("/login") && !uri.equals("/logout") && !uri.equals("/error");
+    }
+
+    public record Post(String title) implements Titled {}
+
+    public static class Controller {
+        public void postDetails() {}
+
+        public void postsByTag() {}
+
+        public void adminAnalytics() {}
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(PageViewInterceptorBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
@@ -0,0 +1,179 @@
+package com.sivalabs.blog.analytics.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.sivalabs.blog.AbstractIT;
+import com.sivalabs.blog.admin.posts.PostService;
+import com.sivalabs.blog.analytics.domain.PagePathCanonicalizer;
+import com.sivalabs.blog.analytics.events.PageViewEvent;
+import com.sivalabs.blog.analytics.events.PageViewEventPublisher;
+import com.sivalabs.blog.shared.models.PostStatus;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+class PageViewInterceptorTests extends AbstractIT {
+    private static final String BROWSER_USER_AGENT =
+            "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0";
+
+    @MockitoBean
+    private PageViewEventPublisher eventPublisher;
+
+    @Autowired
+    private PageViewInterceptor pageViewInterceptor;
+
+    @Autowired
+    private PageViewRouteClassifier routeClassifier;
+
+    @Autowired
+    private PagePathCanonicalizer pathCanonicalizer;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Test
+    void shouldServePostDetailsToAnonymousReaders() {
+        var result = mockMvcTester
+                .get()
+                .uri("/posts/{slug}", "test-post-1")
+                .header("User-Agent", BROWSER_USER_AGENT)
+                .exchange();
+
+        result.assertThat().hasStatus2xxSuccessful();
+        assertThat(result.getRequest().getSession(false)).isNull();
+        assertThat(result.getResponse().getHeaders(HttpHeaders.SET_COOKIE))
+                .noneMatch(cookie -> cookie.startsWith("JSESSIONID="));
+    }
+
+    @Test
+    void shouldPublishPageViewsUnderTheCanonicalPath() {
+        var result = mockMvcTester
+                .get()
+                .uri("/posts/{slug}?utm_source=feed", "test-post-1")
+                .header("User-Agent", BROWSER_USER_AGENT)
+                .exchange();
+
+        result.assertThat().hasStatus2xxSuccessful();
+        var event = ArgumentCaptor.forClass(PageViewEvent.class);
+        verify(eventPublisher).publishPageView(event.capture());
+        assertThat(event.getValue().path()).isEqualTo("/posts/test-post-1");
+    }
+
+    @Test
+    void shouldRefreshKnownSlugsWhenPostsArePublished() {
+        assertThat(canonicalPath("/posts/test-post-5")).isEqualTo(PagePathCanonicalizer.UNKNOWN_PATH);
+
+        postService.updatePostStatus(List.of(5L), PostStatus.PUBLISHED);
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(canonicalPath("/posts/test-post-5")).isEqualTo("/posts/test-post-5"));
+
+        postService.updatePostStatus(List.of(5L), PostStatus.DRAFT);
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(canonicalPath("/posts/test-post-5"))
+                        .isEqualTo(PagePathCanonicalizer.UNKNOWN_PATH));
+    }
+
+    @Test
+    void shouldNotRecordPageViewsOfBots() {
+        var result = mockMvcTester
+                .get()
+                .uri("/posts/{slug}", "test-post-1")
+                .header("User-Agent", "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)")
+                .exchange();
+
+        result.assertThat().hasStatus2xxSuccessful();
+        verify(eventPublisher, never()).publishPageView(any());
+    }
+
+    @Test
+    void shouldTrackOnlyPublicPageRoutes() throws Exception {
+        assertThat(routeClassifier.isTracked(handlerFor("/posts/test-post-1"))).isTrue();
+        assertThat(routeClassifier.isTracked(handlerFor("/tags/java/posts"))).isTrue();
+        assertThat(routeClassifier.isTracked(handlerFor("/admin/analytics"))).isFalse();
+        assertThat(routeClassifier.isTracked(handlerFor("/error"))).isFalse();
+    }
+
+    @Test
+    void shouldMatchReportedPathsAgainstTrackedRoutes() {
+        assertThat(routeClassifier.isTrackedPath("/posts/test-post-1")).isTrue();
+        assertThat(routeClassifier.isTrackedPath("/categories/java/posts")).isTrue();
+        assertThat(routeClassifier.isTrackedPath("/admin/analytics")).isFalse();
+        assertThat(routeClassifier.isTrackedPath("/api/pv")).isFalse();
+        assertThat(routeClassifier.isTrackedPath("posts/test-post-1")).isFalse();
+        assertThat(routeClassifier.isTrackedPath(null)).isFalse();
+    }
+
+    @Test
+    void shouldCanonicalizePathsToTrackedRoutesAndKnownSlugs() {
+        assertThat(canonicalPath("/posts/test-post-1")).isEqualTo("/posts/test-post-1");
+        assertThat(canonicalPath("/Posts/Test-Post-1/")).isEqualTo("/posts/test-post-1");
+        assertThat(canonicalPath("//posts//test-post-1;jsessionid=abc?utm_source=feed"))
+                .isEqualTo("/posts/test-post-1");
+        assertThat(canonicalPath("/posts/test-%70ost-1")).isEqualTo("/posts/test-post-1");
+        assertThat(canonicalPath("/posts/search")).isEqualTo("/posts/search");
+        assertThat(canonicalPath("/tags/spring-boot/posts")).isEqualTo("/tags/spring-boot/posts");
+        assertThat(canonicalPath("/categories/java/posts/")).isEqualTo("/categories/java/posts");
+
+        assertThat(canonicalPath("/posts/test-post-5")).isEqualTo(PagePathCanonicalizer.UNKNOWN_PATH);
+        assertThat(canonicalPath("/posts/wp-login.php")).isEqualTo(PagePathCanonicalizer.UNKNOWN_PATH);
+        assertThat(canonicalPath("/tags/no-such-tag/posts")).isEqualTo(PagePathCanonicalizer.UNKNOWN_PATH);
+        assertThat(canonicalPath("/.env")).isNull();
+    }
+
+    @Test
+    void shouldNotAcceptBeaconsWhenPageViewsAreCapturedOnTheServer() {
+        var result = mockMvcTester
+                .post()
+                .uri("/api/pv")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("[{\"path\":\"/posts/test-post-1\"}]")
+                .exchange();
+
+        result.assertThat().hasStatus(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldNotCreateSessionWhenTrackingAnonymousPageViews() throws Exception {
+        var request = new MockHttpServletRequest("GET", "/posts/test-post-1");
+        request.addHeader("User-Agent", BROWSER_USER_AGENT);
+        var response = new MockHttpServletResponse();
+
+        pageViewInterceptor.postHandle(
+                request, response, handlerFor("/posts/test-post-1"), new ModelAndView("blog/post-details"));
+
+        assertThat(request.getSession(false)).isNull();
+    }
+
+    private String canonicalPath(String path) {
+        var route = routeClassifier.matchTrackedRoute(path);
+        return route != null ? pathCanonicalizer.canonicalize(route.template(), route.variables()) : null;
+    }
+
+    private Object handlerFor(String path) throws Exception {
+        var request = new MockHttpServletRequest("GET", path);
+        ServletRequestPathUtils.parseAndCache(request);
+        var handler = handlerMapping.getHandler(request);
+        assertThat(handler).isNotNull();
+        return handler.getHandler();
+    }
+}
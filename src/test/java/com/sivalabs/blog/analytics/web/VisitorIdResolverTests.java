@@ -0,0 +1,82 @@
+package com.sivalabs.blog.analytics.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.servlet.http.Cookie;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class VisitorIdResolverTests {
+    private static final byte[] SECRET = "test-secret".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void shouldHashSameClientToSameVisitorId() {
+        var resolver = new HashedVisitorIdResolver(SECRET, Clock.systemUTC());
+
+        var first = resolver.resolveVisitorId(request("10.0.0.1", "Firefox"), new MockHttpServletResponse());
+        var second = resolver.resolveVisitorId(request("10.0.0.1", "Firefox"), new MockHttpServletResponse());
+        var other = resolver.resolveVisitorId(request("10.0.0.2", "Firefox"), new MockHttpServletResponse());
+
+        assertThat(first).hasSize(32).isEqualTo(second).isNotEqualTo(other);
+    }
+
+    @Test
+    void shouldRotateHashedVisitorIdsAtMidnightOfTheAnalyticsZone() {
+        var tokyo = ZoneId.of("Asia/Tokyo");
+        var lateEvening = Instant.parse("2024-03-01T23:30:00Z");
+        var earlyMorningInTokyo = Instant.parse("2024-03-01T16:00:00Z");
+
+        var inTokyo = resolveVisitorId(Clock.fixed(lateEvening, tokyo));
+
+        assertThat(inTokyo).isEqualTo(resolveVisitorId(Clock.fixed(earlyMorningInTokyo, tokyo)));
+        assertThat(inTokyo).isNotEqualTo(resolveVisitorId(Clock.fixed(lateEvening, ZoneOffset.UTC)));
+    }
+
+    @Test
+    void shouldIssueSignedCookieAndRecognizeItOnNextRequest() {
+        var resolver = new CookieVisitorIdResolver(SECRET);
+        var response = new MockHttpServletResponse();
+
+        var visitorId = resolver.resolveVisitorId(request("10.0.0.1", "Firefox"), response);
+        var cookie = response.getCookie(CookieVisitorIdResolver.COOKIE_NAME);
+
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.isHttpOnly()).isTrue();
+        var nextRequest = request("10.0.0.9", "Chrome");
+        nextRequest.setCookies(cookie);
+        var nextResponse = new MockHttpServletResponse();
+        assertThat(resolver.resolveVisitorId(nextRequest, nextResponse)).isEqualTo(visitorId);
+        assertThat(nextResponse.getCookies()).isEmpty();
+    }
+
+    @Test
+    void shouldReplaceTamperedCookie() {
+        var resolver = new CookieVisitorIdResolver(SECRET);
+        var request = request("10.0.0.1", "Firefox");
+        request.setCookies(new Cookie(CookieVisitorIdResolver.COOKIE_NAME, "forged-id.0123456789abcdef"));
+        var response = new MockHttpServletResponse();
+
+        var visitorId = resolver.resolveVisitorId(request, response);
+
+        assertThat(visitorId).isNotEqualTo("forged-id");
+        assertThat(response.getCookie(CookieVisitorIdResolver.COOKIE_NAME)).isNotNull();
+    }
+
+    private static String resolveVisitorId(Clock clock) {
+        return new HashedVisitorIdResolver(SECRET, clock)
+                .resolveVisitorId(request("10.0.0.1", "Firefox"), new MockHttpServletResponse());
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String userAgent) {
+        var request = new MockHttpServletRequest("GET", "/posts/test-post-1");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader("User-Agent", userAgent);
+        return request;
+    }
+}
@@ -1,11 +1,33 @@
 -- Test data for analytics tests
-INSERT INTO page_views (path, title, referer, user_agent, ip_address, session_id, user_id, created_at)
-VALUES 
-    ('/posts', 'Blog Home', null, 'Mozilla/5.0', '192.168.1.1', 'session1', null, NOW() - INTERVAL '1 hour'),
-    ('/posts/spring-boot-guide', 'Spring Boot Guide', '/posts', 'Mozilla/5.0', '192.168.1.2', 'session2', null, NOW() - INTERVAL '2 hours'),
-    ('/posts/spring-boot-guide', 'Spring Boot Guide', '/posts', 'Mozilla/5.0', '192.168.1.1', 'session1', null, NOW() - INTERVAL '3 hours'),
-    ('/posts/java-basics', 'Java Basics', '/posts', 'Mozilla/5.0', '192.168.1.3', 'session3', null, NOW() - INTERVAL '1 day'),
-    ('/categories/java/posts', 'Java Category', null, 'Mozilla/5.0', '192.168.1.4', 'session4', null, NOW() - INTERVAL '2 days');
+INSERT INTO page_view_paths (path)
+VALUES ('/posts'), ('/posts/spring-boot-guide'), ('/posts/java-basics'), ('/categories/java/posts')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO page_view_titles (title)
+VALUES ('Blog Home'), ('Spring Boot Guide'), ('Java Basics'), ('Java Category')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO page_view_referer_hosts (host)
+VALUES ('localhost')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO page_view_user_agents (user_agent)
+VALUES ('Mozilla/5.0')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO page_views (path_id, title_id, referer_host_id, user_agent_id, ip_address, session_id, user_id, created_at)
+SELECT p.id, t.id, h.id, ua.id, v.ip_address, v.session_id, null, v.created_at
+FROM (VALUES
+    ('/posts', 'Blog Home', null, '192.168.1.1', 'session1', NOW() - INTERVAL '1 hour'),
+    ('/posts/spring-boot-guide', 'Spring Boot Guide', 'localhost', '192.168.1.2', 'session2', NOW() - INTERVAL '2 hours'),
+    ('/posts/spring-boot-guide', 'Spring Boot Guide', 'localhost', '192.168.1.1', 'session1', NOW() - INTERVAL '3 hours'),
+    ('/posts/java-basics', 'Java Basics', 'localhost', '192.168.1.3', 'session3', NOW() - INTERVAL '1 day'),
+    ('/categories/java/posts', 'Java Category', null, '192.168.1.4', 'session4', NOW() - INTERVAL '2 days'))
+    AS v(path, title, referer_host, ip_address, session_id, created_at)
+JOIN page_view_paths p ON p.path = v.path
+JOIN page_view_titles t ON t.title = v.title
+LEFT JOIN page_view_referer_hosts h ON h.host = v.referer_host
+JOIN page_view_user_agents ua ON ua.user_agent = 'Mozilla/5.0';
 
 -- Sample page analytics summary data
 INSERT INTO page_analytics_summary (path, total_views, views_today, views_this_week, views_this_month, 
@@ -14,4 +36,4 @@ INSERT INTO page_analytics_summary (path, total_views, views_today, views_this_w
 VALUES 
     ('/posts', 25, 5, 15, 20, 20, 4, 12, 16, NOW()),
     ('/posts/spring-boot-guide', 45, 8, 25, 35, 35, 6, 18, 25, NOW()),
-    ('/posts/java-basics', 15, 2, 8, 12, 12, 2, 6, 9, NOW());
\ No newline at end of file
+    ('/posts/java-basics', 15, 2, 8, 12, 12, 2, 6, 9, NOW());
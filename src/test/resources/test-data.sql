@@ -1,3 +1,5 @@
+DELETE FROM page_analytics_summary;
+DELETE FROM page_views;
 DELETE FROM subscribers;
 DELETE FROM settings;
 DELETE FROM messages;